@@ -0,0 +1,129 @@
+package distributed.benchmarks;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: Dictionaries.java
+ * @Description: Generated dictionaries of any size for the benchmarks, written once and reused by every fork.
+ * @Date: Created at 14:10 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Headword i is a fixed letters-only spelling of i (passes the validator), one definition per headword
+ * - words-N.csv and words-N.snap under java.io.tmpdir/dictionary-bench, built on first use
+ * - Server settings go in as system properties before LocalWords is first touched (it reads them once)
+ */
+
+import distributed.models.WordSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public final class Dictionaries {
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "dictionary-bench");
+
+    private Dictionaries() {
+    }
+
+    // "be" + i in base 26 (a..z), so headwords of different i never collide and never contain a digit
+    public static String word(int i) {
+        StringBuilder word = new StringBuilder("be");
+        do {
+            word.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return word.toString();
+    }
+
+    public static String definition(int i) {
+        return "generated definition number " + i + " used by the benchmarks";
+    }
+
+    public static List<String[]> rows(int size) {
+        List<String[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new String[]{word(i), definition(i)});
+        }
+        return rows;
+    }
+
+    // count random headwords of a dictionary with size headwords
+    public static String[] sample(int size, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = word(random.nextInt(size));
+        }
+        return words;
+    }
+
+    // words-N.csv, written on first use
+    public static synchronized Path csv(int size) throws IOException {
+        Path csv = DIRECTORY.resolve("words-" + size + ".csv");
+        if (!Files.exists(csv)) {
+            Files.createDirectories(DIRECTORY);
+            Path tmp = DIRECTORY.resolve("words-" + size + ".csv.tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < size; i++) {
+                    out.write(word(i));
+                    out.write(",\"");
+                    out.write(definition(i));
+                    out.write("\"\n");
+                }
+            }
+            Files.move(tmp, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return csv;
+    }
+
+    // words-N.snap next to words-N.csv, stamped so the server would accept it too
+    public static synchronized Path snapshot(int size) throws IOException {
+        Path csv = csv(size);
+        Path snapshot = DIRECTORY.resolve("words-" + size + ".snap");
+        if (!Files.exists(snapshot)) {
+            File file = csv.toFile();
+            Path tmp = DIRECTORY.resolve("words-" + size + ".snap.tmp");
+            WordSnapshot.write(tmp, rows(size), file.length(), file.lastModified());
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return snapshot;
+    }
+
+    // a private copy of words-N.csv in a new directory, for benchmarks that write to it
+    public static Path workingCopy(int size) throws IOException {
+        Path directory = Files.createTempDirectory("dictionary-bench-");
+        Path copy = directory.resolve("words.csv");
+        Files.copy(csv(size), copy);
+        return copy;
+    }
+
+    public static void deleteDirectory(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // point LocalWords at a dictionary; must run before the LocalWords class is loaded in this JVM
+    public static void configure(Path csv, String persistence, boolean snapshot, boolean fsync) {
+        System.setProperty("dictionary.file", csv.toString());
+        System.setProperty("dictionary.persistence", persistence);
+        System.setProperty("dictionary.snapshot", String.valueOf(snapshot));
+        System.setProperty("dictionary.fsync", String.valueOf(fsync));
+    }
+}
@@ -0,0 +1,86 @@
+package distributed.benchmarks;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: LoadBenchmark.java
+ * @Description: LocalWords.readAllWords and the startup index load over generated dictionaries.
+ * @Date: Created at 15:30 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - readAllWords: parallel CSV parse into a row list (dictionary.loadThreads, 0 = all cores); it does not
+ *   look at the snapshot param, run it with -p snapshot=false
+ * - loadIndex: what the server does at startup, snapshot=false parses and packs, snapshot=true maps words.snap
+ * - One call per op (single shot), the file is in the page cache after the first warmup
+ */
+
+import distributed.models.LocalWords;
+import distributed.models.WordIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoadBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    @Param({"0"})
+    public int loadThreads;
+
+    private Path csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        // a private directory: loadIndex may write words.snap next to the CSV
+        csv = Dictionaries.workingCopy(size);
+        if (snapshot) {
+            Files.copy(Dictionaries.snapshot(size), csv.resolveSibling("words.snap"));
+            // the snapshot is stamped with the shared CSV, give the copy the same stamp
+            Files.setLastModifiedTime(csv, Files.getLastModifiedTime(Dictionaries.csv(size)));
+        }
+        Dictionaries.configure(csv, "rewrite", snapshot, false);
+        if (loadThreads > 0) {
+            System.setProperty("dictionary.loadThreads", String.valueOf(loadThreads));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Dictionaries.deleteDirectory(csv.getParent());
+    }
+
+    @Benchmark
+    public List<String[]> readAllWords() {
+        return LocalWords.readAllWords();
+    }
+
+    @Benchmark
+    public WordIndex loadIndex() {
+        return LocalWords.loadIndex();
+    }
+}
@@ -0,0 +1,110 @@
+package distributed.benchmarks;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: LookupBenchmark.java
+ * @Description: LocalWords.findWord (hit and miss) and prefix search over generated dictionaries of 1k to 10M headwords.
+ * @Date: Created at 14:30 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - store=heap: words.csv parsed into the packed in-memory index; store=snapshot: the mapped words.snap
+ * - Miss: a typo of a real headword, so the "did you mean" index is built in setup and searched per call
+ * - Threads with -t (or ThreadSweep), allocation per call with -prof gc
+ * - 10M headwords need a large heap (-jvmArgsAppend -Xmx8g), -p fuzzyDistance=0 drops the deletion index
+ */
+
+import distributed.models.CsvLoader;
+import distributed.models.LocalWords;
+import distributed.models.WordIndex;
+import distributed.models.WordSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    // words picked per thread in turn, a power of two
+    private static final int SAMPLE = 1 << 14;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"heap", "snapshot"})
+    public String store;
+
+    @Param({"2"})
+    public int fuzzyDistance;
+
+    private WordIndex index;
+    private LocalWords localWords;
+    private String[] hits;
+    private String[] misses;
+    private String[] prefixes;
+
+    // each benchmark thread walks the samples from its own position
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = (int) Thread.currentThread().threadId() * 7919;
+
+        int next() {
+            return next++ & (SAMPLE - 1);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Path csv = Dictionaries.csv(size);
+        Dictionaries.configure(csv, "log", store.equals("snapshot"), false);
+        System.setProperty("dictionary.fuzzy.maxDistance", String.valueOf(fuzzyDistance));
+        if (store.equals("snapshot")) {
+            index = new WordIndex(WordSnapshot.open(Dictionaries.snapshot(size)));
+        } else {
+            index = CsvLoader.load(csv, Runtime.getRuntime().availableProcessors());
+        }
+        localWords = new LocalWords();
+        hits = Dictionaries.sample(size, SAMPLE, 42);
+        misses = new String[SAMPLE];
+        prefixes = new String[SAMPLE];
+        for (int i = 0; i < SAMPLE; i++) {
+            misses[i] = hits[i] + "x9";
+            prefixes[i] = hits[i].substring(0, Math.min(hits[i].length(), 4));
+        }
+        // first miss builds the deletion index, keep that out of the measurement
+        localWords.findWord(misses[0], index);
+    }
+
+    @Benchmark
+    public List<String> findWordHit(Cursor cursor) {
+        return localWords.findWord(hits[cursor.next()], index);
+    }
+
+    @Benchmark
+    public List<String> findWordMiss(Cursor cursor) {
+        return localWords.findWord(misses[cursor.next()], index);
+    }
+
+    @Benchmark
+    public List<String> prefixSearch(Cursor cursor) {
+        return index.prefixSearch(prefixes[cursor.next()], 10);
+    }
+}
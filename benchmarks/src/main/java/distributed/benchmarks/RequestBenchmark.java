@@ -0,0 +1,134 @@
+package distributed.benchmarks;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: RequestBenchmark.java
+ * @Description: Request validation and the server's per-request work for a local lookup, without the socket.
+ * @Date: Created at 15:50 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - WordValidator.isValid on accepted words and on words it refuses (punctuation, unsupported script)
+ * - Legacy request: three readUTF, validate, findWord, ReplyEncoder reply (what serveLegacy does per request)
+ * - Binary request: read the frame, decode, validate, findWord, encode and write the reply frame (handleLocalFrame)
+ * - Streams are in memory and reused, so only the server's own allocations show up under -prof gc
+ */
+
+import distributed.models.CsvLoader;
+import distributed.models.LocalWords;
+import distributed.models.WordIndex;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.ReplyEncoder;
+import distributed.protocol.WordValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBenchmark {
+
+    private static final int SAMPLE = 1 << 12;
+    private static final String[] REFUSED = {"hello world", "don't", "naïve", "über", "a,b", "tab\there"};
+
+    @Param({"100000"})
+    public int size;
+
+    private WordIndex index;
+    private LocalWords localWords;
+    private String[] words;
+    // request bytes as the client sends them, one per sample word
+    private byte[][] legacyRequests;
+    private byte[][] binaryRequests;
+
+    // what one connection keeps: its reply encoder and output stream
+    @State(Scope.Thread)
+    public static class Connection {
+        int next = (int) Thread.currentThread().threadId() * 7919;
+        final ReplyEncoder encoder = new ReplyEncoder();
+        final DataOutputStream out = new DataOutputStream(OutputStream.nullOutputStream());
+
+        int next() {
+            return next++ & (SAMPLE - 1);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Path csv = Dictionaries.csv(size);
+        Dictionaries.configure(csv, "log", false, false);
+        index = CsvLoader.load(csv, Runtime.getRuntime().availableProcessors());
+        localWords = new LocalWords();
+        words = Dictionaries.sample(size, SAMPLE, 11);
+        legacyRequests = new byte[SAMPLE][];
+        binaryRequests = new byte[SAMPLE][];
+        for (int i = 0; i < SAMPLE; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF("local");
+            out.writeUTF(words[i]);
+            out.writeUTF("");
+            legacyRequests[i] = bytes.toByteArray();
+            bytes.reset();
+            Frame.of(i, Protocol.OP_LOCAL, Protocol.FLAG_NONE, List.of(words[i], "")).write(out);
+            binaryRequests[i] = bytes.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public boolean validateAccepted(Connection connection) {
+        return WordValidator.isValid(words[connection.next()]);
+    }
+
+    @Benchmark
+    public boolean validateRefused(Connection connection) {
+        return WordValidator.isValid(REFUSED[connection.next() % REFUSED.length]);
+    }
+
+    @Benchmark
+    public int legacyLocalRequest(Connection connection) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(legacyRequests[connection.next()]));
+        String operation = in.readUTF();
+        String word = in.readUTF();
+        in.readUTF();
+        if (operation.equals("local") && WordValidator.isValid(word)) {
+            connection.encoder.writeDefinitions(connection.out, localWords.findWord(word, index));
+        }
+        return connection.out.size();
+    }
+
+    @Benchmark
+    public int binaryLocalRequest(Connection connection) throws IOException {
+        Frame request = Frame.read(new DataInputStream(new ByteArrayInputStream(binaryRequests[connection.next()])));
+        List<String> args = request.strings();
+        String word = args.get(0);
+        Frame reply = WordValidator.isValid(word)
+                ? Frame.of(request.requestId(), request.opcode(), Protocol.FLAG_NONE, localWords.findWord(word, index))
+                : Frame.error(request.requestId(), request.opcode(), "Language unsupported or More than one word");
+        reply.write(connection.out);
+        return connection.out.size();
+    }
+}
@@ -0,0 +1,45 @@
+package distributed.benchmarks;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ThreadSweep.java
+ * @Description: Runs the selected benchmarks once per thread count, with the allocation profiler on.
+ * @Date: Created at 16:10 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - java -cp benchmarks.jar distributed.benchmarks.ThreadSweep [regex] [threads,...] [sizes,...]
+ *   e.g. ThreadSweep LookupBenchmark.findWordHit 1,2,4,8 1000,1000000
+ * - Every run adds -prof gc (gc.alloc.rate.norm = bytes allocated per call)
+ * - Results go to jmh-<threads>t.json, to compare against a previous build
+ */
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+public class ThreadSweep {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "LookupBenchmark";
+        int[] threads = Arrays.stream((args.length > 1 ? args[1] : "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        for (int count : threads) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(count)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-" + count + "t.json");
+            if (args.length > 2) {
+                options.param("size", args[2].split(","));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
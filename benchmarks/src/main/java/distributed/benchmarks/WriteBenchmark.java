@@ -0,0 +1,128 @@
+package distributed.benchmarks;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: WriteBenchmark.java
+ * @Description: LocalWords.addWord / updateWord / deleteWord on a private copy of a generated dictionary.
+ * @Date: Created at 15:00 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Same locking as the server: the word's stripe lock, the structure lock shared (exclusive for rewrite mode
+ *   update/delete), so -t N measures the contention real writers see
+ * - persistence=log appends (group commit), persistence=rewrite writes the whole words.csv per update/delete
+ *   (keep the size small with rewrite), -p fsync=true adds the disk flush
+ * - Delete is measured together with adding the row back, so the dictionary keeps its size
+ */
+
+import distributed.models.LocalWords;
+import distributed.models.StripedLocks;
+import distributed.models.WordIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+
+    private static final int SAMPLE = 1 << 14;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"log"})
+    public String persistence;
+
+    @Param({"false"})
+    public boolean fsync;
+
+    private Path csv;
+    private WordIndex index;
+    private LocalWords localWords;
+    private String[] words;
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final StripedLocks wordLocks = new StripedLocks(64);
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = (int) Thread.currentThread().threadId() * 7919;
+
+        int next() {
+            return next++ & (SAMPLE - 1);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        csv = Dictionaries.workingCopy(size);
+        Dictionaries.configure(csv, persistence, false, fsync);
+        index = LocalWords.loadIndex();
+        localWords = new LocalWords();
+        words = Dictionaries.sample(size, SAMPLE, 7);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Dictionaries.deleteDirectory(csv.getParent());
+    }
+
+    // the server's mutate(): structure lock, then the word's stripe
+    private <T> T locked(String word, boolean exclusive, Supplier<T> write) {
+        Lock structure = exclusive ? structureLock.writeLock() : structureLock.readLock();
+        structure.lock();
+        try {
+            wordLocks.lock(word);
+            try {
+                return write.get();
+            } finally {
+                wordLocks.unlock(word);
+            }
+        } finally {
+            structure.unlock();
+        }
+    }
+
+    @Benchmark
+    public boolean addWord(Cursor cursor) {
+        String word = words[cursor.next()];
+        return locked(word, false, () -> localWords.addWord(word, "another benchmark definition", index));
+    }
+
+    @Benchmark
+    public String updateWord(Cursor cursor) {
+        String word = words[cursor.next()];
+        return locked(word, LocalWords.rewritesOnChange(),
+                () -> localWords.updateWord(word, "updated benchmark definition", 1, index));
+    }
+
+    @Benchmark
+    public boolean deleteWordAndRestore(Cursor cursor) {
+        String word = words[cursor.next()];
+        return locked(word, LocalWords.rewritesOnChange(), () -> {
+            String[] row = index.row(word, 1);
+            return row != null && localWords.deleteWord(word, 1, index) != null
+                    && localWords.addWord(row[0], row[1], index);
+        });
+    }
+}
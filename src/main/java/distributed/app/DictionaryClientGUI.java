@@ -5,28 +5,41 @@ package distributed.app;
  * @Description: GUI client for dictionary operations, supporting local/remote queries, history tracking, and dictionary management.
  * @Date: Created at 21:48 on 2025/3/24
         * @ModifiedBy: Garvyn
-        * @Version: V1.2
+        * @Version: V1.6
         * @Features:
         * - Dual-mode query (Local/Remote)
  * - Interactive history panel with 10-record capacity
  * - Integrated dictionary CRUD operations
  * - Network exception handling
+ * - Type-ahead suggestions for local queries
+ * - Persistent pooled connections shared with other clients in the JVM, no connect per request
+ * - Near cache of local lookups, emptied by the server's invalidation pushes (-Ddictionary.nearCache.size, 0 = off)
  */
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import distributed.client.ConnectionPool;
+import distributed.client.NearCache;
+
 import java.io.IOException;
-import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Scanner;
 
 public class DictionaryClientGUI extends JFrame {
     private final String SERVER_IP;
     private final int SERVER_PORT;
+    private final transient ConnectionPool pool; // persistent sockets, reconnects by itself
+    private final transient NearCache nearCache; // repeat local lookups, null when turned off
+    private static final int NEAR_CACHE_SIZE = Integer.getInteger("dictionary.nearCache.size", 1000);
     private final LinkedList<String> dicHistory = new LinkedList<>(); // history
     private final DefaultListModel<String> historyModel = new DefaultListModel<>(); // GUI history list
+    private static final int SUGGESTIONS = 8; // type-ahead entries shown
+    private boolean fillingSuggestion = false; // picking a suggestion must not trigger a new search
 
     public static void main(String[] args) {
         String serverIp = args[0];
@@ -40,6 +53,10 @@ public class DictionaryClientGUI extends JFrame {
     public DictionaryClientGUI(String SERVER_IP, int SERVER_PORT) {
         this.SERVER_IP = SERVER_IP;
         this.SERVER_PORT = SERVER_PORT;
+        this.pool = ConnectionPool.shared(SERVER_IP, SERVER_PORT);
+        // misses are not kept: their "did you mean" list changes with other words
+        this.nearCache = NEAR_CACHE_SIZE > 0 ? new NearCache(SERVER_IP, SERVER_PORT, NEAR_CACHE_SIZE,
+                reply -> !reply.startsWith("[No definitions")) : null;
         setTitle("Dictionary GUI");
         setSize(1000, 800);  // Increase the height to accommodate new buttons
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -62,6 +79,38 @@ public class DictionaryClientGUI extends JFrame {
         queryPanel.add(queryButton);
         queryPanel.add(queryTypeComboBox);
 
+        // Type-ahead: ask the server for completions once typing pauses
+        JPopupMenu suggestionPopup = new JPopupMenu();
+        suggestionPopup.setFocusable(false);
+        Timer suggestTimer = new Timer(150, e -> {
+            if ("Local Query".equals(queryTypeComboBox.getSelectedItem())) {
+                showSuggestions(wordField, suggestionPopup);
+            }
+        });
+        suggestTimer.setRepeats(false);
+        wordField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // attribute changes only
+            }
+
+            private void changed() {
+                if (!fillingSuggestion) {
+                    suggestTimer.restart();
+                }
+            }
+        });
+
         // Results panel
         JTextArea resultArea = new JTextArea(5, 40);
         resultArea.setEditable(false);
@@ -118,6 +167,7 @@ public class DictionaryClientGUI extends JFrame {
 
         // Events for buttons
         queryButton.addActionListener((ActionEvent e) -> {
+            suggestionPopup.setVisible(false);
             String word = wordField.getText().trim();
             String queryType = (String) queryTypeComboBox.getSelectedItem();
             if (!word.isEmpty()) {
@@ -170,20 +220,12 @@ public class DictionaryClientGUI extends JFrame {
 
     // Send request to the server for local dictionary operations
     private void sendLocalDictRequest(String operation, String word, String meaning, JTextArea resultArea) {
-        try (Socket socket = new Socket(SERVER_IP, SERVER_PORT);
-             DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-             DataInputStream in = new DataInputStream(socket.getInputStream())) {
-
-            // Send operation type (add, update, delete) and word/meaning
-            out.writeUTF(operation);
-            out.writeUTF(word);
-            if (meaning != null) {
-                out.writeUTF(meaning);
+        try {
+            // Send operation type (add, update, delete) and word/meaning, read the server response
+            String response = pool.request(operation, word, meaning);
+            if (nearCache != null) {
+                nearCache.invalidate(word); // our own change shows at once, the push follows
             }
-            out.flush();
-
-            // Read the server response
-            String response = in.readUTF();
             resultArea.setText(response);  // Show response in the text area
         } catch (IOException e) {
             resultArea.setText("Connection failed: " + e.getMessage());
@@ -192,17 +234,12 @@ public class DictionaryClientGUI extends JFrame {
 
     // Local word lookup (could be replaced with actual local dictionary)
     private String queryLocalWord(String word) {
-        try(Socket socket = new Socket(SERVER_IP, SERVER_PORT);
-            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-            DataInputStream in = new DataInputStream(socket.getInputStream())){
-
-            String meaning = "";
-            out.writeUTF("local");
-            out.writeUTF(word);
-            out.writeUTF(meaning);
-            out.flush();
+        try {
             System.out.println("Send local query : " + word);
-            return in.readUTF();
+            if (nearCache != null) {
+                return nearCache.get(word, w -> pool.request("local", w, ""));
+            }
+            return pool.request("local", word, "");
         }catch (Exception e){
             return "Connection Failed" + e.getMessage();
         }
@@ -210,22 +247,74 @@ public class DictionaryClientGUI extends JFrame {
 
     // Remote word lookup using server
     private String queryRemoteWord(String word) {
-        try (Socket socket = new Socket(SERVER_IP, SERVER_PORT);
-             DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-             DataInputStream in = new DataInputStream(socket.getInputStream())) {
-
-            String meaning = "";
-            out.writeUTF("remote");
-            out.writeUTF(word);
-            out.writeUTF(meaning);
-            out.flush();
+        try {
             System.out.println("Send remote query : " + word);
-            return in.readUTF();  // result
+            return pool.request("remote", word, "");  // result
         } catch (IOException e) {
             return "Connection failed: " + e.getMessage();
         }
     }
 
+    // fetch completions off the EDT and show them under the input field
+    private void showSuggestions(JTextField wordField, JPopupMenu popup) {
+        String prefix = wordField.getText().trim();
+        if (prefix.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+        new SwingWorker<List<String>, Void>() {
+            @Override
+            protected List<String> doInBackground() {
+                return queryPrefix(prefix);
+            }
+
+            @Override
+            protected void done() {
+                List<String> words;
+                try {
+                    words = get();
+                } catch (Exception e) {
+                    return;
+                }
+                // the user kept typing, a newer search is on its way
+                if (!prefix.equals(wordField.getText().trim())) {
+                    return;
+                }
+                popup.setVisible(false);
+                popup.removeAll();
+                if (words.isEmpty()) {
+                    return;
+                }
+                for (String word : words) {
+                    JMenuItem item = new JMenuItem(word);
+                    item.addActionListener(e -> {
+                        fillingSuggestion = true;
+                        wordField.setText(word);
+                        fillingSuggestion = false;
+                        popup.setVisible(false);
+                    });
+                    popup.add(item);
+                }
+                popup.show(wordField, 0, wordField.getHeight());
+                wordField.requestFocusInWindow();
+            }
+        }.execute();
+    }
+
+    // Prefix lookup on the server, the reply is "[word1, word2, ...]"
+    private List<String> queryPrefix(String prefix) {
+        try {
+            String response = pool.request("prefix", prefix, String.valueOf(SUGGESTIONS));
+            // headwords never contain ", " (punctuation and spaces are rejected)
+            if (response.length() < 3 || !response.startsWith("[") || !response.endsWith("]")) {
+                return new ArrayList<>();
+            }
+            return Arrays.asList(response.substring(1, response.length() - 1).split(", "));
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
     private void addHistory(String record) {
         if (dicHistory.size() >= 10) {
             dicHistory.removeFirst();
@@ -6,20 +6,47 @@ package distributed.app;
  * @Description: Multi-threaded dictionary server handling concurrent client requests with cache management.
         * @Date: Created at 21:48 on 2025/3/24
         * @ModifiedBy: Garvyn
-        * @Version: V2.0
+        * @Version: V2.6
         * @Architecture:
-        * - Thread pool with 10 worker threads
+        * - One virtual thread per connection, idle clients cost no platform thread
+ * - Bounded disk pool for update/delete; adds are only queued and wait for their group commit without locks
+ * - Legacy readUTF protocol and pipelined binary protocol, detected on connect
  * - Atomic reference cached dictionary data
- * - ReadWriteLock for concurrent access control
+ * - Lock-free reads of immutable index versions, writes locked per headword stripe
  * - Scheduled cache invalidation (30-min timeout)
- * - Wikipedia API integration for online queries
+ * - Wikipedia API integration for online queries, behind a TTL/LRU single-flight cache
+ * - Per-operation request / error counts and latency percentiles, gauges; over JMX and the "stats" operation
+ * - Invalidation pushes to subscribed binary connections after every change of a headword (client near caches)
+ * - Log-shipping replication: replicas (-Ddictionary.replicaOf=host:port) follow the ordered mutation stream,
+ *   serve reads and refuse writes; a replica that fell out of the backlog catches up from a snapshot
+ * - Sharding (-Ddictionary.shards=host:port,...): each node owns the headwords the consistent-hash ShardMap gives
+ *   it, binary requests for others get MOVED, legacy ones are forwarded; nodes are added online (ShardAdmin)
  */
 
+import distributed.metrics.ServerMetrics;
+import distributed.models.HotWordCache;
 import distributed.models.LocalWords;
+import distributed.models.StripedLocks;
+import distributed.models.WordIndex;
+import distributed.models.WordVersion;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.ProtocolException;
+import distributed.protocol.ReplyEncoder;
+import distributed.protocol.WordValidator;
+import distributed.remote.RemoteCache;
+import distributed.remote.RemoteLookup;
+import distributed.replication.ReplicaClient;
+import distributed.replication.ReplicaFeed;
+import distributed.replication.ReplicationLog;
+import distributed.sharding.InvalidationRelay;
+import distributed.sharding.ShardMap;
+import distributed.sharding.ShardMigration;
+import distributed.sharding.ShardedClient;
 
 // reader and writer
-import java.io.BufferedReader; // BufferedReader for reading std input
-import java.io.InputStreamReader; // converting byte streams to character streams
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 
@@ -28,26 +55,52 @@ import java.net.*;
 import javax.net.ServerSocketFactory; // server socket object(especially for SSL/TSL) --> can create different socket conveniently
 
 // Exceptions
+import java.io.EOFException;
 import java.io.IOException;
 
+// shard map file
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
 //web
-import org.json.JSONObject;
 import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
 
 // Threads -> ThreadPoolExecutor
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
 // cache && automatic tasks
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 // Interface
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 // lock
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
@@ -55,24 +108,90 @@ public class DictionaryServer {
 
     // Port for SERVER
     // private static final int SERVER_PORT = 9022;
-    // ThreadPool Size
-    private static final int MAX_THREADS = 10;
-    // client threads counter
-    private static int cThreadCounter = 0;
-    // Thread Pool
-    private static final ExecutorService threadPool = Executors.newFixedThreadPool(MAX_THREADS);
-    // web client
-    private static final HttpClient webClient = HttpClient.newHttpClient();
-
-    // cache and sync
-    private static final AtomicReference<List<String[]>> dicCache = new AtomicReference<>(LocalWords.readAllWords());
+    // Disk pool size, writes to different words run on it in parallel
+    private static final int DISK_THREADS = Integer.getInteger("dictionary.diskThreads", 4);
+    // requests one binary connection may have in flight
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("dictionary.maxInFlight", 256);
+    // prefix search result sizes
+    private static final int DEFAULT_COMPLETIONS = 10;
+    private static final int MAX_COMPLETIONS = 100;
+    // per-request logging, off by default
+    private static final boolean VERBOSE = Boolean.getBoolean("dictionary.verbose");
+    private static final String UNSUPPORTED_WORD = "Language unsupported or More than one word";
+    private static final String NOT_SUPPORTED = "Not Supported Action ~";
+    private static final Set<String> WRITES = Set.of("add", "delete", "update");
+    // legacy operations on one headword, forwarded to its shard when this node does not own it
+    private static final Set<String> ROUTED = Set.of("local", "add", "delete", "update");
+    // an add whose file append failed, it is not in the cache either
+    private static final String SAVE_FAILED = LocalWords.SAVE_FAILED;
+    // open connections
+    private static final AtomicInteger activeConnections = new AtomicInteger();
+    // one virtual thread per connection, a blocked readUTF on an idle socket only parks the virtual thread
+    private static final ExecutorService threadPool = Executors.newVirtualThreadPerTaskExecutor();
+    // bounded pool for disk work (add, update, delete), so a write burst can not flood the disk
+    private static final ThreadPoolExecutor diskPool = new ThreadPoolExecutor(DISK_THREADS, DISK_THREADS,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()); // fixed size, the queue depth is a gauge
+    // web client, shared by every remote lookup so upstream connections are reused
+    private static final HttpClient webClient =
+            RemoteLookup.newClient(Duration.ofMillis(Long.getLong("dictionary.remote.connectTimeoutMs", 3000)));
+    // async lookups: a slow upstream holds an in-flight slot, never a worker thread
+    private static final RemoteLookup remoteLookup = new RemoteLookup(webClient,
+            System.getProperty("dictionary.remote.baseUrl", RemoteLookup.DEFAULT_BASE_URL),
+            Duration.ofMillis(Long.getLong("dictionary.remote.timeoutMs", 5000)),
+            Integer.getInteger("dictionary.remote.maxInFlight", 32),
+            Integer.getInteger("dictionary.remote.maxQueued", 1000));
+    // popular words are answered from here, concurrent misses share one upstream call
+    private static final RemoteCache remoteCache = new RemoteCache(
+            Integer.getInteger("dictionary.remote.cacheSize", 10_000),
+            Long.getLong("dictionary.remote.ttlSeconds", 3600),
+            Long.getLong("dictionary.remote.negativeTtlSeconds", 300),
+            TimeUnit.SECONDS,
+            remoteLookup::lookUpAsync,
+            RemoteLookup::isUnknown);
+
+    // cache and sync -- never dropped: the snapshot is mapped (the OS pages it) and only hot headwords are
+    // decoded on the heap, in a byte-bounded HotWordCache (-Ddictionary.cache.maxBytes)
+    private static final AtomicReference<WordIndex> dicCache = new AtomicReference<>(LocalWords.loadIndex());
     // any client last req
     private static final AtomicLong lastAccessTime = new AtomicLong(System.currentTimeMillis());
-    // scheduler to remove cache
+    // scheduler to report the cache
     private static final ScheduledExecutorService cacheScheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final long CACHE_REPORT_MINUTES = Long.getLong("dictionary.cache.reportMinutes", 5);
+
+    // writers share this lock and hold the stripe locks of their words, so writers of different words run
+    // in parallel; a log compaction and whole-file rewrites take it exclusively.
+    // Readers take neither, they read an immutable WordVersion
+    private static final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private static final StripedLocks wordLocks = new StripedLocks(Integer.getInteger("dictionary.writeStripes", 64));
+
+    // per-operation counts and latency histograms plus gauges, read over JMX and with the "stats" operation
+    private static final ServerMetrics metrics = new ServerMetrics(Stream.concat(
+            IntStream.rangeClosed(Protocol.OP_LOCAL, Protocol.OP_SUBSCRIBE).boxed(),
+            IntStream.rangeClosed(Protocol.OP_SHARD_MAP, Protocol.OP_IMPORT).boxed())
+            .map(op -> Protocol.opName(op.byteValue())).toList());
+
+    // binary connections that sent OP_SUBSCRIBE, by their output stream -> true if they only want this node's own
+    // changes (another shard's relay); invalidations are pushed to them
+    private static final Map<DataOutputStream, Boolean> subscribers = new ConcurrentHashMap<>();
 
-    // delete , modify, add lock
-    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // replication: every applied mutation in order, for replicas; a replica's primary as host:port, null on a primary
+    private static final ReplicationLog replicationLog =
+            new ReplicationLog(Integer.getInteger("dictionary.replication.backlog", 100_000));
+    private static final String REPLICA_OF = System.getProperty("dictionary.replicaOf");
+    private static final String READ_ONLY = "Server is a read-only replica, send changes to the primary " + REPLICA_OF;
+    private static ReplicaClient replica;
+
+    // sharding: this node as host:port and the map in use, null when the server holds the whole dictionary
+    private static String self;
+    private static final AtomicReference<ShardMap> shardMap = new AtomicReference<>();
+    private static final String SHARD_MAP_FILE = System.getProperty("dictionary.shardMapFile", "shards.map");
+    // headwords copied per locked batch during a rebalance
+    private static final int MIGRATION_BATCH = 256;
+    // during a rebalance: the next map, changes of headwords moving under it are copied to their new owner
+    private static volatile ShardMigration migration;
+    // legacy requests for other shards' headwords, and other shards' invalidations for this node's subscribers
+    private static ShardedClient router;
+    private static InvalidationRelay relay;
 
 
     // Server entrance
@@ -85,6 +204,19 @@ public class DictionaryServer {
         InetAddress bindAddr = InetAddress.getByName(ip);
 
 
+        // fold the mutation log left by the last run into words.csv (the cache already replayed it)
+        if (LocalWords.hasPendingLog()) {
+            LocalWords.compact(dicCache.get());
+        }
+
+        self = ip + ":" + SERVER_PORT;
+        if (REPLICA_OF != null) {
+            startReplica();
+        } else if (System.getProperty("dictionary.shards") != null) {
+            startSharding(System.getProperty("dictionary.shards"));
+        }
+        registerMetrics();
+
         // socket factory ~
         ServerSocketFactory dicFactory = ServerSocketFactory.getDefault();
 
@@ -97,29 +229,28 @@ public class DictionaryServer {
             System.out.println("Port number : " + SERVER_PORT);
             System.out.println("-- On service --");
 
-            // Start cache cleanup scheduler
-            cacheScheduler.scheduleAtFixedRate(() -> {
-                long now = System.currentTimeMillis();
-                long lastAccess = lastAccessTime.get();
-                long thirtyMinutes = 30 * 60 * 1000; // ms
-
-                if (now - lastAccess > thirtyMinutes) {
-                    dicCache.set(null);
-                    System.out.println("Cache Cleared -- No requests for 30 minutes.");
-                }
-            }, 1, 5, TimeUnit.MINUTES); // check each 5 min
+            // Start cache report scheduler, quiet while there are no requests
+            if (CACHE_REPORT_MINUTES > 0) {
+                long period = TimeUnit.MINUTES.toMillis(CACHE_REPORT_MINUTES);
+                cacheScheduler.scheduleAtFixedRate(() -> {
+                    if (System.currentTimeMillis() - lastAccessTime.get() <= period) {
+                        System.out.println("Cache -- " + cacheStats());
+                    }
+                }, period, period, TimeUnit.MILLISECONDS);
+            }
 
 
             // keep listening
             while (true) {
                 Socket clientSocket = dicSocket.accept(); // blocked method, if success, Return a new socket for communication;
-                cThreadCounter++;
-                System.out.println("The client number is " + cThreadCounter);
+                System.out.println("The client number is " + activeConnections.incrementAndGet());
                 threadPool.execute(() -> {
                     try {
                         serverClient(clientSocket);
                     } catch (IOException e) {
                         throw new RuntimeException(e);
+                    } finally {
+                        activeConnections.decrementAndGet();
                     }
                 });// submit task
             }
@@ -128,6 +259,7 @@ public class DictionaryServer {
             System.out.println("Exception caught when trying to listen on port " + SERVER_PORT + " or listening for a connection");
             System.out.println(e.getMessage());
         }finally {
+            diskPool.shutdown();
             threadPool.shutdown(); // close threadPool anyway
             try {
                 if (!threadPool.awaitTermination(60, TimeUnit.SECONDS)) {
@@ -141,87 +273,243 @@ public class DictionaryServer {
         }
     }
 
-    // Local word lookup
-    private static List<String> lookUpLocal(String word) {
-        // lock
-        lock.readLock().lock();
+    // gauges are read only when a report is made, then the MXBean goes up
+    private static void registerMetrics() {
+        metrics.gauge("connections.active", activeConnections::get);
+        metrics.gauge("disk.active", diskPool::getActiveCount);
+        metrics.gauge("disk.queued", () -> diskPool.getQueue().size());
+        metrics.gauge("disk.averageBatch", LocalWords::averageBatch);
+        metrics.gauge("lock.writersQueued", structureLock::getQueueLength);
+        metrics.gauge("remote.inFlight", remoteLookup::inFlight);
+        metrics.gauge("remote.queued", remoteLookup::queued);
+        metrics.gauge("remote.cacheHitRatio", () -> hitRatio(remoteCache.hits(), remoteCache.misses()));
+        metrics.gauge("hotWords.hitRatio", () -> {
+            HotWordCache cache = currentIndex().current().cache();
+            return cache == null ? Double.NaN : hitRatio(cache.hits(), cache.misses());
+        });
+        metrics.gauge("index.version", () -> currentIndex().current().version());
+        metrics.gauge("index.rows", () -> currentIndex().current().size());
+        metrics.gauge("index.overlayHeadwords", () -> currentIndex().current().changedHeadwords());
+        metrics.gauge("subscribers", subscribers::size);
+        if (replica != null) {
+            metrics.gauge("replication.connected", () -> replica.isConnected() ? 1 : 0);
+            metrics.gauge("replication.appliedSeq", replica::appliedSeq);
+            metrics.gauge("replication.lagRecords", replica::lagRecords);
+            metrics.gauge("replication.lagMillis", replica::lagMillis);
+            metrics.gauge("replication.snapshots", replica::snapshots);
+        } else {
+            metrics.gauge("replication.seq", replicationLog::lastSeq);
+            metrics.gauge("replication.replicas", replicationLog::replicas);
+            metrics.gauge("replication.maxLagRecords", replicationLog::maxLagRecords);
+        }
+        if (shardMap.get() != null) {
+            metrics.gauge("shard.mapVersion", () -> shardMap.get().version());
+            metrics.gauge("shard.rebalancing", () -> migration == null ? 0 : 1);
+            metrics.gauge("shard.relayPeers", relay::peers);
+        }
+        if (metrics.register()) {
+            System.out.println("Metrics on JMX as " + ServerMetrics.OBJECT_NAME);
+        }
+    }
+
+    // follow the primary named by -Ddictionary.replicaOf=host:port, its changes arrive on a background thread
+    private static void startReplica() {
+        int colon = REPLICA_OF.lastIndexOf(':');
+        String host = REPLICA_OF.substring(0, colon);
+        int port = Integer.parseInt(REPLICA_OF.substring(colon + 1));
+        replica = new ReplicaClient(host, port, new ReplicaClient.Store() {
+            @Override
+            public void install(List<String[]> rows) {
+                installSnapshot(rows);
+            }
+
+            @Override
+            public void apply(String[] record) {
+                applyReplicated(record);
+            }
+        });
+        replica.start();
+        System.out.println("Read-only replica of " + REPLICA_OF);
+    }
+
+    /*
+     * Own the headwords the shard map gives this node (-Ddictionary.shards=host:port,... as version 1, or the newer
+     * map a rebalance saved). This node is named ip:port exactly as started; a node that is not in the map yet
+     * owns nothing until a rebalance adds it. On its first start as a shard (no map file yet) the node keeps only
+     * its own headwords, so one words.csv copied to every node is split between them.
+     */
+    private static void startSharding(String nodes) {
+        ShardMap map = ShardMap.parse(1, nodes);
+        boolean firstStart = !Files.exists(Path.of(SHARD_MAP_FILE));
+        ShardMap saved = firstStart ? null : loadShardMap();
+        if (firstStart) {
+            List<String[]> rows = currentIndex().allRows();
+            List<String[]> kept = new ArrayList<>(rows.size());
+            for (String[] row : rows) {
+                if (map.owns(self, row[0])) {
+                    kept.add(row);
+                }
+            }
+            if (kept.size() < rows.size()) {
+                dicCache.set(LocalWords.replaceAll(kept));
+                System.out.println("First start as a shard, kept " + kept.size() + " of " + rows.size() + " definitions");
+            }
+            saveShardMap(map);
+        } else if (saved != null && saved.version() > map.version()) {
+            map = saved;
+        }
+        shardMap.set(map);
+        router = new ShardedClient(map);
+        relay = new InvalidationRelay(self, words -> pushInvalidation(words, true));
+        // a relayed peer that went away is subscribed again while anyone listens
+        cacheScheduler.scheduleWithFixedDelay(() -> {
+            if (subscribers.containsValue(false)) {
+                relay.follow(shardMap.get());
+            }
+        }, 5, 5, TimeUnit.SECONDS);
+        System.out.println("Shard " + self + " of map " + map
+                + (map.nodes().contains(self) ? "" : ", owns no headword until a rebalance adds it"));
+    }
+
+    // null if the file can not be read, the configured map is used then
+    private static ShardMap loadShardMap() {
+        try {
+            return ShardMap.decode(List.of(Files.readString(Path.of(SHARD_MAP_FILE), StandardCharsets.UTF_8)
+                    .trim().split(",")));
+        } catch (IOException e) {
+            System.out.println("Ignoring " + SHARD_MAP_FILE + ": " + e.getMessage());
+            return null;
+        }
+    }
 
-        if (DictionaryServer.dicCache.get() == null || DictionaryServer.dicCache.get().isEmpty()) {
-            DictionaryServer.dicCache.set(LocalWords.readAllWords());
+    // version,node,node,... so a restart keeps the map of the last rebalance
+    private static void saveShardMap(ShardMap map) {
+        Path tmp = Path.of(SHARD_MAP_FILE + ".tmp");
+        try {
+            Files.writeString(tmp, String.join(",", map.encode()), StandardCharsets.UTF_8);
+            Files.move(tmp, Path.of(SHARD_MAP_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Shard map not saved: " + e.getMessage());
+        }
+    }
+
+    // null if this node serves word, else the MOVED reply naming its owner
+    private static String notOwned(String word) {
+        ShardMap map = shardMap.get();
+        return map == null || map.owns(self, word) ? null : ShardedClient.moved(map, word);
+    }
+
+    // legacy request for another shard's headword, asked of its owner over the binary protocol
+    private static String forward(String operation, String word, String meaning) {
+        byte op = switch (operation) {
+            case "local" -> Protocol.OP_LOCAL;
+            case "add" -> Protocol.OP_ADD;
+            case "delete" -> Protocol.OP_DELETE;
+            default -> Protocol.OP_UPDATE;
+        };
+        try {
+            List<String> reply = router.call(op, word, meaning);
+            return op == Protocol.OP_LOCAL || reply.isEmpty() ? String.valueOf(reply) : reply.get(0);
+        } catch (IOException e) {
+            return "Server error: the shard of " + word + " is unreachable: " + e.getMessage();
         }
+    }
+
+    // NaN until there is a lookup
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+    }
+
+    // Local word lookup, no lock: the latest version is read with one volatile load
+    private static List<String> lookUpLocal(String word) {
         LocalWords ld = new LocalWords();
-        lock.readLock().unlock();
-        return ld.findWord(word, DictionaryServer.dicCache.get());
+        return ld.findWord(word, currentIndex());
+    }
+
+    // Type-ahead: headwords starting with prefix, limit defaults to 10 (max 100)
+    private static List<String> prefixSearch(String prefix, String limit) {
+        return currentIndex().prefixSearch(prefix, completions(limit));
     }
 
-    // This function is to lookup word online in the dictionary
-    private static String lookUpOnLine(String cWord) {
+    // legacy type-ahead on a sharded node: every shard's headwords, merged
+    private static List<String> prefixSearchAll(String prefix, String limit) {
         try {
-            // String language = detectLanguage(cWord);
-            // Wikipedia API to look up words
-            System.out.println("Looking up online");
-            String apiUrl = "https://en.wikipedia.org/api/rest_v1/page/summary/" + cWord;
-
-            // GET
-            URI uri = new URI(apiUrl);
-            URL url = uri.toURL(); // java 23 refuse new URL
-            JSONObject json = getJsonObject(url);
-
-            // extract meanings
-            if (json.has("extract")) {
-                return json.getString("extract");
+            return router.prefix(prefix, completions(limit));
+        } catch (IOException e) {
+            return List.of("Server error: a shard is unreachable: " + e.getMessage());
+        }
+    }
+
+    private static int completions(String limit) {
+        int k = DEFAULT_COMPLETIONS;
+        try {
+            if (!limit.isEmpty()) {
+                k = Math.max(1, Math.min(MAX_COMPLETIONS, Integer.parseInt(limit)));
+            }
+        } catch (NumberFormatException e) {
+            // keep the default
+        }
+        return k;
+    }
+
+    // cached index, writes keep it current
+    private static WordIndex currentIndex() {
+        return dicCache.get();
+    }
+
+    // hot headword cache and heap layer of the index, one line
+    private static String cacheStats() {
+        WordVersion version = currentIndex().current();
+        HotWordCache cache = version.cache();
+        return (cache == null ? "no hot word cache (dictionary on the heap)" : cache.stats())
+                + ", version " + version.version() + ", rows " + version.size();
+    }
+
+    // Batch lookup, all words answered from one version, one definition list per word
+    private static List<List<String>> lookUpLocalAll(List<String> words) {
+        List<List<String>> results = new ArrayList<>(words.size());
+        LocalWords ld = new LocalWords();
+        WordIndex index = currentIndex();
+        WordVersion version = index.current();
+        for (String word : words) {
+            String moved = notOwned(word);
+            if (moved != null) {
+                results.add(List.of(moved));
+            } else if (WordValidator.isValid(word)) {
+                results.add(ld.findWord(word, index, version));
             } else {
-                return "Unknown word -- " + cWord + ", we're working on it !!";
+                results.add(List.of(UNSUPPORTED_WORD));
             }
+        }
+        return results;
+    }
 
-        } catch (Exception e) {
-            return e.getMessage();
+    private static String remoteError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            return "Remote lookup timed out, please try again later";
         }
+        return cause.getMessage() == null ? cause.toString() : cause.getMessage();
     }
 
     // threads to serve client
     private static void serverClient(Socket clientSocket) throws IOException {
         System.out.println("New client connected, start to serve");
         try (Socket clientSoc = clientSocket;
-             DataInputStream in = new DataInputStream(clientSocket.getInputStream());
-             DataOutputStream out = new DataOutputStream(clientSocket.getOutputStream())) {
+             DataInputStream in = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()))) {
 
-            while (!Thread.currentThread().isInterrupted()) {
-                System.out.println("Start to accept data");
-                String operation = in.readUTF();
-                String word = in.readUTF();  // Receive word
-                String meaning = in.readUTF();
-                System.out.println("operation -- " + operation);
-                System.out.println("word -- " + word);
-                System.out.println("meaning -- " + meaning);
-
-                // update access time
-                lastAccessTime.set(System.currentTimeMillis());
-                // language match and deal with req
-                boolean isLangSupported = languageSupported(word);
-                boolean containSpecialChar = specialCharacters(word);
-                System.out.println(isLangSupported);
-                System.out.println(containSpecialChar);
-                if (isLangSupported && !containSpecialChar) {
-                    if (operation.equals("local")) {
-                        List<String> resList = DictionaryServer.lookUpLocal(word);
-                        out.writeUTF(String.valueOf(resList)); // Send result back to client
-                        out.flush(); // Ensure all data is sent
-                    } else {
-                        String result = switch (operation) {
-                            case "remote" -> DictionaryServer.lookUpOnLine(word);
-                            case "add" -> addLocalWord(word, meaning);
-                            case "delete" -> deleteLocalWord(word, meaning);
-                            case "update" -> updateLocalWord(word, meaning);
-                            default -> "Not Supported Action ~";
-                        };
-                        out.writeUTF(result); // Send result back to client
-                        out.flush(); // Ensure all data is sent
-                    }
-                }else{
-                    out.writeUTF("Language unsupported or More than one word");
-                    out.flush();
-                }
+            // protocol detection: a binary client starts with MAGIC, a legacy one with a writeUTF length
+            in.mark(1);
+            int first = in.read();
+            if (first == -1) {
+                return;
+            }
+            if (first == Protocol.MAGIC) {
+                serveBinary(clientSoc, in, out);
+            } else {
+                in.reset();
+                serveLegacy(in, out);
             }
         } catch (IOException e) {
             System.out.println("Exception while handling client: " + e.getMessage());
@@ -231,59 +519,576 @@ public class DictionaryServer {
         }
     }
 
+    // lockstep readUTF protocol: operation, word, meaning in, one writeUTF out
+    private static void serveLegacy(DataInputStream in, DataOutputStream out) throws IOException {
+        ReplyEncoder encoder = new ReplyEncoder();
+        while (!Thread.currentThread().isInterrupted()) {
+            String operation = in.readUTF();
+            String word = in.readUTF();  // Receive word
+            String meaning = in.readUTF();
+            long start = System.nanoTime();
+            if (VERBOSE) {
+                System.out.println("operation -- " + operation + ", word -- " + word + ", meaning -- " + meaning);
+            }
+
+            // update access time
+            lastAccessTime.set(System.currentTimeMillis());
+            boolean failed = false;
+            // language match and deal with req
+            if (operation.equals("stats")) {
+                encoder.writeLines(out, metrics.getReport()); // cut to the writeUTF limit
+            } else if (WordValidator.isValid(word)) {
+                if (ROUTED.contains(operation) && notOwned(word) != null) {
+                    String reply = forward(operation, word, meaning);
+                    out.writeUTF(reply);
+                    failed = isFailure(reply);
+                } else if (operation.equals("local")) {
+                    // Send result back to client, same bytes as writeUTF(String.valueOf(list))
+                    encoder.writeDefinitions(out, DictionaryServer.lookUpLocal(word));
+                } else if (operation.equals("prefix")) {
+                    encoder.writeDefinitions(out, shardMap.get() == null
+                            ? DictionaryServer.prefixSearch(word, meaning) : prefixSearchAll(word, meaning));
+                } else if (operation.equals("remote")) {
+                    // online lookup through the remote cache
+                    try {
+                        out.writeUTF(remoteCache.get(word).join());
+                    } catch (CompletionException e) {
+                        out.writeUTF(remoteError(e));
+                        failed = true;
+                    }
+                } else {
+                    String reply = handleOperation(operation, word, meaning);
+                    if (ShardedClient.isMoved(reply)) {
+                        reply = forward(operation, word, meaning); // the map changed since the check above
+                    }
+                    out.writeUTF(reply); // Send result back to client
+                    failed = isFailure(reply);
+                }
+            }else{
+                out.writeUTF(UNSUPPORTED_WORD);
+                failed = true;
+            }
+            out.flush(); // Ensure all data is sent
+            metrics.record(operation, System.nanoTime() - start, failed);
+        }
+    }
+
+    // write operations, shared by both protocols
+    private static String handleOperation(String operation, String word, String meaning) {
+        if (replica != null && WRITES.contains(operation)) {
+            return READ_ONLY;
+        }
+        return switch (operation) {
+            case "add" -> addLocalWord(word, meaning); // only queued, waits for its commit off the disk pool
+            case "delete" -> onDiskPool(() -> deleteLocalWord(word, meaning));
+            case "update" -> onDiskPool(() -> updateLocalWord(word, meaning));
+            default -> NOT_SUPPORTED;
+        };
+    }
+
+    // refused or failed on the server; "Word does not exist" and the like are answers, not errors
+    private static boolean isFailure(String reply) {
+        return reply.startsWith("Server ") || reply.equals(NOT_SUPPORTED);
+    }
+
+    // pipelined binary protocol: each frame runs on its own virtual thread, replies go out as they finish
+    private static void serveBinary(Socket clientSoc, DataInputStream in, DataOutputStream out) throws IOException {
+        int version = in.readUnsignedByte();
+        out.writeByte(Protocol.MAGIC);
+        out.writeByte(Math.min(version, Protocol.VERSION)); // accepted version
+        out.flush();
+        if (version < 1) {
+            return;
+        }
+        System.out.println("Binary protocol v" + Math.min(version, Protocol.VERSION) + " client");
+
+        // bounds the requests one connection may have in flight
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Frame request;
+                try {
+                    request = Frame.read(in);
+                } catch (EOFException e) {
+                    break; // client closed
+                }
+                long start = System.nanoTime(); // latency includes waiting for an in-flight slot
+                if (request.opcode() == Protocol.OP_SUBSCRIBE) {
+                    boolean own = ownChangesOnly(request);
+                    subscribers.put(out, own); // pushes may go out before the acknowledgement
+                    if (!own && relay != null) {
+                        threadPool.execute(() -> relay.follow(shardMap.get()));
+                    }
+                } else if (request.opcode() == Protocol.OP_REPLICATE) {
+                    serveReplica(request, in, out);
+                    break;
+                }
+                inFlight.acquireUninterruptibly();
+                threadPool.execute(() -> {
+                    CompletableFuture<Frame> reply;
+                    try {
+                        reply = handleFrame(request);
+                    } catch (RuntimeException e) {
+                        reply = CompletableFuture.completedFuture(
+                                Frame.error(request.requestId(), request.opcode(), "Server error: " + e.getMessage()));
+                    }
+                    // remote lookups complete later on the http client, the write hops back to a virtual thread
+                    reply.whenCompleteAsync((frame, error) -> {
+                        try {
+                            synchronized (out) {
+                                frame.write(out);
+                                out.flush();
+                            }
+                        } catch (IOException e) {
+                            closeQuietly(clientSoc); // reader side sees the close and ends the loop
+                        } finally {
+                            metrics.record(Protocol.opName(request.opcode()), System.nanoTime() - start, frame.isError());
+                            inFlight.release();
+                        }
+                    }, threadPool);
+                });
+            }
+        } finally {
+            subscribers.remove(out);
+            // let the replies already in progress go out before the socket is closed
+            try {
+                inFlight.tryAcquire(MAX_IN_FLIGHT, 30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 
-    // API interact
-    private static JSONObject getJsonObject(URL url) throws IOException {
-        // down-casting and set params
-        HttpURLConnection conn = (HttpURLConnection)url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("User-Agent", "Mozilla/5.0");
+    // OP_SUBSCRIBE ["own"]: another shard's relay, not sent what this node relays itself
+    private static boolean ownChangesOnly(Frame subscribe) {
+        try {
+            List<String> scope = subscribe.strings();
+            return !scope.isEmpty() && scope.get(0).equals("own");
+        } catch (ProtocolException e) {
+            return false;
+        }
+    }
 
-        // buffer reader to read input-stream (byte stream -> buffer)
-        BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-        // string builder to combine res
-        StringBuilder response = new StringBuilder();
-        String line;
-        // build results
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
+    // a replica follows the mutation stream on this connection until it goes away
+    private static void serveReplica(Frame request, DataInputStream in, DataOutputStream out) throws IOException {
+        if (replica != null) {
+            synchronized (out) {
+                Frame.error(request.requestId(), request.opcode(), "Server is a replica, replicate from " + REPLICA_OF)
+                        .write(out);
+                out.flush();
+            }
+            return;
+        }
+        System.out.println("Replica connected");
+        // a replica that stops reading blocks the feed inside a monitor, so it gets a platform thread of its own
+        Thread feed = Thread.ofPlatform().daemon().name("replica-feed").start(() -> {
+            try {
+                ReplicaFeed.serve(replicationLog, request, in, out, DictionaryServer::replicationSnapshot, threadPool);
+            } catch (IOException e) {
+                System.out.println("Replica disconnected: " + e.getMessage());
+            }
+        });
+        try {
+            feed.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        // close to free up resource
-        reader.close();
+    // every row of one version and the last seq it holds, taken with no writer running
+    private static ReplicationLog.Snapshot replicationSnapshot() {
+        WordVersion version;
+        long seq;
+        lockExclusive();
+        try {
+            version = currentIndex().current();
+            seq = replicationLog.lastSeq();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        return new ReplicationLog.Snapshot(seq, version.allRows());
+    }
 
-        // JSON to string
-        return new JSONObject(response.toString());
+    // replica: the primary's snapshot replaces the dictionary, near caches drop everything
+    private static void installSnapshot(List<String[]> rows) {
+        lockExclusive();
+        try {
+            dicCache.set(LocalWords.replaceAll(rows));
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        pushInvalidation(List.of());
     }
 
+    // replica: one shipped mutation, through the same locks and file writes as a client's change
+    private static void applyReplicated(String[] record) {
+        if (record.length < 2) {
+            return;
+        }
+        String skipped = mutate(List.of(record[1]), LocalWords.rewritesOnChange() && !record[0].equals("A"),
+                index -> new LocalWords().apply(record, index) ? null : "skipped");
+        if (skipped != null) {
+            System.out.println("Replicated record not applied: " + String.join(",", record));
+        }
+    }
 
+    // remote lookups answer asynchronously, everything else is done by the time this returns
+    private static CompletableFuture<Frame> handleFrame(Frame request) {
+        int id = request.requestId();
+        byte op = request.opcode();
+        if (op == Protocol.OP_REMOTE) {
+            List<String> args;
+            try {
+                args = request.strings();
+            } catch (ProtocolException e) {
+                return CompletableFuture.completedFuture(Frame.error(id, op, e.getMessage()));
+            }
+            String word = args.isEmpty() ? "" : args.get(0);
+            if (!WordValidator.isValid(word)) {
+                return CompletableFuture.completedFuture(Frame.error(id, op, UNSUPPORTED_WORD));
+            }
+            lastAccessTime.set(System.currentTimeMillis());
+            return remoteCache.get(word).handle((result, error) -> {
+                if (error != null) {
+                    metrics.recordError("remote"); // answered as text, the frame does not show it
+                }
+                return Frame.of(id, op, Protocol.FLAG_NONE, List.of(error == null ? result : remoteError(error)));
+            });
+        }
+        return CompletableFuture.completedFuture(handleLocalFrame(request));
+    }
 
-    private static String addLocalWord(String word, String meaning) {
-        lock.writeLock().lock();
+    private static Frame handleLocalFrame(Frame request) {
+        int id = request.requestId();
+        byte op = request.opcode();
+        if (op == Protocol.OP_IMPORT) {
+            return importFrame(request);
+        }
+        List<String> args;
         try {
-            if (meaning.isEmpty()){
-                return "Empty meaning is not allowed";
+            args = request.strings();
+        } catch (ProtocolException e) {
+            return Frame.error(id, op, e.getMessage());
+        }
+        if (op == Protocol.OP_STATS) {
+            return Frame.of(id, op, Protocol.FLAG_NONE, metrics.getReport());
+        }
+        if (op == Protocol.OP_SUBSCRIBE) {
+            return Frame.of(id, op, Protocol.FLAG_NONE, List.of()); // serveBinary already added the connection
+        }
+        if (op == Protocol.OP_SHARD_MAP) {
+            ShardMap map = shardMap.get();
+            return Frame.of(id, op, Protocol.FLAG_NONE,
+                    (map == null ? new ShardMap(0, List.of(String.valueOf(self))) : map).encode());
+        }
+        if (op == Protocol.OP_REBALANCE || op == Protocol.OP_COMMIT_MAP) {
+            ShardMap next;
+            try {
+                next = ShardMap.decode(args);
+            } catch (ProtocolException e) {
+                return Frame.error(id, op, e.getMessage());
+            }
+            String reply = op == Protocol.OP_REBALANCE ? prepareRebalance(next) : commitShardMap(next);
+            return isFailure(reply) ? Frame.error(id, op, reply) : Frame.of(id, op, Protocol.FLAG_NONE, List.of(reply));
+        }
+        lastAccessTime.set(System.currentTimeMillis());
+        if (op == Protocol.OP_MULTI_GET) {
+            return new Frame(id, op, Protocol.FLAG_NONE, Protocol.encodeGroups(lookUpLocalAll(args)));
+        }
+        if (op == Protocol.OP_BULK_ADD) {
+            if (replica != null) {
+                return Frame.error(id, op, READ_ONLY);
+            }
+            if (args.size() % 2 != 0) {
+                return Frame.error(id, op, "Bulk add expects word, meaning pairs");
+            }
+            return Frame.of(id, op, Protocol.FLAG_NONE, bulkAddLocalWords(args)); // queued like add
+        }
+
+        String word = args.isEmpty() ? "" : args.get(0);
+        String meaning = args.size() > 1 ? args.get(1) : "";
+        if (!WordValidator.isValid(word)) {
+            return Frame.error(id, op, UNSUPPORTED_WORD);
+        }
+        // prefix search covers this shard only, a sharded client asks every shard
+        String moved = op == Protocol.OP_PREFIX ? null : notOwned(word);
+        if (moved != null) {
+            return Frame.error(id, op, moved);
+        }
+        return switch (op) {
+            case Protocol.OP_LOCAL -> Frame.of(id, op, Protocol.FLAG_NONE, lookUpLocal(word));
+            case Protocol.OP_PREFIX -> Frame.of(id, op, Protocol.FLAG_NONE, prefixSearch(word, meaning));
+            case Protocol.OP_ADD, Protocol.OP_DELETE, Protocol.OP_UPDATE -> {
+                String reply = handleOperation(Protocol.opName(op), word, meaning);
+                yield ShardedClient.isMoved(reply) ? Frame.error(id, op, reply)
+                        : Frame.of(id, op, Protocol.FLAG_NONE, List.of(reply));
             }
+            default -> Frame.error(id, op, NOT_SUPPORTED);
+        };
+    }
 
+    // OP_IMPORT: headwords handed over by their previous shard, one group each (see ShardMigration)
+    private static Frame importFrame(Frame request) {
+        int id = request.requestId();
+        byte op = request.opcode();
+        if (replica != null) {
+            return Frame.error(id, op, READ_ONLY);
+        }
+        List<List<String>> groups;
+        try {
+            groups = Protocol.decodeGroups(request.payload());
+        } catch (ProtocolException e) {
+            return Frame.error(id, op, e.getMessage());
+        }
+        if (groups.stream().anyMatch(group -> group.isEmpty() || group.size() % 2 == 0)) {
+            return Frame.error(id, op, "Import expects headword, spelling, definition... groups");
+        }
+        String reply = onDiskPool(() -> importHeadwords(groups));
+        return isFailure(reply) ? Frame.error(id, op, reply) : Frame.of(id, op, Protocol.FLAG_NONE, List.of(reply));
+    }
+
+    // each headword's rows replace whatever this node has for it; replicas get the same changes as records
+    private static String importHeadwords(List<List<String>> groups) {
+        List<String> words = groups.stream().map(group -> group.get(0)).toList();
+        // not routed: the headwords may belong to this node only under the map being rolled out
+        return mutate(words, LocalWords.rewritesOnChange(), false, index -> {
             LocalWords lw = new LocalWords();
-            if (isNewWord(word)){
-                lw.addWord(word, meaning);  // Add the new word
-                dicCache.set(LocalWords.readAllWords());  // Update the cache
-                return "Word added successfully.";
-            }else{
-                lw.addWord(word, meaning);  // Add the new word
-                dicCache.set(LocalWords.readAllWords());  // Update the cache
-                return "Word already exists, new meaning added successfully.";
+            for (List<String> group : groups) {
+                String word = group.get(0);
+                List<String[]> rows = new ArrayList<>(group.size() / 2);
+                for (int i = 1; i + 1 < group.size(); i += 2) {
+                    rows.add(new String[]{group.get(i), group.get(i + 1)});
+                }
+                int removed = lw.replaceWord(word, rows, index);
+                if (removed < 0) {
+                    return SAVE_FAILED;
+                }
+                for (int i = 0; i < removed; i++) {
+                    replicationLog.append("D", word, "1");
+                }
+                for (String[] row : rows) {
+                    replicationLog.append("A", row[0], row[1]);
+                }
+            }
+            return String.valueOf(groups.size());
+        });
+    }
+
+    /*
+     * Rebalance, step one on every node of the current map: from now on every change of a headword that moves
+     * under next is copied to its new owner, then each such headword is copied once. This node keeps serving
+     * them until commitShardMap. A map that is not newer than the one in use cancels a rebalance in progress.
+     */
+    private static String prepareRebalance(ShardMap next) {
+        ShardMap current = shardMap.get();
+        if (current == null) {
+            return "Server is not sharded";
+        }
+        ShardMigration started = next.version() > current.version() ? new ShardMigration(self, next) : null;
+        ShardMigration previous;
+        WordVersion base;
+        lockExclusive();
+        try {
+            previous = migration;
+            migration = started;
+            base = currentIndex().current();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        if (previous != null) {
+            previous.close();
+        }
+        if (started == null) {
+            return "Rebalance cancelled, shard map v" + current.version() + " stays in use";
+        }
+
+        // every later change is copied by mutate, so copying the headwords of base once is enough
+        LinkedHashSet<String> moving = new LinkedHashSet<>();
+        for (String[] row : base.allRows()) {
+            if (started.moves(row[0])) {
+                moving.add(WordIndex.normalize(row[0]));
+            }
+        }
+        List<String> batch = new ArrayList<>(MIGRATION_BATCH);
+        try {
+            for (String word : moving) {
+                batch.add(word);
+                if (batch.size() == MIGRATION_BATCH) {
+                    copyLocked(started, batch);
+                    batch.clear();
+                }
+            }
+            copyLocked(started, batch);
+        } catch (IOException e) {
+            return "Server error: " + e.getMessage();
+        }
+        System.out.println("Copied " + moving.size() + " headwords for shard map " + next);
+        return "Copied " + moving.size() + " headwords for shard map v" + next.version();
+    }
+
+    // copy headwords with their write locks held, so a change copied by a writer is never overwritten by this copy
+    private static void copyLocked(ShardMigration target, List<String> words) throws IOException {
+        if (words.isEmpty()) {
+            return;
+        }
+        int[] stripes = wordLocks.stripesOf(words);
+        structureLock.readLock().lock();
+        try {
+            wordLocks.lockAll(stripes);
+            try {
+                target.copy(words, currentIndex()::rows);
+            } finally {
+                wordLocks.unlockAll(stripes);
             }
         } finally {
-            lock.writeLock().unlock();
+            structureLock.readLock().unlock();
         }
     }
 
-    private static String updateLocalWord(String word, String meaning) {
-        lock.writeLock().lock();
+    /*
+     * Rebalance, step two: switch to next. Headwords this node gives up must have been copied by prepareRebalance;
+     * they are dropped with one rewrite of words.csv while no writer runs (reads go on), and replicas of this node
+     * start over from a snapshot. A map that is not newer than the one in use is acknowledged and ignored.
+     */
+    private static String commitShardMap(ShardMap next) {
+        ShardMap current = shardMap.get();
+        if (current == null) {
+            return "Server is not sharded";
+        }
+        if (next.version() <= current.version()) {
+            return "Shard map v" + current.version() + " already in use";
+        }
+        ShardMigration done;
+        int dropped;
+        lockExclusive();
         try {
-            if (!isNewWord(word)) {
+            done = migration;
+            List<String[]> rows = currentIndex().allRows();
+            List<String[]> kept = new ArrayList<>(rows.size());
+            for (String[] row : rows) {
+                if (next.owns(self, row[0])) {
+                    kept.add(row);
+                }
+            }
+            dropped = rows.size() - kept.size();
+            if (dropped > 0) {
+                if (done == null || done.next().version() != next.version()) {
+                    return "Server error: headwords of " + self + " move under shard map v" + next.version()
+                            + ", run the rebalance copy first";
+                }
+                if (done.failure() != null) {
+                    return "Server error: " + done.failure();
+                }
+                dicCache.set(LocalWords.replaceAll(kept));
+                replicationLog.resync();
+            }
+            shardMap.set(next);
+            migration = null;
+            saveShardMap(next);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        if (done != null) {
+            done.close();
+        }
+        router.offer(next);
+        if (subscribers.containsValue(false)) {
+            relay.follow(next);
+        }
+        pushInvalidation(List.of()); // headwords changed owner, near caches start over
+        System.out.println("Shard map " + next + " in use, handed over " + dropped + " definitions");
+        return "Shard map v" + next.version() + " in use, handed over " + dropped + " definitions";
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    // run a write on the bounded disk pool, the connection's virtual thread just waits for the result
+    private static String onDiskPool(Callable<String> task) {
+        return onDiskPool(task, message -> message);
+    }
+
+    private static <T> T onDiskPool(Callable<T> task, Function<String, T> onError) {
+        Future<T> result = diskPool.submit(task);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            return onError.apply("Server error: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            return onError.apply("Server is shutting down");
+        }
+    }
+
+    // queued with the word's locks held, acknowledged once its group commit is on disk (see mutateQueued)
+    private static String addLocalWord(String word, String meaning) {
+        if (meaning.isEmpty()){
+            return "Empty meaning is not allowed";
+        }
+        return mutateQueued(List.of(word), index -> {
+            boolean[] isNew = new boolean[1];
+            // runs on the flusher once the row is durable: the index only gets durable rows
+            return LocalWords.queueWords(List.<String[]>of(new String[]{word, meaning}), () -> {
+                isNew[0] = isNewWord(word, index);
+                index.add(new String[]{word, meaning});
+                replicationLog.append("A", word, meaning);
+                pushInvalidation(List.of(word));
+            }).thenApply(durable -> {
+                if (isNew[0]){
+                    return "Word added successfully.";
+                }else{
+                    return "Word already exists, new meaning added successfully.";
+                }
+            });
+        });
+    }
+
+    // Batch add: word, meaning pairs, the stripes of all words and one append for the whole batch
+    private static List<String> bulkAddLocalWords(List<String> pairs) {
+        List<String> results = new ArrayList<>(pairs.size() / 2);
+        List<String[]> rows = new ArrayList<>(pairs.size() / 2);
+        List<String> words = new ArrayList<>(pairs.size() / 2);
+        for (int i = 0; i < pairs.size(); i += 2) {
+            String word = pairs.get(i);
+            String meaning = pairs.get(i + 1);
+            String moved = notOwned(word);
+            if (moved != null) {
+                results.add(moved);
+            } else if (!WordValidator.isValid(word)) {
+                results.add(UNSUPPORTED_WORD);
+            } else if (meaning.isEmpty()) {
+                results.add("Empty meaning is not allowed");
+            } else {
+                rows.add(new String[]{word, meaning});
+                words.add(word);
+                results.add("Word added successfully.");
+            }
+        }
+        if (rows.isEmpty()) {
+            return results;
+        }
+        String saved = mutateQueued(words, index -> LocalWords.queueWords(rows, () -> {
+            for (String[] row : rows) {
+                index.add(new String[]{row[0], row[1]});
+                replicationLog.append("A", row[0], row[1]);
+            }
+            pushInvalidation(words);
+        }).thenApply(durable -> null));
+        if (saved != null) {
+            results.replaceAll(result -> result.equals("Word added successfully.") ? saved : result);
+        }
+        return results;
+    }
+
+    private static String updateLocalWord(String word, String meaning) {
+        return mutate(List.of(word), LocalWords.rewritesOnChange(), index -> {
+            if (!isNewWord(word, index)) {
                 if (meaning.isEmpty()){
                     return "Empty meaning is not allowed";
                 }
@@ -300,80 +1105,237 @@ public class DictionaryServer {
                     return "Please input the correct order of meaning at the beginning of meaning";
                 }
                 LocalWords lw = new LocalWords();
-                String res = lw.updateWord(word, meaning.substring(1), order, dicCache.get());  // Update word's meaning
-                dicCache.set(LocalWords.readAllWords());  // Update the cache
+                // Update word's meaning, the cached index publishes a new version
+                String res = lw.updateWord(word, meaning.substring(1), order, index);
+                if (res.equals("Word updated successfully.")) {
+                    replicationLog.append("U", word, String.valueOf(order), meaning.substring(1));
+                }
                 return res;
             }else{
                 return "Word does not exist";
             }
-        } finally {
-            lock.writeLock().unlock();
-        }
+        });
     }
 
     private static String deleteLocalWord(String word, String order) {
         /*
         * Delete meanings by order
         * */
-        lock.writeLock().lock();
+        int reqOrder = 1;
         try {
-            int reqOrder = 1;
             if (!order.isEmpty()){
                 reqOrder = Integer.parseInt(order);
             }
-            if (!isNewWord(word)) {
+        }catch(NumberFormatException e){
+            return "Invalid order number, please type a correct order number in the meaning box";
+        }
+        int delOrder = reqOrder;
+        return mutate(List.of(word), LocalWords.rewritesOnChange(), index -> {
+            if (!isNewWord(word, index)) {
                 LocalWords lw = new LocalWords();
-                String res = lw.deleteWord(word, reqOrder, dicCache.get());  // Delete the word
-                dicCache.set(LocalWords.readAllWords());  // Update the cache
+                // Delete the word, the cached index publishes a new version
+                String res = lw.deleteWord(word, delOrder, index);
+                if (res.equals("Word deleted successfully.")) {
+                    replicationLog.append("D", word, String.valueOf(delOrder));
+                }
                 return res;
             }else{
                 return "Word does not exist";
             }
-        }catch(NumberFormatException e){
-            return "Invalid order number, please type a correct order number in the meaning box"
-;        }
-        finally {
-            lock.writeLock().unlock();
+        });
+    }
+
+    /*
+     * Run a mutation with the stripe locks of its words held: writers of other words go on in parallel,
+     * writers of the same word take turns, so order-based update/delete always see the rows they checked.
+     * exclusive: no other writer at all (rewrite mode update/delete write the whole words.csv).
+     * On a sharded node a headword it does not own (any more) is refused with the MOVED reply, checked under the
+     * locks so a write never lands after the headword was handed over; during a rebalance the new rows of moving
+     * headwords are copied to their new owner before the locks are let go.
+     */
+    private static String mutate(List<String> words, boolean exclusive, Function<WordIndex, String> mutation) {
+        return mutate(words, exclusive, true, mutation);
+    }
+
+    private static String mutate(List<String> words, boolean exclusive, boolean routed,
+                                 Function<WordIndex, String> mutation) {
+        Lock structure = exclusive ? structureLock.writeLock() : structureLock.readLock();
+        int[] stripes = wordLocks.stripesOf(words);
+        String result;
+        boolean changed;
+        long waitStart = System.nanoTime();
+        if (exclusive) {
+            lockExclusive();
+        } else {
+            structure.lock();
         }
+        try {
+            wordLocks.lockAll(stripes);
+            metrics.recordLockWait(System.nanoTime() - waitStart);
+            try {
+                WordIndex index = currentIndex();
+                String moved = routed ? notOwned(words) : null;
+                if (moved != null) {
+                    return moved;
+                }
+                long before = index.current().version();
+                result = mutation.apply(index);
+                changed = index.current().version() != before;
+                ShardMigration moving = migration;
+                if (changed && moving != null) {
+                    copyChanged(moving, words, index);
+                }
+            } finally {
+                wordLocks.unlockAll(stripes);
+            }
+        } finally {
+            structure.unlock();
+        }
+        if (changed) {
+            pushInvalidation(words);
+        }
+        compactIfDue();
+        return result;
     }
 
-    // check if this is a new word
-    private static boolean isNewWord(String word) {
-        lock.readLock().lock();
+    /*
+     * An add that does not keep its locks while its group commit is written. With the stripe locks (and the
+     * structure read lock) held the rows are only queued; the locks go and the caller's own thread waits for the
+     * commit, so the adds of many connections share one batch instead of one per disk pool thread.
+     * queue returns the reply, completed by the flusher after it published the durable rows (index, replication
+     * log, invalidation push) in commit order; a failed commit publishes nothing and answers SAVE_FAILED.
+     * A writer needing a still index takes the structure write lock through lockExclusive(), which waits for the
+     * queued adds. During a rebalance the add is waited for with the locks held, so its rows are copied.
+     */
+    private static String mutateQueued(List<String> words, Function<WordIndex, CompletableFuture<String>> queue) {
+        int[] stripes = wordLocks.stripesOf(words);
+        CompletableFuture<String> reply;
+        long waitStart = System.nanoTime();
+        structureLock.readLock().lock();
+        try {
+            wordLocks.lockAll(stripes);
+            metrics.recordLockWait(System.nanoTime() - waitStart);
+            try {
+                String moved = notOwned(words);
+                if (moved != null) {
+                    return moved;
+                }
+                WordIndex index = currentIndex();
+                reply = queue.apply(index);
+                ShardMigration moving = migration;
+                if (moving != null) {
+                    reply.handle((result, error) -> null).join();
+                    if (!reply.isCompletedExceptionally()) {
+                        copyChanged(moving, words, index);
+                    }
+                }
+            } finally {
+                wordLocks.unlockAll(stripes);
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+        String result = reply.exceptionally(error -> {
+            error.printStackTrace();
+            return SAVE_FAILED;
+        }).join();
+        compactIfDue();
+        return result;
+    }
+
+    // the structure write lock, taken once every add queued before it is published: no writer runs at all
+    private static void lockExclusive() {
+        structureLock.writeLock().lock();
+        LocalWords.awaitQueued();
+    }
+
+    // the first headword of words this node does not own, as a MOVED reply; null if it owns them all
+    private static String notOwned(List<String> words) {
+        for (String word : words) {
+            String moved = notOwned(word);
+            if (moved != null) {
+                return moved;
+            }
+        }
+        return null;
+    }
+
+    // a failed copy fails the migration (its commit is refused), the change itself stands
+    private static void copyChanged(ShardMigration moving, List<String> words, WordIndex index) {
         try {
-            for (String[] entry : dicCache.get()) {
-                if (entry[0].equalsIgnoreCase(word)) {
-                    return false; // Word already exists
+            moving.copy(words, index::rows);
+        } catch (IOException e) {
+            System.out.println("Rebalance copy failed: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Tell subscribed clients that words changed. Sent after the new version is published, so a lookup that
+     * still read the old one is answered before the client sees the push and is not kept.
+     * Each push goes out on its own virtual thread, a slow subscriber never holds up the writer.
+     * No headword at all means the whole dictionary changed (a replica installed a snapshot).
+     */
+    private static void pushInvalidation(List<String> words) {
+        pushInvalidation(words, false);
+    }
+
+    // relayed: another shard's change, not sent to the relays of other shards
+    private static void pushInvalidation(List<String> words, boolean relayed) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Frame push = Frame.of(Protocol.PUSH_ID, Protocol.OP_INVALIDATE, Protocol.FLAG_NONE,
+                words.stream().map(WordIndex::normalize).distinct().toList());
+        for (Map.Entry<DataOutputStream, Boolean> subscriber : subscribers.entrySet()) {
+            if (relayed && subscriber.getValue()) {
+                continue;
+            }
+            DataOutputStream out = subscriber.getKey();
+            threadPool.execute(() -> {
+                try {
+                    synchronized (out) {
+                        push.write(out);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    subscribers.remove(out); // the connection is going away, its reader sees the close
                 }
+            });
+        }
+    }
+
+    // fold a long mutation log into words.csv, or a large change tree into a new base; no writer may run meanwhile
+    private static void compactIfDue() {
+        if (!LocalWords.compactionDue() && !currentIndex().overlayDue()) {
+            return;
+        }
+        lockExclusive();
+        try {
+            WordIndex index = currentIndex();
+            if (LocalWords.compactionDue()) {
+                LocalWords.compact(index);
+            } else if (index.overlayDue()) {
+                LocalWords.foldOverlay(index);
             }
-            return true; // New word
         } finally {
-            lock.readLock().unlock();
+            structureLock.writeLock().unlock();
         }
     }
 
+    // check if this is a new word
+    private static boolean isNewWord(String word, WordIndex index) {
+        return !index.contains(word); // hash lookup on the case-folded headword
+    }
+
     // check language supported status
     public static boolean languageSupported(String word) {
-        return word.matches("^[a-zA-Z0-9" +
-                "\\u4e00-\\u9fa5" +  // 汉字
-                "\\u0400-\\u04FF" +  // 西里尔字母（俄语等）
-                "\\u0600-\\u06FF" +  // 阿拉伯字母
-                "\\u0E00-\\u0E7F" +  // 泰语
-                "\\u0900-\\u097F" +  // 印地语
-                "\\u0980-\\u09FF" +  // 孟加拉语
-                "\\u3040-\\u30FF" +  // 日文（平假名、片假名）
-                "\\uAC00-\\uD7AF" +  // 韩文
-                "\\u0D00-\\u0D7F" +  // 泰米尔语
-                "\\u1E00-\\u1EFF" +  // 拉丁字母扩展
-                "]+$");  // 只允许合法字符
+        return WordValidator.languageSupported(word);
     }
 
 
     // check invalid input
     public static boolean specialCharacters(String word){
-        return word.matches(".*[\\p{P}\\s]+.*");
+        return WordValidator.specialCharacters(word);
     }
 
 }
-
-
@@ -0,0 +1,230 @@
+package distributed.client;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ConnectionPool.java
+ * @Description: Pool of persistent legacy-protocol sockets to one server, shared by every client in the JVM.
+ * @Date: Created at 09:30 on 2026/10/20
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - A request borrows an idle socket (or opens one, up to maxConnections) and returns it after the reply,
+ *   so lookups skip the TCP handshake and the server keeps serving the same connection
+ * - Health check on borrow: a socket idle longer than VALIDATE_AFTER_MS is probed (EOF = the server closed it),
+ *   one idle longer than the idle timeout is closed instead of reused
+ * - Transparent reconnect: a dead socket is dropped and the request goes out on a new one; a lookup is retried
+ *   once if the socket fails mid-request, a write (add / update / delete) is not (it may have been applied)
+ * - shared(host, port): one pool per server address for the whole JVM (GUI windows, tools)
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+public class ConnectionPool implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    // probe sockets that sat idle at least this long before handing them out
+    private static final long VALIDATE_AFTER_MS = 2000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 4;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 60_000;
+    // operations that change nothing on the server, safe to send twice
+    private static final Set<String> RETRYABLE = Set.of("local", "prefix", "remote", "stats");
+
+    private static final Map<String, ConnectionPool> SHARED = new ConcurrentHashMap<>();
+
+    // one open socket with its streams
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        long lastUsed = System.currentTimeMillis();
+        // served a request before, so it may have been closed by the server since
+        boolean reused = false;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final long idleTimeoutMs;
+    // one permit per connection that may be open
+    private final Semaphore permits;
+    // most recently used last, guarded by this
+    private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String host, int port, int maxConnections, long idleTimeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.permits = new Semaphore(Math.max(1, maxConnections), true);
+    }
+
+    public ConnectionPool(String host, int port) {
+        this(host, port, DEFAULT_MAX_CONNECTIONS, DEFAULT_IDLE_TIMEOUT_MS);
+    }
+
+    // the JVM-wide pool of a server address, created on first use
+    public static ConnectionPool shared(String host, int port) {
+        return SHARED.compute(host + ":" + port,
+                (address, pool) -> pool == null || pool.closed ? new ConnectionPool(host, port) : pool);
+    }
+
+    /*
+     * One legacy request: operation, word, meaning out, one writeUTF reply in. Waits for a free connection when
+     * maxConnections requests are already running. IOException if the server can not be reached.
+     */
+    public String request(String operation, String word, String meaning) throws IOException {
+        if (closed) {
+            throw new IOException("Connection pool closed");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection");
+        }
+        try {
+            Connection connection = borrow();
+            try {
+                return exchange(connection, operation, word, meaning);
+            } catch (IOException e) {
+                connection.closeQuietly();
+                if (!connection.reused || !RETRYABLE.contains(operation)) {
+                    throw e;
+                }
+                // a lookup on a socket the server dropped meanwhile, once more on a new socket
+                connection = connect();
+                try {
+                    return exchange(connection, operation, word, meaning);
+                } catch (IOException again) {
+                    connection.closeQuietly();
+                    throw again;
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private String exchange(Connection connection, String operation, String word, String meaning) throws IOException {
+        connection.out.writeUTF(operation);
+        connection.out.writeUTF(word);
+        connection.out.writeUTF(meaning == null ? "" : meaning);
+        connection.out.flush();
+        String reply = connection.in.readUTF();
+        release(connection);
+        return reply;
+    }
+
+    // a healthy idle connection or a new one
+    private Connection borrow() throws IOException {
+        while (true) {
+            Connection connection;
+            synchronized (this) {
+                connection = idle.pollLast();
+            }
+            if (connection == null) {
+                return connect();
+            }
+            long idleMs = System.currentTimeMillis() - connection.lastUsed;
+            if (idleMs >= idleTimeoutMs) {
+                connection.closeQuietly();
+            } else if (idleMs < VALIDATE_AFTER_MS || isAlive(connection)) {
+                return connection;
+            } else {
+                connection.closeQuietly();
+            }
+        }
+    }
+
+    // nothing may be waiting on an idle lockstep socket: EOF means closed, stray bytes mean out of sync
+    private static boolean isAlive(Connection connection) {
+        InputStream in = connection.in;
+        try {
+            if (in.available() > 0) {
+                return false;
+            }
+            connection.socket.setSoTimeout(1);
+            try {
+                in.read();
+                return false; // a stray byte or EOF
+            } catch (SocketTimeoutException e) {
+                return true; // open and quiet
+            } finally {
+                connection.socket.setSoTimeout(0);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            return new Connection(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void release(Connection connection) {
+        connection.lastUsed = System.currentTimeMillis();
+        connection.reused = true;
+        synchronized (this) {
+            if (!closed) {
+                idle.addLast(connection);
+                return;
+            }
+        }
+        connection.closeQuietly();
+    }
+
+    // connections kept open for reuse
+    public synchronized int idleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        Connection[] connections;
+        synchronized (this) {
+            closed = true;
+            connections = idle.toArray(new Connection[0]);
+            idle.clear();
+        }
+        for (Connection connection : connections) {
+            connection.closeQuietly();
+        }
+        SHARED.remove(host + ":" + port, this);
+    }
+}
@@ -0,0 +1,249 @@
+package distributed.client;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: DictionaryConnection.java
+ * @Description: Client side of the pipelined binary protocol over one TCP connection.
+ * @Date: Created at 14:40 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.2
+ * @Functionality:
+ * - Many requests in flight on one socket, matched to replies by request id
+ * - Replies may arrive in any order, each completes its own future
+ * - subscribe: invalidation pushes of the server go to a listener on the reader thread
+ * - Thread-safe, one reader thread per connection
+ */
+
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.ProtocolException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class DictionaryConnection implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    // request id -> reply future
+    private final Map<Integer, CompletableFuture<Frame>> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+    // server pushes (OP_INVALIDATE), called on the reader thread
+    private volatile Consumer<List<String>> invalidationListener;
+    // told once when the connection closes, pushes stop from then on
+    private volatile Runnable closeListener;
+
+    private DictionaryConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    // connect and run the handshake
+    public static DictionaryConnection open(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            DictionaryConnection connection = new DictionaryConnection(socket);
+            connection.handshake();
+            connection.startReader();
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void handshake() throws IOException {
+        out.writeByte(Protocol.MAGIC);
+        out.writeByte(Protocol.VERSION);
+        out.flush();
+        int magic = in.readUnsignedByte();
+        int version = in.readUnsignedByte();
+        if (magic != Protocol.MAGIC || version < 1) {
+            throw new ProtocolException("Server does not speak the binary protocol");
+        }
+    }
+
+    private void startReader() {
+        Thread reader = new Thread(this::readLoop, "dictionary-reader-" + socket.getPort());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                Frame reply = Frame.read(in);
+                if (reply.requestId() == Protocol.PUSH_ID) {
+                    onPush(reply);
+                    continue;
+                }
+                CompletableFuture<Frame> future = pending.remove(reply.requestId());
+                if (future != null) {
+                    future.complete(reply);
+                }
+            }
+        } catch (IOException e) {
+            failAll(e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void onPush(Frame push) throws ProtocolException {
+        Consumer<List<String>> listener = invalidationListener;
+        if (push.opcode() == Protocol.OP_INVALIDATE && listener != null) {
+            listener.accept(push.strings());
+        }
+    }
+
+    /*
+     * Ask the server for invalidation pushes on this connection: listener gets the case-folded headwords of every
+     * later add / update / delete. Pushes may arrive before the returned future completes.
+     * scope "own": only the server's own changes, not those it relays from other shards.
+     */
+    public CompletableFuture<List<String>> subscribe(Consumer<List<String>> listener, String... scope) {
+        invalidationListener = listener;
+        return request(Protocol.OP_SUBSCRIBE, scope);
+    }
+
+    // run when the connection closes (or is already closed)
+    public void onClose(Runnable listener) {
+        closeListener = listener;
+        if (closed) {
+            listener.run();
+        }
+    }
+
+    // send a request without waiting, the future completes when its reply arrives
+    public CompletableFuture<Frame> send(byte opcode, byte flags, byte[] payload) {
+        int requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<Frame> future = new CompletableFuture<>();
+        pending.put(requestId, future);
+        try {
+            if (closed) {
+                throw new IOException("Connection closed");
+            }
+            synchronized (out) {
+                new Frame(requestId, opcode, flags, payload).write(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            future.completeExceptionally(e);
+            closeQuietly();
+        }
+        return future;
+    }
+
+    // request with string arguments, the reply strings (an error reply holds one message)
+    public CompletableFuture<List<String>> request(byte opcode, String... args) {
+        return send(opcode, Protocol.FLAG_NONE, Protocol.encodeStrings(args)).thenApply(reply -> {
+            try {
+                return reply.strings();
+            } catch (ProtocolException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // blocking form of request
+    public List<String> call(byte opcode, String... args) throws IOException {
+        try {
+            return request(opcode, args).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    // definitions of every word in one round trip, same order as the words
+    public CompletableFuture<List<List<String>>> multiGet(List<String> words) {
+        return send(Protocol.OP_MULTI_GET, Protocol.FLAG_NONE, Protocol.encodeStrings(words)).thenApply(reply -> {
+            try {
+                if (reply.isError()) {
+                    throw new ProtocolException(reply.strings().get(0));
+                }
+                return Protocol.decodeGroups(reply.payload());
+            } catch (ProtocolException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // add {word, meaning} rows in one round trip, one result message per row
+    public CompletableFuture<List<String>> bulkAdd(List<String[]> rows) {
+        List<String> pairs = new ArrayList<>(rows.size() * 2);
+        for (String[] row : rows) {
+            pairs.add(row[0]);
+            pairs.add(row[1]);
+        }
+        return send(Protocol.OP_BULK_ADD, Protocol.FLAG_NONE, Protocol.encodeStrings(pairs)).thenApply(reply -> {
+            try {
+                return reply.strings();
+            } catch (ProtocolException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    private void failAll(IOException cause) {
+        for (Integer id : pending.keySet()) {
+            CompletableFuture<Frame> future = pending.remove(id);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // already closing
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } finally {
+            failAll(new IOException("Connection closed"));
+            Runnable listener = closeListener;
+            if (listener != null) {
+                listener.run();
+            }
+        }
+    }
+}
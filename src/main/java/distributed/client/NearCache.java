@@ -0,0 +1,202 @@
+package distributed.client;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: NearCache.java
+ * @Description: Client-side cache of local lookup replies, kept correct by the server's invalidation pushes.
+ * @Date: Created at 14:20 on 2026/10/20
+ * @ModifiedBy: Garvyn
+ * @Version: V1.1
+ * @Functionality:
+ * - Repeat lookups of a headword are answered from memory, LRU bounded by maxEntries
+ * - One binary connection subscribes to OP_INVALIDATE; every add / update / delete on the server drops the entry,
+ *   an empty push (a replica installed a snapshot) drops everything
+ * - Only used while subscribed: the channel closing empties the cache and lookups go to the server until a
+ *   new subscription is up (retried at most every RECONNECT_AFTER_MS)
+ * - A reply is kept only if no invalidation came in while it was on the way, so a lookup that raced a write
+ *   can not leave the old definitions behind
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+public class NearCache implements Closeable {
+
+    private static final long RECONNECT_AFTER_MS = 5000;
+    private static final long SUBSCRIBE_TIMEOUT_MS = 5000;
+
+    // fetches a reply from the server on a miss
+    public interface Loader {
+        String load(String word) throws IOException;
+    }
+
+    private final String host;
+    private final int port;
+    // replies worth keeping (not misses, whose "did you mean" list depends on other words)
+    private final Predicate<String> cacheable;
+    // case-folded headword -> reply, least recently used first, guarded by this
+    private final LinkedHashMap<String, String> entries;
+    // bumped by every invalidation and subscription change, guarded by this
+    private long epoch = 0;
+    private DictionaryConnection channel; // guarded by this, null while not subscribed
+    private boolean connecting = false;
+    private long lastAttempt = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private boolean closed = false;
+
+    public NearCache(String host, int port, int maxEntries, Predicate<String> cacheable) {
+        this.host = host;
+        this.port = port;
+        this.cacheable = cacheable;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // same folding as the server's WordIndex, so pushed headwords match the keys
+    private static String key(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    // cached reply of word, or loader's reply (kept if the invalidation channel was up the whole time)
+    public String get(String word, Loader loader) throws IOException {
+        subscribeIfDown();
+        String key = key(word);
+        long seen;
+        synchronized (this) {
+            if (channel != null) {
+                String cached = entries.get(key);
+                if (cached != null) {
+                    hits++;
+                    return cached;
+                }
+            }
+            misses++;
+            seen = channel == null ? -1 : epoch;
+        }
+        String reply = loader.load(word);
+        if (seen >= 0 && cacheable.test(reply)) {
+            synchronized (this) {
+                if (channel != null && epoch == seen) {
+                    entries.put(key, reply);
+                }
+            }
+        }
+        return reply;
+    }
+
+    // drop headwords this client changed itself, before the push comes back
+    public synchronized void invalidate(String word) {
+        epoch++;
+        entries.remove(key(word));
+    }
+
+    // a push with no headword: the server replaced its whole dictionary
+    private synchronized void invalidateAll(List<String> words) {
+        epoch++;
+        if (words.isEmpty()) {
+            entries.clear();
+        }
+        for (String word : words) {
+            entries.remove(key(word));
+        }
+    }
+
+    // open and subscribe the invalidation channel unless it is up or was tried a moment ago
+    private void subscribeIfDown() {
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (channel != null || closed || connecting || now - lastAttempt < RECONNECT_AFTER_MS) {
+                return;
+            }
+            connecting = true;
+            lastAttempt = now;
+        }
+        DictionaryConnection connection = null;
+        try {
+            connection = DictionaryConnection.open(host, port);
+            connection.subscribe(this::invalidateAll).get(SUBSCRIBE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            DictionaryConnection subscribed = connection;
+            synchronized (this) {
+                if (!closed && subscribed.isOpen()) {
+                    channel = subscribed;
+                    epoch++;
+                    entries.clear();
+                    connection = null;
+                }
+            }
+            subscribed.onClose(() -> lost(subscribed));
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            System.out.println("Near cache off, no invalidation channel: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                connecting = false;
+            }
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    // pushes may have been missed, nothing cached can be trusted any more
+    private synchronized void lost(DictionaryConnection connection) {
+        if (channel == connection) {
+            channel = null;
+            epoch++;
+            entries.clear();
+        }
+    }
+
+    // invalidations are arriving, so cached replies are used
+    public synchronized boolean isSubscribed() {
+        return channel != null;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static void closeQuietly(DictionaryConnection connection) {
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    @Override
+    public void close() {
+        DictionaryConnection connection;
+        synchronized (this) {
+            closed = true;
+            connection = channel;
+            channel = null;
+            entries.clear();
+        }
+        if (connection != null) {
+            closeQuietly(connection);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package distributed.metrics;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: OperationStats.java
+ * @Description: Read-out of one operation's counters and latency percentiles (JMX composite value).
+ * @Date: Created at 10:45 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ */
+
+import java.beans.ConstructorProperties;
+
+public class OperationStats {
+
+    private final long requests;
+    private final long errors;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    @ConstructorProperties({"requests", "errors", "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public OperationStats(long requests, long errors, double meanMicros, double p50Micros, double p99Micros,
+                          double p999Micros, double maxMicros) {
+        this.requests = requests;
+        this.errors = errors;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    static OperationStats of(long requests, long errors, LatencyHistogram latency) {
+        return new OperationStats(requests, errors, latency.mean() / 1e3, latency.percentile(0.50) / 1e3,
+                latency.percentile(0.99) / 1e3, latency.percentile(0.999) / 1e3, latency.max() / 1e3);
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    // latency part of a report line
+    public String latencies() {
+        return String.format("mean %.1f us, p50 %.1f us, p99 %.1f us, p999 %.1f us, max %.1f us",
+                meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+
+    // one line of the stats report
+    @Override
+    public String toString() {
+        return "requests " + requests + ", errors " + errors + ", " + latencies();
+    }
+}
@@ -0,0 +1,138 @@
+package distributed.metrics;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ServerMetrics.java
+ * @Description: Request counters, latency histograms and gauges of the server, for JMX and the "stats" operation.
+ * @Date: Created at 10:30 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Per operation: requests, errors, latency histogram (p50 / p99 / p999 / max)
+ * - Operations are fixed at construction, recording is a map read plus LongAdder / histogram updates, no lock
+ * - Lock wait histogram for writers
+ * - Gauges: suppliers read only when a report is asked for (connections, queue depths, cache hit ratios)
+ * - Registered as an MXBean, the same numbers come back as text lines for the protocol
+ */
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    public static final String OBJECT_NAME = "distributed:type=DictionaryServer,name=Metrics";
+    // requests for an operation that is not known
+    public static final String OTHER = "other";
+
+    private static final class Operation {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        OperationStats stats() {
+            return OperationStats.of(requests.sum(), errors.sum(), latency);
+        }
+    }
+
+    // never changed after construction, so it is read without a lock
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentSkipListMap<>();
+
+    public ServerMetrics(Collection<String> operationNames) {
+        for (String name : operationNames) {
+            operations.put(name, new Operation());
+        }
+        operations.put(OTHER, new Operation());
+    }
+
+    private Operation operation(String name) {
+        Operation operation = operations.get(name);
+        return operation == null ? operations.get(OTHER) : operation;
+    }
+
+    // one finished request
+    public void record(String operation, long nanos, boolean error) {
+        Operation op = operation(operation);
+        op.requests.increment();
+        if (error) {
+            op.errors.increment();
+        }
+        op.latency.record(nanos);
+    }
+
+    // a failure the reply does not show (counted once, next to the request record() counts)
+    public void recordError(String operation) {
+        operation(operation).errors.increment();
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    // value read each time a report is made
+    public void gauge(String name, Supplier<? extends Number> value) {
+        gauges.put(name, value);
+    }
+
+    // under the platform MBean server, false (after printing why) if that failed
+    public boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            System.out.println("Metrics not registered with JMX: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        operations.forEach((name, operation) -> stats.put(name, operation.stats()));
+        return stats;
+    }
+
+    @Override
+    public OperationStats getLockWait() {
+        return OperationStats.of(lockWait.count(), 0, lockWait);
+    }
+
+    @Override
+    public Map<String, Double> getGauges() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        gauges.forEach((name, value) -> {
+            Number number = value.get();
+            values.put(name, number == null ? Double.NaN : number.doubleValue());
+        });
+        return values;
+    }
+
+    // operations that saw requests, the lock wait, then every gauge, one per line
+    @Override
+    public List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+        getOperations().forEach((name, stats) -> {
+            if (stats.getRequests() > 0) {
+                lines.add(name + ": " + stats);
+            }
+        });
+        OperationStats waits = getLockWait();
+        if (waits.getRequests() > 0) {
+            lines.add("lock wait: waits " + waits.getRequests() + ", " + waits.latencies());
+        }
+        getGauges().forEach((name, value) -> lines.add(name + ": "
+                + (value == Math.rint(value) && !Double.isInfinite(value) ? String.valueOf(value.longValue())
+                : String.format("%.3f", value))));
+        return lines;
+    }
+}
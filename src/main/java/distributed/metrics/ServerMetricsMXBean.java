@@ -0,0 +1,28 @@
+package distributed.metrics;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ServerMetricsMXBean.java
+ * @Description: JMX view of the server metrics (jconsole / VisualVM, object name distributed:type=DictionaryServer,name=Metrics).
+ * @Date: Created at 10:50 on 2026/10/19
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ */
+
+import java.util.List;
+import java.util.Map;
+
+public interface ServerMetricsMXBean {
+
+    // per operation name: requests, errors, latency percentiles
+    Map<String, OperationStats> getOperations();
+
+    // time writers waited for the structure and stripe locks
+    OperationStats getLockWait();
+
+    // current value of every gauge (connections, queue depths, hit ratios)
+    Map<String, Double> getGauges();
+
+    // the report served by the "stats" operation
+    List<String> getReport();
+}
@@ -0,0 +1,431 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: CompactStore.java
+ * @Description: Packed in-memory storage of headwords and definitions, no String per entry.
+ * @Date: Created at 13:20 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.1
+ * @Functionality:
+ * - Headwords, spellings and definitions are UTF-8 in 1 MB byte[] pages, addressed by an int (page << 20 | offset)
+ * - Headwords and rows are int ids into parallel primitive arrays, rows of a headword are chained in order
+ * - Open-addressing int table (hash -> headword id), the key bytes are compared in place
+ * - Headwords in key order: a sorted int[], new headwords are sorted and merged in by the next prefix search
+ * - Strings are only created for the rows a caller asks for
+ * Filled by one thread while loading, then sealed: a sealed store is a read-only WordTable base
+ * and can be read by any number of threads. Later changes live in the WordVersion above it.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+public class CompactStore implements WordTable {
+
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_BYTES = 1 << PAGE_BITS;
+    // 4096 pages of up to 1 MB (long strings get bigger pages of their own)
+    private static final int MAX_PAGES = 1 << (32 - PAGE_BITS);
+    private static final int NONE = -1;
+
+    // string arena
+    private byte[][] pages = new byte[4][];
+    private int pageCount = 0;
+    private int currentPage = -1;
+    private int pageUsed = PAGE_BYTES; // forces a first page
+
+    // headword id -> key address, key hash, first / last row, live row count
+    private int[] keyRefs = new int[64];
+    private int[] keyHashes = new int[64];
+    private int[] firstRow = new int[64];
+    private int[] lastRow = new int[64];
+    private int[] rowCounts = new int[64];
+    private int headwords = 0;
+
+    // row id -> spelling address, definition address, next row of the same headword
+    private int[] wordRefs = new int[64];
+    private int[] definitionRefs = new int[64];
+    private int[] nextRow = new int[64];
+    private int rows = 0;
+
+    // hash table of headword id + 1 (0 = empty), at most half full
+    private int[] table = new int[128];
+
+    // headword ids in key order (unsigned UTF-8 bytes = WordSnapshot key order)
+    private int[] sorted = new int[0];
+    // headwords created since the last merge, in creation order
+    private int[] pending = new int[64];
+    private int pendingSize = 0;
+    // no more writes, the sorted array is final
+    private boolean sealed = false;
+
+    // headword id of a normalized key, -1 if never stored
+    @Override
+    public int find(String key) {
+        return find(key.hashCode(), key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int find(int hash, byte[] bytes) {
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (keyHashes[id] == hash && equalsBytes(keyRefs[id], bytes)) {
+                return id;
+            }
+        }
+        return NONE;
+    }
+
+    // headword id of a normalized key, created (with no rows) if missing
+    public int findOrCreate(String key) {
+        if (sealed) {
+            throw new IllegalStateException("store is sealed");
+        }
+        int hash = key.hashCode();
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int id = find(hash, bytes);
+        if (id != NONE) {
+            return id;
+        }
+        id = headwords++;
+        if (id == keyRefs.length) {
+            int capacity = id * 2;
+            keyRefs = Arrays.copyOf(keyRefs, capacity);
+            keyHashes = Arrays.copyOf(keyHashes, capacity);
+            firstRow = Arrays.copyOf(firstRow, capacity);
+            lastRow = Arrays.copyOf(lastRow, capacity);
+            rowCounts = Arrays.copyOf(rowCounts, capacity);
+        }
+        keyRefs[id] = store(bytes);
+        keyHashes[id] = hash;
+        firstRow[id] = NONE;
+        lastRow[id] = NONE;
+        rowCounts[id] = 0;
+        if (headwords * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(id);
+        }
+        if (pendingSize == pending.length) {
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+        }
+        pending[pendingSize++] = id;
+        return id;
+    }
+
+    // append one row {word, definition} under its case-folded headword, skip malformed lines
+    public void add(String[] row) {
+        if (row != null && row.length >= 2) {
+            addRow(findOrCreate(WordIndex.normalize(row[0])), row[0], row[1]);
+        }
+    }
+
+    // append a row, the spelling shares the key bytes when it is already lower case
+    public void addRow(int id, String word, String definition) {
+        int row = rows++;
+        if (row == wordRefs.length) {
+            int capacity = row * 2;
+            wordRefs = Arrays.copyOf(wordRefs, capacity);
+            definitionRefs = Arrays.copyOf(definitionRefs, capacity);
+            nextRow = Arrays.copyOf(nextRow, capacity);
+        }
+        wordRefs[row] = word.equals(WordIndex.normalize(word)) ? keyRefs[id] : store(word.getBytes(StandardCharsets.UTF_8));
+        definitionRefs[row] = store(definition.getBytes(StandardCharsets.UTF_8));
+        nextRow[row] = NONE;
+        if (lastRow[id] == NONE) {
+            firstRow[id] = row;
+        } else {
+            nextRow[lastRow[id]] = row;
+        }
+        lastRow[id] = row;
+        rowCounts[id]++;
+    }
+
+    public int rowCount(int id) {
+        return rowCounts[id];
+    }
+
+    // rows {word, definition} of a headword, freshly decoded
+    @Override
+    public List<String[]> rows(int id) {
+        List<String[]> result = new ArrayList<>(rowCounts[id]);
+        for (int row = firstRow[id]; row != NONE; row = nextRow[row]) {
+            result.add(new String[]{string(wordRefs[row]), string(definitionRefs[row])});
+        }
+        return result;
+    }
+
+    // definitions only, the spellings are not decoded
+    @Override
+    public List<String> definitions(int id) {
+        List<String> result = new ArrayList<>(rowCounts[id]);
+        for (int row = firstRow[id]; row != NONE; row = nextRow[row]) {
+            result.add(string(definitionRefs[row]));
+        }
+        return result;
+    }
+
+    @Override
+    public String key(int id) {
+        return string(keyRefs[id]);
+    }
+
+    // original spelling of the first row
+    @Override
+    public String word(int id) {
+        return string(wordRefs[firstRow[id]]);
+    }
+
+    // headword ids ever created, in creation order 0 .. keyCount() - 1
+    @Override
+    public int keyCount() {
+        return headwords;
+    }
+
+    @Override
+    public int rowCount() {
+        return rows;
+    }
+
+    // creation order is the CSV order
+    @Override
+    public PrimitiveIterator.OfInt fileOrder() {
+        return IntStream.range(0, headwords).iterator();
+    }
+
+    // merge the pending headwords once and stop taking writes, readers then skip the lock below
+    public CompactStore seal() {
+        sortedKeys();
+        sealed = true;
+        return this;
+    }
+
+    // headword ids in key order, starting at the first key >= prefix
+    @Override
+    public PrimitiveIterator.OfInt sortedFrom(String prefix) {
+        int[] keys = sealed ? sorted : sortedKeys();
+        int start = lowerBound(keys, prefix.getBytes(StandardCharsets.UTF_8));
+        return new PrimitiveIterator.OfInt() {
+            private int i = start;
+
+            @Override
+            public boolean hasNext() {
+                return i < keys.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys[i++];
+            }
+        };
+    }
+
+    /*
+     * Sort the pending headwords and merge them into the sorted array. Only reached before the
+     * store is sealed, concurrent callers take turns here.
+     */
+    private synchronized int[] sortedKeys() {
+        if (pendingSize > 0) {
+            int[] fresh = Arrays.copyOf(pending, pendingSize);
+            mergeSort(fresh, new int[fresh.length], 0, fresh.length);
+            // binary search each insertion point, copy the runs in between (no compare per old key)
+            int[] merged = new int[sorted.length + fresh.length];
+            int copied = 0;
+            int k = 0;
+            for (int id : fresh) {
+                int at = lowerBound(sorted, copied, sorted.length, keyRefs[id]);
+                System.arraycopy(sorted, copied, merged, k, at - copied);
+                k += at - copied;
+                copied = at;
+                merged[k++] = id;
+            }
+            System.arraycopy(sorted, copied, merged, k, sorted.length - copied);
+            sorted = merged;
+            pendingSize = 0;
+        }
+        return sorted;
+    }
+
+    // sort ids[from, to) by key, scratch is a buffer of the same length
+    private void mergeSort(int[] ids, int[] scratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(ids, scratch, from, middle);
+        mergeSort(ids, scratch, middle, to);
+        if (compare(ids[middle - 1], ids[middle]) <= 0) {
+            return; // already in order
+        }
+        System.arraycopy(ids, from, scratch, from, to - from);
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+            ids[k] = j >= to || (i < middle && compare(scratch[i], scratch[j]) <= 0) ? scratch[i++] : scratch[j++];
+        }
+    }
+
+    // first of ids[from, to) whose key is >= the key stored at address
+    private int lowerBound(int[] ids, int from, int to, int address) {
+        long span = span(address);
+        int start = (int) (span >>> 32);
+        byte[] target = Arrays.copyOfRange(pages[address >>> PAGE_BITS], start, start + (int) span);
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareBytes(keyRefs[ids[mid]], target) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(int[] ids, byte[] target) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareBytes(keyRefs[ids[mid]], target) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // approximate bytes held by this store (arrays and pages)
+    public long footprint() {
+        long bytes = (long) keyRefs.length * 5 * 4 + (long) wordRefs.length * 3 * 4
+                + table.length * 4L + sorted.length * 4L + pending.length * 4L;
+        for (int i = 0; i < pageCount; i++) {
+            bytes += pages[i].length;
+        }
+        return bytes;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int id = 0; id < headwords; id++) {
+            insert(id);
+        }
+    }
+
+    private void insert(int id) {
+        int mask = table.length - 1;
+        int slot = mix(keyHashes[id]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ---- arena: varint length + UTF-8 bytes ----
+
+    private int store(byte[] bytes) {
+        int needed = varintLength(bytes.length) + bytes.length;
+        if (needed > PAGE_BYTES / 4) {
+            // big string: a page of its own, the current page stays open
+            return put(addPage(new byte[needed]), 0, bytes);
+        }
+        if (pageUsed + needed > PAGE_BYTES) {
+            currentPage = addPage(new byte[PAGE_BYTES]);
+            pageUsed = 0;
+        }
+        int address = put(currentPage, pageUsed, bytes);
+        pageUsed += needed;
+        return address;
+    }
+
+    private int addPage(byte[] page) {
+        if (pageCount == MAX_PAGES) {
+            throw new IllegalStateException("dictionary store is full, use the snapshot for bigger dictionaries");
+        }
+        if (pageCount == pages.length) {
+            pages = Arrays.copyOf(pages, pageCount * 2);
+        }
+        pages[pageCount] = page;
+        return pageCount++;
+    }
+
+    private int put(int page, int offset, byte[] bytes) {
+        byte[] dst = pages[page];
+        int at = offset;
+        int length = bytes.length;
+        while (length >= 0x80) {
+            dst[at++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        dst[at++] = (byte) length;
+        System.arraycopy(bytes, 0, dst, at, bytes.length);
+        return (page << PAGE_BITS) | offset;
+    }
+
+    private static int varintLength(int length) {
+        int n = 1;
+        while (length >= 0x80) {
+            length >>>= 7;
+            n++;
+        }
+        return n;
+    }
+
+    // start (high 32 bits) and length (low 32 bits) of the bytes stored at address
+    private long span(int address) {
+        byte[] page = pages[(address >>> PAGE_BITS)];
+        int at = address & (PAGE_BYTES - 1);
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = page[at++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ((long) at << 32) | length;
+    }
+
+    private String string(int address) {
+        long span = span(address);
+        return new String(pages[(address >>> PAGE_BITS)], (int) (span >>> 32), (int) span, StandardCharsets.UTF_8);
+    }
+
+    // unsigned comparison of a stored string with target, in place
+    private int compareBytes(int address, byte[] target) {
+        long span = span(address);
+        int start = (int) (span >>> 32);
+        return Arrays.compareUnsigned(pages[(address >>> PAGE_BITS)], start, start + (int) span, target, 0, target.length);
+    }
+
+    private boolean equalsBytes(int address, byte[] target) {
+        return compareBytes(address, target) == 0;
+    }
+
+    // key order of two headwords, in place
+    private int compare(int idA, int idB) {
+        int a = keyRefs[idA];
+        int b = keyRefs[idB];
+        long spanA = span(a);
+        long spanB = span(b);
+        int startA = (int) (spanA >>> 32);
+        int startB = (int) (spanB >>> 32);
+        return Arrays.compareUnsigned(pages[(a >>> PAGE_BITS)], startA, startA + (int) spanA,
+                pages[(b >>> PAGE_BITS)], startB, startB + (int) spanB);
+    }
+}
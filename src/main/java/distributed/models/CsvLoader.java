@@ -0,0 +1,238 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: CsvLoader.java
+ * @Description: Parallel UTF-8 CSV loader, splits words.csv into chunks on record boundaries.
+ * @Date: Created at 09:40 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.1
+ * @Functionality:
+ * - Pass 1 (parallel): count quotes per chunk and note the first newline outside quotes for both parities
+ * - Prefix sum of the quote parity gives every chunk its real first record boundary
+ * - Pass 2 (parallel): each chunk parses its records (quoted newlines, "" escapes, CRLF, UTF-8)
+ * - Chunks are handed over in file order as soon as they are ready, so the index is built while parsing goes on
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+public class CsvLoader {
+
+    // bytes per chunk, small enough for several chunks per core on big files
+    public static final int DEFAULT_CHUNK_BYTES = 4 * 1024 * 1024;
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    // result of pass 1 for one chunk
+    private record Scan(boolean oddQuotes, long boundaryIfEven, long boundaryIfOdd) {
+    }
+
+    // read words.csv into a headword index, rows are packed in file order while later chunks still parse
+    public static WordIndex load(Path path, int threads) throws IOException {
+        CompactStore store = new CompactStore();
+        read(path, threads, DEFAULT_CHUNK_BYTES, rows -> {
+            for (String[] row : rows) {
+                store.add(row);
+            }
+        });
+        return new WordIndex(store.seal());
+    }
+
+    // all records in file order
+    public static List<String[]> readAll(Path path, int threads, int chunkBytes) throws IOException {
+        List<String[]> all = new ArrayList<>();
+        read(path, threads, chunkBytes, all::addAll);
+        return all;
+    }
+
+    /*
+     * Parse path on a fork-join pool of the given size. sink receives the records of each chunk
+     * in file order, one chunk at a time (never concurrently).
+     */
+    public static void read(Path path, int threads, int chunkBytes, Consumer<List<String[]>> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+            try {
+                // pass 1: quote parity and candidate boundaries per fixed-size chunk
+                Scan[] scans = new Scan[chunks];
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    int chunk = i;
+                    tasks.add(pool.submit(() -> {
+                        long from = (long) chunk * chunkBytes;
+                        scans[chunk] = scan(channel, from, Math.min(size, from + chunkBytes));
+                    }));
+                }
+                joinAll(tasks);
+
+                // record boundaries: chunk 0 starts at 0, chunk i at its first newline outside quotes
+                long[] starts = new long[chunks + 1];
+                boolean inQuotes = false;
+                for (int i = 0; i < chunks; i++) {
+                    if (i > 0) {
+                        long boundary = inQuotes ? scans[i].boundaryIfOdd() : scans[i].boundaryIfEven();
+                        // no boundary: a quoted field spans the whole chunk, the previous chunk takes it
+                        starts[i] = boundary < 0 ? -1 : boundary;
+                    }
+                    inQuotes ^= scans[i].oddQuotes();
+                }
+                starts[chunks] = size;
+                for (int i = chunks - 1; i > 0; i--) {
+                    if (starts[i] < 0) {
+                        starts[i] = starts[i + 1];
+                    }
+                }
+
+                // pass 2: parse every range, hand results over in order
+                List<List<String[]>> done = new ArrayList<>(Collections.nCopies(chunks, null));
+                int[] next = {0};
+                tasks.clear();
+                for (int i = 0; i < chunks; i++) {
+                    int chunk = i;
+                    tasks.add(pool.submit(() -> {
+                        List<String[]> rows = parse(channel, starts[chunk], starts[chunk + 1]);
+                        synchronized (done) {
+                            done.set(chunk, rows);
+                            while (next[0] < chunks && done.get(next[0]) != null) {
+                                sink.accept(done.get(next[0]));
+                                done.set(next[0]++, null);
+                            }
+                        }
+                    }));
+                }
+                joinAll(tasks);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static void joinAll(List<ForkJoinTask<?>> tasks) throws IOException {
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static byte[] readRange(FileChannel channel, long from, long to) {
+        byte[] bytes = new byte[(int) (to - from)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes;
+    }
+
+    // quote parity of [from, to) and the first record start after a newline outside quotes, for both entry states
+    private static Scan scan(FileChannel channel, long from, long to) {
+        byte[] bytes = readRange(channel, from, to);
+        boolean odd = false;
+        long ifEven = -1;
+        long ifOdd = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == QUOTE) {
+                odd = !odd;
+            } else if (b == LF) {
+                // entered outside quotes: outside now if odd is false; entered inside: outside now if odd is true
+                if (!odd && ifEven < 0) {
+                    ifEven = from + i + 1;
+                } else if (odd && ifOdd < 0) {
+                    ifOdd = from + i + 1;
+                }
+                if (ifEven >= 0 && ifOdd >= 0) {
+                    // the rest only matters for the parity
+                    for (int j = i + 1; j < bytes.length; j++) {
+                        if (bytes[j] == QUOTE) {
+                            odd = !odd;
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+        return new Scan(odd, ifEven, ifOdd);
+    }
+
+    // records in [from, to), which starts and ends on record boundaries
+    private static List<String[]> parse(FileChannel channel, long from, long to) {
+        List<String[]> rows = new ArrayList<>();
+        if (from >= to) {
+            return rows;
+        }
+        byte[] bytes = readRange(channel, from, to);
+        int i = 0;
+        int n = bytes.length;
+        if (from == 0 && n >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            i = 3; // UTF-8 BOM
+        }
+        // every quote toggles quoting (as in pass 1), "" inside quotes is a literal quote
+        List<String> fields = new ArrayList<>(2);
+        byte[] field = new byte[256];
+        int length = 0;
+        boolean inQuotes = false;
+        while (i < n) {
+            byte b = bytes[i++];
+            if (inQuotes) {
+                if (b == QUOTE) {
+                    if (i < n && bytes[i] == QUOTE) {
+                        i++; // escaped quote, b is kept below
+                    } else {
+                        inQuotes = false;
+                        continue;
+                    }
+                }
+            } else if (b == QUOTE) {
+                inQuotes = true;
+                continue;
+            } else if (b == COMMA || b == LF) {
+                fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+                length = 0;
+                if (b == LF) {
+                    rows.add(fields.toArray(new String[0]));
+                    fields.clear();
+                }
+                continue;
+            } else if (b == CR && i < n && bytes[i] == LF) {
+                continue;
+            }
+            if (length == field.length) {
+                field = Arrays.copyOf(field, length * 2);
+            }
+            field[length++] = b;
+        }
+        // last record without a trailing newline
+        if (length > 0 || !fields.isEmpty()) {
+            fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+            rows.add(fields.toArray(new String[0]));
+        }
+        return rows;
+    }
+}
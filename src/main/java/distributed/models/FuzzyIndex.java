@@ -0,0 +1,217 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: FuzzyIndex.java
+ * @Description: SymSpell-style deletion index for "did you mean" suggestions on lookup misses.
+ * @Date: Created at 20:05 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Every headword is indexed under all its deletes (up to maxDistance) of its first PREFIX_LENGTH chars
+ * - A query generates the same deletes and only verifies the headwords found under them
+ * - Adding or removing one headword touches only its own deletes, no rebuild
+ * - Deletes are stored as int hashes in flat arrays (no String per delete), a collision only adds a candidate
+ * - Optimal string alignment distance (insert, delete, substitute, swap neighbours)
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class FuzzyIndex {
+
+    // only the head of long words is indexed, the full word is still verified
+    private static final int PREFIX_LENGTH = 7;
+    private static final int EMPTY = -1;
+
+    private record Candidate(int distance, String key) {
+    }
+
+    private final int maxDistance;
+    // hash bucket -> first entry, chained through next[] (half as many buckets as entries)
+    private int[] heads = new int[512];
+    // one entry per (delete hash, headword)
+    private int[] hashes = new int[1024];
+    private int[] next = new int[1024];
+    private String[] keys = new String[1024];
+    // entries ever used, live entries, head of the free list
+    private int top = 0;
+    private int live = 0;
+    private int free = EMPTY;
+
+    public FuzzyIndex(int maxDistance) {
+        this.maxDistance = maxDistance;
+        Arrays.fill(heads, EMPTY);
+    }
+
+    public void add(String key) {
+        for (int hash : variants(key)) {
+            int entry = allocate();
+            hashes[entry] = hash;
+            keys[entry] = key;
+            int bucket = hash & (heads.length - 1);
+            next[entry] = heads[bucket];
+            heads[bucket] = entry;
+            live++;
+        }
+    }
+
+    public void remove(String key) {
+        for (int hash : variants(key)) {
+            int bucket = hash & (heads.length - 1);
+            int previous = EMPTY;
+            for (int entry = heads[bucket]; entry != EMPTY; ) {
+                int following = next[entry];
+                if (hashes[entry] == hash && keys[entry].equals(key)) {
+                    if (previous == EMPTY) {
+                        heads[bucket] = following;
+                    } else {
+                        next[previous] = following;
+                    }
+                    keys[entry] = null;
+                    next[entry] = free;
+                    free = entry;
+                    live--;
+                } else {
+                    previous = entry;
+                }
+                entry = following;
+            }
+        }
+    }
+
+    // up to limit headwords within maxDistance of key, closest first
+    public List<String> suggest(String key, int limit) {
+        List<String> result = new ArrayList<>();
+        if (maxDistance <= 0 || limit <= 0) {
+            return result;
+        }
+        Set<String> seen = new HashSet<>();
+        List<Candidate> found = new ArrayList<>();
+        for (int hash : variants(key)) {
+            for (int entry = heads[hash & (heads.length - 1)]; entry != EMPTY; entry = next[entry]) {
+                String candidate = keys[entry];
+                if (hashes[entry] != hash || candidate.equals(key)
+                        || Math.abs(candidate.length() - key.length()) > maxDistance || !seen.add(candidate)) {
+                    continue;
+                }
+                int distance = distance(key, candidate, maxDistance);
+                if (distance <= maxDistance) {
+                    found.add(new Candidate(distance, candidate));
+                }
+            }
+        }
+        found.sort(Comparator.comparingInt(Candidate::distance).thenComparing(Candidate::key));
+        for (int i = 0; i < found.size() && i < limit; i++) {
+            result.add(found.get(i).key());
+        }
+        return result;
+    }
+
+    private int allocate() {
+        if (free != EMPTY) {
+            int entry = free;
+            free = next[entry];
+            return entry;
+        }
+        if (top == keys.length) {
+            grow();
+        }
+        return top++;
+    }
+
+    // double the entry arrays and the bucket table, then relink every live entry
+    private void grow() {
+        int capacity = keys.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        next = Arrays.copyOf(next, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        heads = new int[capacity / 2];
+        Arrays.fill(heads, EMPTY);
+        free = EMPTY;
+        for (int entry = 0; entry < top; entry++) {
+            if (keys[entry] == null) {
+                next[entry] = free;
+                free = entry;
+            } else {
+                int bucket = hashes[entry] & (heads.length - 1);
+                next[entry] = heads[bucket];
+                heads[bucket] = entry;
+            }
+        }
+    }
+
+    // hashes of the head and all its deletes up to maxDistance, sorted and without duplicates
+    private int[] variants(String key) {
+        int length = Math.min(key.length(), PREFIX_LENGTH);
+        int[] out = new int[1 << length]; // at most one per subset of deleted positions
+        int count = collect(key, length, 0, 0, maxDistance, out, 0);
+        Arrays.sort(out, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || out[unique - 1] != out[i]) {
+                out[unique++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, unique);
+    }
+
+    // adds the hash of the head minus the chars in mask, then deletes one more char at or after start
+    private static int collect(String key, int length, int mask, int start, int remaining, int[] out, int count) {
+        out[count++] = hash(key, length, mask);
+        if (remaining == 0 || length - Integer.bitCount(mask) <= 1) {
+            return count;
+        }
+        for (int i = start; i < length; i++) {
+            count = collect(key, length, mask | (1 << i), i + 1, remaining - 1, out, count);
+        }
+        return count;
+    }
+
+    private static int hash(String key, int length, int mask) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1 << i)) == 0) {
+                h = (h ^ key.charAt(i)) * 0x01000193;
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // optimal string alignment distance, returns max + 1 as soon as it exceeds max
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m];
+    }
+}
@@ -0,0 +1,180 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: GroupCommitWriter.java
+ * @Description: Group commit for CSV appends: concurrent writers share one open, one write and one fsync.
+ * @Date: Created at 20:30 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.2
+ * @Functionality:
+ * - Writers queue their records and wait; one flusher thread takes everything queued within the window
+ *   (or up to maxBatch requests), appends it with a single write and at most one fsync
+ * - A writer's future completes only after its batch is on disk (synced if fsync is on)
+ * - Window 0: no waiting, a batch is whatever queued up while the previous one was written
+ * - The file is opened per batch, so it can be renamed / replaced while no writer is waiting (compaction)
+ * - A batch that fails (any exception) fails all its writers and is cut off the file again, so it is never
+ *   replayed; the flusher goes on with the next batch
+ * - A writer may pass a callback run on the flusher once its records are durable, in commit order, so it can
+ *   publish them without holding its locks while it waits
+ */
+
+import com.opencsv.CSVWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class GroupCommitWriter {
+
+    private record Pending(List<String[]> records, Runnable onDurable, CompletableFuture<Void> done) {
+    }
+
+    private final String path;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final boolean fsync;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // batches and records written, for the averages
+    private long batches = 0;
+    private long requests = 0;
+
+    public GroupCommitWriter(String path, long windowMicros, int maxBatch, boolean fsync) {
+        this.path = path;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.fsync = fsync;
+        Thread flusher = new Thread(this::run, "group-commit-" + path);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // queue records for the next batch, the future completes once they are durable
+    public CompletableFuture<Void> append(List<String[]> records) {
+        return append(records, null);
+    }
+
+    /*
+     * Queue records, onDurable runs on the flusher once they are durable and before the future completes.
+     * Callbacks run in the order the records were written; one that throws fails only its own future.
+     * They must not wait for this writer.
+     */
+    public CompletableFuture<Void> append(List<String[]> records, Runnable onDurable) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Pending(records, onDurable, done));
+        return done;
+    }
+
+    // returns once everything queued before the call is written (or failed) and its callbacks have run
+    public void drain() {
+        append(List.of()).exceptionally(e -> null).join();
+    }
+
+    // append and wait, false (after printing the cause) if the batch could not be written
+    public boolean appendAndWait(List<String[]> records) {
+        try {
+            append(records).join();
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    Pending next = windowNanos == 0 ? queue.poll()
+                            : queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                // no writer waits forever, whatever stopped its batch
+                for (Pending pending : batch) {
+                    pending.done().completeExceptionally(new IOException("Group commit aborted"));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        if (batch.stream().allMatch(pending -> pending.records().isEmpty())) {
+            complete(batch); // only drain() markers, the file is not even opened
+            return;
+        }
+        long length = new File(path).length();
+        try (FileOutputStream fos = new FileOutputStream(path, true);
+             CSVWriter writer = new CSVWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (Pending pending : batch) {
+                writer.writeAll(pending.records());
+            }
+            writer.flush();
+            if (fsync) {
+                fos.getFD().sync();
+            }
+        } catch (IOException | RuntimeException e) {
+            truncate(length);
+            for (Pending pending : batch) {
+                pending.done().completeExceptionally(e);
+            }
+            return;
+        }
+        synchronized (this) {
+            batches++;
+            requests += batch.stream().filter(pending -> !pending.records().isEmpty()).count();
+        }
+        complete(batch);
+    }
+
+    // the batch is durable: publish through the callbacks, then release the writers
+    private void complete(List<Pending> batch) {
+        for (Pending pending : batch) {
+            if (pending.onDurable() != null) {
+                try {
+                    pending.onDurable().run();
+                } catch (RuntimeException e) {
+                    pending.done().completeExceptionally(e);
+                    continue;
+                }
+            }
+            pending.done().complete(null);
+        }
+    }
+
+    // drop whatever part of a failed batch reached the file
+    private void truncate(long length) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE)) {
+            if (channel.size() > length) {
+                channel.truncate(length);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed batch not cut off " + path + ": " + e.getMessage());
+        }
+    }
+
+    // average requests per written batch
+    public synchronized double averageBatch() {
+        return batches == 0 ? 0 : (double) requests / batches;
+    }
+}
@@ -0,0 +1,135 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: HotWordCache.java
+ * @Description: Memory-bounded cache of decoded rows for hot headwords, in front of the mapped snapshot.
+ * @Date: Created at 22:15 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - CLOCK (second chance) eviction: a hit only sets a flag, the hand clears flags and evicts unflagged entries
+ * - Bounded by approximate heap bytes of the cached Strings, not by entry count
+ * - Hits take no lock (ConcurrentHashMap + volatile flag), inserts and evictions share one lock
+ * - Cold headwords are decoded from the snapshot on demand and cached; the OS pages the snapshot in and out
+ * - Hit / miss / eviction counters and resident bytes for the stats report
+ * One cache belongs to one read-only base: entries never go stale, a new base gets a new cache.
+ */
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HotWordCache {
+
+    // object header + array / String overheads, roughly, per row and per entry
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int ROW_OVERHEAD = 80;
+
+    private static final class Entry {
+        final String key;
+        final String[][] rows;
+        final long bytes;
+        volatile boolean referenced;
+
+        Entry(String key, String[][] rows, long bytes) {
+            this.key = key;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // insertion order, the head is under the clock hand; guarded by this
+    private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+    private long bytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public HotWordCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // cached rows of a normalized key, null on a miss; the rows must not be modified
+    public String[][] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return entry.rows;
+    }
+
+    // cache rows just decoded from the base, evicting cold entries to stay under the byte bound
+    public void put(String key, String[][] rows) {
+        long size = sizeOf(key, rows);
+        if (size > maxBytes / 4) {
+            return; // one huge headword would flush everything else
+        }
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return; // another reader decoded it at the same time
+            }
+            while (bytes + size > maxBytes && !clock.isEmpty()) {
+                Entry candidate = clock.pollFirst();
+                if (candidate.referenced) {
+                    candidate.referenced = false; // second chance
+                    clock.addLast(candidate);
+                } else {
+                    entries.remove(candidate.key);
+                    bytes -= candidate.bytes;
+                    evictions.increment();
+                }
+            }
+            Entry entry = new Entry(key, rows, size);
+            entries.put(key, entry);
+            clock.addLast(entry);
+            bytes += size;
+        }
+    }
+
+    private static long sizeOf(String key, String[][] rows) {
+        long size = ENTRY_OVERHEAD + 2L * key.length();
+        for (String[] row : rows) {
+            size += ROW_OVERHEAD + 2L * (row[0].length() + row[1].length());
+        }
+        return size;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // one line for the server log
+    public String stats() {
+        long h = hits();
+        long m = misses();
+        return String.format("hot words %d, %.1f / %.1f MB, hits %d, misses %d (hit rate %.1f%%), evictions %d",
+                size(), bytes() / 1e6, maxBytes / 1e6, h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), evictions());
+    }
+}
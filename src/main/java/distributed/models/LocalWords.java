@@ -6,30 +6,81 @@ package distributed.models;
  * @Description: CSV-based dictionary file manager with auto-initialization capabilities.
         * @Date: Created at 23:14 on 2025/4/2
         * @ModifiedBy: Garvyn
-        * @Version: V1.1
+        * @Version: V1.9
         * @Functionality:
         * - Auto-creates CSV file if missing
  * - Thread-safe CRUD operations
  * - CSV data validation and sanitization
  * - Lazy loading with cache synchronization
+ * - Optional append-only mutation log replayed over the base CSV at startup
+ * - Memory-mapped binary snapshot (words.snap) instead of parsing the CSV at startup
+ * - Parallel chunked UTF-8 parsing when the CSV has to be read
+ * - Group commit: concurrent appends share one write and one fsync, each caller returns once durable
+ * - Queued adds: the caller lets its locks go while the commit is written, the rows are published once durable
+ * - Replica support: apply a shipped mutation record through the normal write path, install a full snapshot
+ * - Shard handover: replace every row of one headword with the rows its previous owner sent
+ * - words.csv is rewritten from the in-memory index (update/delete, compaction): headwords keep their first-appearance
+ *   order and the rows of a headword their order, words.csv is never re-read for it
+ * - An index change tree past dictionary.overlay.maxHeadwords is folded into a new snapshot (or packed) base
  */
 
+import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
 import com.opencsv.CSVWriter;
+import com.opencsv.ICSVParser;
 import com.opencsv.exceptions.CsvValidationException;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class LocalWords {
 
     // In idea
     // private static final String CSV_FILE_PATH = "src/main/resources/words.csv";
     // in Jar
-    private static final String CSV_FILE_PATH = "words.csv";
+    private static final String CSV_FILE_PATH = System.getProperty("dictionary.file", "words.csv");
+
+    // persistence mode: "rewrite" rewrites words.csv on update/delete, "log" appends a record to the mutation log
+    private static final boolean LOG_MODE = "log".equalsIgnoreCase(System.getProperty("dictionary.persistence", "rewrite"));
+    // fsync every appended batch (log, or words.csv in rewrite mode)
+    private static final boolean FSYNC = Boolean.getBoolean("dictionary.fsync");
+    // group commit: appends arriving within this window (or up to maxBatch requests) share one write and fsync
+    private static final long COMMIT_WINDOW_MICROS = Long.getLong("dictionary.groupCommit.windowMicros", 0);
+    private static final int COMMIT_MAX_BATCH = Integer.getInteger("dictionary.groupCommit.maxBatch", 512);
+    // fold the log into words.csv once it grows past this size
+    private static final long COMPACT_BYTES = Long.getLong("dictionary.compactBytes", 64L * 1024 * 1024);
+
+    // reply of a change that could not be written, nothing was changed
+    public static final String SAVE_FAILED = "Server error: the word could not be saved, please try again";
+
+    // "did you mean" entries added to a miss
+    private static final int SUGGESTIONS = 5;
+
+    // mutation log next to words.csv, one CSV record per mutation:
+    // A,word,definition | U,word,order,definition | D,word,order
+    private static final String LOG_FILE_PATH = CSV_FILE_PATH.replaceFirst("\\.csv$", "") + ".log";
+    // log already folded into the tmp CSV, only present while a compaction is in flight
+    private static final String APPLIED_LOG_PATH = LOG_FILE_PATH + ".applied";
+    private static final String TMP_CSV_PATH = CSV_FILE_PATH + ".tmp";
+
+    // binary image of words.csv, mapped at startup and rewritten whenever words.csv is rewritten
+    private static final boolean SNAPSHOT = Boolean.parseBoolean(System.getProperty("dictionary.snapshot", "true"));
+    private static final String SNAPSHOT_PATH = CSV_FILE_PATH.replaceFirst("\\.csv$", "") + ".snap";
+    private static final String TMP_SNAPSHOT_PATH = SNAPSHOT_PATH + ".tmp";
+    // threads parsing words.csv when there is no usable snapshot
+    private static final int LOAD_THREADS = Integer.getInteger("dictionary.loadThreads", Runtime.getRuntime().availableProcessors());
+
+    // the one appender of this mode's file (the log, or words.csv for rewrite mode adds)
+    private static final GroupCommitWriter APPENDER = new GroupCommitWriter(LOG_MODE ? LOG_FILE_PATH : CSV_FILE_PATH,
+            COMMIT_WINDOW_MICROS, COMMIT_MAX_BATCH, FSYNC);
 
     // 静态代码块，类加载时执行，确保 CSV 文件存在
     static {
@@ -71,104 +122,523 @@ public class LocalWords {
         }
     }
 
-    // add function
-    public void addWord(String word, String definition) {
-        // use normal writer to construct a csv writer
-        try (CSVWriter writer = new CSVWriter(new FileWriter(CSV_FILE_PATH, true))) {
-            String[] entry = {word, definition};
-            writer.writeNext(entry);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    // add function, returns once the row is on disk (group commit), false if it could not be written
+    public boolean addWord(String word, String definition) {
+        return committed(queueWords(List.<String[]>of(new String[]{word, definition}), null));
     }
 
-    // delete function
-    public String deleteWord(String word, int order, List<String[]> allWords) {
-        int matchCount = 1;
+    // add to file and to the cached index, no re-read of words.csv; the index only gets durable rows
+    public boolean addWord(String word, String definition, WordIndex index) {
+        return addWords(List.<String[]>of(new String[]{word, definition}), index);
+    }
 
-        Iterator<String[]> iterator = allWords.iterator();
-        while (iterator.hasNext()) {
-            String[] entry = iterator.next();
-            if (entry[0].equalsIgnoreCase(word)) {
-                if (matchCount == order) {
-                    iterator.remove();
-                    writeWordsToFile(allWords);
-                    return "Word deleted successfully.";
-                }else{
-                    matchCount++;
-                }
+    // add a batch of {word, definition} rows with one append to the file, then to the cached index
+    public boolean addWords(List<String[]> rows, WordIndex index) {
+        if (rows.isEmpty()) {
+            return true;
+        }
+        return committed(queueWords(rows, () -> {
+            for (String[] row : rows) {
+                index.add(new String[]{row[0], row[1]});
             }
+        }));
+    }
+
+    /*
+     * Queue {word, definition} rows for the next group commit and return at once, so the caller can let its
+     * locks go before it waits. published runs on the flusher once the rows are durable, in commit order and
+     * before the future completes (it adds them to the index); if they could not be written the future fails
+     * and published never runs. A caller taking the structure write lock runs awaitQueued() first.
+     */
+    public static CompletableFuture<Void> queueWords(List<String[]> rows, Runnable published) {
+        if (!LOG_MODE) {
+            return APPENDER.append(rows, published);
         }
-        return "Targeted meaning doesn't found";
+        List<String[]> records = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            records.add(new String[]{"A", row[0], row[1]});
+        }
+        return APPENDER.append(records, published);
     }
 
+    // every add queued so far is durable and published (or failed), no queued write is still in flight
+    public static void awaitQueued() {
+        APPENDER.drain();
+    }
 
-    // modify the definition of a word
-    public String updateWord(String word, String newDefinition, int order, List<String[]> allWords) {
-        int countOrder = 1;
+    // adds (and log records) per group commit so far
+    public static double averageBatch() {
+        return APPENDER.averageBatch();
+    }
 
-        for (String[] entry : allWords) {
-            if (entry[0].equalsIgnoreCase(word)) {
-                if (countOrder == order){
-                    entry[1] = newDefinition; // Update
-                    writeWordsToFile(allWords); // Write Back
-                    return "Word updated successfully.";
-                }
-                else {
-                    countOrder++;
-                }
+    // wait for a queued write, false (after printing the cause) if it could not be written
+    private static boolean committed(CompletableFuture<Void> queued) {
+        try {
+            queued.join();
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /*
+     * delete function. Log mode: only this headword must be locked by the caller, so the row checked
+     * is still there once its record is on disk.
+     * Rewrite mode writes the whole words.csv, so no other writer may run (see rewritesOnChange).
+     */
+    public String deleteWord(String word, int order, WordIndex index) {
+        if (index.row(word, order) == null) {
+            return "Targeted meaning doesn't found";
+        }
+        // durable before readers can see the change, a failed write leaves the index untouched
+        List<String[]> written = persist(index, List.<String[]>of(new String[]{"D", word, String.valueOf(order)}));
+        if (written == null) {
+            return SAVE_FAILED;
+        }
+        index.remove(word, order);
+        rewritten(written, index);
+        return "Word deleted successfully.";
+    }
+
+
+    // modify the definition of a word, same locking and order of steps as deleteWord
+    public String updateWord(String word, String newDefinition, int order, WordIndex index) {
+        if (index.row(word, order) == null) {
+            return "Targeted meaning or word doesn't found";
+        }
+        List<String[]> written = persist(index,
+                List.<String[]>of(new String[]{"U", word, String.valueOf(order), newDefinition}));
+        if (written == null) {
+            return SAVE_FAILED;
+        }
+        index.update(word, order, newDefinition); // Update
+        rewritten(written, index);
+        return "Word updated successfully.";
+    }
+
+    /*
+     * Apply one mutation log record shipped from the primary (A,word,definition | U,word,order,definition |
+     * D,word,order): written to this store's own file like a client's change, same locking as the matching call.
+     */
+    public boolean apply(String[] record, WordIndex index) {
+        try {
+            switch (record[0]) {
+                case "A":
+                    return record.length == 3 && addWord(record[1], record[2], index);
+                case "U":
+                    return record.length == 4 && updateWord(record[1], record[3], Integer.parseInt(record[2]), index)
+                            .equals("Word updated successfully.");
+                case "D":
+                    return record.length == 3 && deleteWord(record[1], Integer.parseInt(record[2]), index)
+                            .equals("Word deleted successfully.");
+                default:
+                    return false;
             }
+        } catch (NumberFormatException e) {
+            return false; // malformed order
         }
-        return "Targeted meaning or word doesn't found";
     }
 
-    // Look UP by cache or fresh read
-    public List<String> findWord(String word, List<String[]> allWords) {
-        if (allWords == null || allWords.isEmpty()) {
-            allWords = readAllWords(); // fallback
+    /*
+     * Replace every row of a headword with rows (a headword handed over by its previous shard), none removes it.
+     * Returns the number of rows removed, -1 if nothing could be written. Same locking as deleteWord.
+     */
+    public int replaceWord(String word, List<String[]> rows, WordIndex index) {
+        int removed = index.rows(word).size();
+        if (removed == 0) {
+            return addWords(rows, index) ? 0 : -1;
+        }
+        List<String[]> records = new ArrayList<>(removed + rows.size());
+        for (int i = 0; i < removed; i++) {
+            records.add(new String[]{"D", word, "1"});
+        }
+        for (String[] row : rows) {
+            records.add(new String[]{"A", row[0], row[1]});
         }
+        List<String[]> written = persist(index, records);
+        if (written == null) {
+            return -1;
+        }
+        for (int i = 0; i < removed; i++) {
+            index.remove(word, 1);
+        }
+        for (String[] row : rows) {
+            index.add(new String[]{row[0], row[1]});
+        }
+        rewritten(written, index);
+        return removed;
+    }
 
-        List<String> definitions = new ArrayList<>();
-        for (String[] entry : allWords) {
-            if (entry[0].equalsIgnoreCase(word)) {
-                definitions.add(entry[1]); // Collect all matching definitions
+    /*
+     * Replace the whole dictionary with rows (a replica installing the primary's snapshot): words.csv is
+     * rewritten, the log dropped and the snapshot rebuilt. No writer may run meanwhile. Returns the new index.
+     */
+    public static WordIndex replaceAll(List<String[]> rows) {
+        try {
+            writeTmpCsv(rows);
+            Files.move(Paths.get(TMP_CSV_PATH), Paths.get(CSV_FILE_PATH),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(Paths.get(LOG_FILE_PATH));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new WordIndex(rows); // served from memory, the next snapshot tries the file again
+        }
+        if (SNAPSHOT) {
+            try {
+                return new WordIndex(writeSnapshot(rows));
+            } catch (IOException e) {
+                e.printStackTrace();
             }
         }
-        if (!definitions.isEmpty()) {
-            return definitions;
-        }else{
+        return new WordIndex(rows);
+    }
+
+    // Look UP by cache or fresh read
+    public List<String> findWord(String word, WordIndex index) {
+        if (index == null) {
+            index = loadIndex(); // fallback
+        }
+        return findWord(word, index, index.current());
+    }
+
+    // Look UP in one version of the index, no lock: the version never changes under the reader
+    public List<String> findWord(String word, WordIndex index, WordVersion version) {
+        List<String> definitions = version.definitions(word); // Collect all matching definitions
+        if (definitions.isEmpty()) {
             definitions.add("No definitions, You can add one !");
-            return definitions;
+            // typo? offer the closest headwords in the same reply
+            List<String> suggestions = index.suggest(version, word, SUGGESTIONS);
+            if (!suggestions.isEmpty()) {
+                definitions.add("Did you mean: " + String.join(" / ", suggestions) + " ?");
+            }
         }
+        return definitions;
     }
 
     // Overload
     public List<String> findWord(String word) {
-        return findWord(word, readAllWords());
+        return findWord(word, loadIndex());
     }
 
 
-    // write to file
-    private void writeWordsToFile(List<String[]> allWords) {
-        try (CSVWriter writer = new CSVWriter(new FileWriter(CSV_FILE_PATH))) {
+    /*
+     * Make mutation records durable before the index publishes them: appended to the log, or (rewrite mode)
+     * words.csv rewritten from the index's rows with the records applied. Returns the rows now in words.csv
+     * (rewrite mode, for rewritten()), an empty list in log mode, null if nothing was written.
+     */
+    private static List<String[]> persist(WordIndex index, List<String[]> records) {
+        if (LOG_MODE) {
+            return appendLog(records) ? List.of() : null;
+        }
+        List<String[]> allWords = index.allRows();
+        if (applyRecords(allWords, records) != records.size() || !writeWordsToFile(allWords)) {
+            return null;
+        }
+        return allWords;
+    }
+
+    // the index now holds what persist() wrote: in rewrite mode the snapshot follows words.csv
+    private static void rewritten(List<String[]> allWords, WordIndex index) {
+        if (!LOG_MODE) {
+            refreshSnapshot(allWords, index);
+        }
+    }
+
+    /*
+     * Apply mutation records to rows the way the index applies them: the order-th row of a headword is its
+     * order-th row in rows, a new row goes to the end. A record that does not match the rows is skipped
+     * (as in replayLog); returns the number applied.
+     */
+    private static int applyRecords(List<String[]> rows, List<String[]> records) {
+        // row positions of the headwords the records touch, in row order
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (String[] record : records) {
+            if (record.length >= 2) {
+                positions.put(WordIndex.normalize(record[1]), new ArrayList<>());
+            }
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            List<Integer> of = positions.get(WordIndex.normalize(rows.get(i)[0]));
+            if (of != null) {
+                of.add(i);
+            }
+        }
+        int applied = 0;
+        for (String[] record : records) {
+            List<Integer> of = record.length < 2 ? null : positions.get(WordIndex.normalize(record[1]));
+            if (of == null) {
+                continue;
+            }
+            if (record[0].equals("A") && record.length == 3) {
+                of.add(rows.size());
+                rows.add(new String[]{record[1], record[2]});
+                applied++;
+                continue;
+            }
+            int order;
+            try {
+                order = record.length > 2 ? Integer.parseInt(record[2]) : 0;
+            } catch (NumberFormatException e) {
+                continue; // malformed order
+            }
+            if (order < 1 || order > of.size()) {
+                continue;
+            }
+            if (record[0].equals("U") && record.length == 4) {
+                int position = of.get(order - 1);
+                rows.set(position, new String[]{rows.get(position)[0], record[3]});
+                applied++;
+            } else if (record[0].equals("D") && record.length == 3) {
+                rows.set(of.remove(order - 1), null);
+                applied++;
+            }
+        }
+        rows.removeIf(Objects::isNull);
+        return applied;
+    }
+
+    // write to file, false (after printing the cause) if words.csv could not be replaced
+    private static boolean writeWordsToFile(List<String[]> allWords) {
+        try {
+            writeTmpCsv(allWords);
+            Files.move(Paths.get(TMP_CSV_PATH), Paths.get(CSV_FILE_PATH),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // write all rows to the tmp CSV and sync it, the caller moves it over words.csv
+    private static void writeTmpCsv(List<String[]> allWords) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(TMP_CSV_PATH);
+             CSVWriter writer = new CSVWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
             writer.writeAll(allWords); // write all data
+            writer.flush();
+            fos.getFD().sync();
+        }
+    }
+
+    // append mutation records in one group-committed write, returns once they are durable
+    private static boolean appendLog(List<String[]> records) {
+        return APPENDER.appendAndWait(records);
+    }
+
+    // the log grew past dictionary.compactBytes: the caller runs compact() with no writer running
+    public static boolean compactionDue() {
+        return LOG_MODE && new File(LOG_FILE_PATH).length() > COMPACT_BYTES;
+    }
+
+    // true if update/delete rewrite the whole words.csv (rewrite mode): they must run with no other writer
+    public static boolean rewritesOnChange() {
+        return !LOG_MODE;
+    }
+
+    /*
+     * Fold the mutation log into words.csv. The index must already contain every logged mutation
+     * and no writer may run meanwhile (hold the write lock).
+     * Steps: tmp CSV -> log renamed to .applied -> tmp moved over words.csv -> .applied deleted,
+     * so a crash at any point is finished by recoverCompaction() without applying the log twice.
+     */
+    public static void compact(WordIndex index) {
+        Path log = Paths.get(LOG_FILE_PATH);
+        if (!Files.exists(log)) {
+            return;
+        }
+        List<String[]> allWords = index.allRows();
+        try {
+            writeTmpCsv(allWords);
+            Files.move(log, Paths.get(APPLIED_LOG_PATH), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(Paths.get(TMP_CSV_PATH), Paths.get(CSV_FILE_PATH),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(Paths.get(APPLIED_LOG_PATH));
+            System.out.println("Mutation log compacted into " + CSV_FILE_PATH);
         } catch (IOException e) {
             e.printStackTrace();
+            return;
         }
+        refreshSnapshot(allWords, index);
     }
 
-    // read all data
-    public static List<String[]> readAllWords() {
-        List<String[]> allWords = new ArrayList<>(); // todo: ArrayList is not thread secured --> add lock when server use
-        try (CSVReader reader = new CSVReader(new FileReader(CSV_FILE_PATH))) {
-            String[] nextLine;
-            while ((nextLine = reader.readNext()) != null) {
-                allWords.add(nextLine); // read next line
+    /*
+     * Fold the index's change tree into a new base once it is past dictionary.overlay.maxHeadwords, so it stops
+     * growing between rewrites (adds never rewrite words.csv). Log mode compacts; rewrite mode's words.csv
+     * already holds every row, so only the snapshot is rewritten; without snapshots the rows are packed in memory.
+     * No writer may run meanwhile (hold the write lock).
+     */
+    public static void foldOverlay(WordIndex index) {
+        if (LOG_MODE && hasPendingLog()) {
+            compact(index);
+        } else if (SNAPSHOT) {
+            refreshSnapshot(index.allRows(), index);
+        }
+        if (index.overlayDue()) {
+            index.pack(); // no snapshot, or it could not be written
+        }
+    }
+
+    // finish or discard a compaction interrupted by a crash
+    private static void recoverCompaction() {
+        Path applied = Paths.get(APPLIED_LOG_PATH);
+        Path tmp = Paths.get(TMP_CSV_PATH);
+        try {
+            if (Files.exists(applied)) {
+                // tmp was complete before the log was renamed, so it already holds the log
+                if (Files.exists(tmp)) {
+                    Files.move(tmp, Paths.get(CSV_FILE_PATH), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                Files.delete(applied);
+            } else {
+                // half written tmp CSV, words.csv is still the truth
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // replay the mutation log over the base CSV
+    private static void replayLog(WordIndex index) {
+        File log = new File(LOG_FILE_PATH);
+        if (!log.exists()) {
+            return;
+        }
+        int applied = 0;
+        try (CSVReader reader = logReader(log)) {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                if (applyRecord(record, index)) {
+                    applied++;
+                }
             }
         } catch (IOException | CsvValidationException e) {
+            // a torn record at the tail (crash while appending) ends the replay
+            System.out.println("Mutation log replay stopped: " + e.getMessage());
+        }
+        System.out.println("Replayed " + applied + " mutation log records.");
+    }
+
+    // the log as CSVWriter wrote it: "" escapes a quote and a backslash is a plain character, as in CsvLoader
+    private static CSVReader logReader(File log) throws IOException {
+        return new CSVReaderBuilder(new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8))
+                .withCSVParser(new CSVParserBuilder().withEscapeChar(ICSVParser.NULL_CHARACTER).build())
+                .build();
+    }
+
+    private static boolean applyRecord(String[] record, WordIndex index) {
+        try {
+            switch (record[0]) {
+                case "A":
+                    if (record.length == 3) {
+                        index.add(new String[]{record[1], record[2]});
+                        return true;
+                    }
+                    break;
+                case "U":
+                    if (record.length == 4) {
+                        return index.update(record[1], Integer.parseInt(record[2]), record[3]);
+                    }
+                    break;
+                case "D":
+                    if (record.length == 3) {
+                        return index.remove(record[1], Integer.parseInt(record[2])) != null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            // malformed order, skip the record
+        }
+        return false;
+    }
+
+    // true if the mutation log holds records that are not in words.csv yet
+    public static boolean hasPendingLog() {
+        return new File(LOG_FILE_PATH).length() > 0;
+    }
+
+    // read all data, in file order
+    public static List<String[]> readAllWords() {
+        try {
+            return CsvLoader.readAll(Paths.get(CSV_FILE_PATH), LOAD_THREADS, CsvLoader.DEFAULT_CHUNK_BYTES);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    // parse words.csv in parallel straight into the index
+    private static WordIndex loadCsv() {
+        try {
+            return CsvLoader.load(Paths.get(CSV_FILE_PATH), LOAD_THREADS);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new WordIndex();
+        }
+    }
+
+    // read all data into the headword index, with the mutation log applied
+    public static WordIndex loadIndex() {
+        recoverCompaction();
+        WordIndex index = SNAPSHOT ? loadSnapshot() : null;
+        if (index == null) {
+            index = loadCsv();
+        }
+        replayLog(index);
+        return index;
+    }
+
+    // index over the mapped words.snap, rebuilt from words.csv when missing or stale; null if unusable
+    private static WordIndex loadSnapshot() {
+        File csv = new File(CSV_FILE_PATH);
+        Path path = Paths.get(SNAPSHOT_PATH);
+        try {
+            if (Files.exists(path)) {
+                WordSnapshot snapshot = WordSnapshot.open(path);
+                if (snapshot.matches(csv.length(), csv.lastModified())) {
+                    System.out.println("Mapped " + snapshot.rowCount() + " definitions from " + SNAPSHOT_PATH);
+                    return new WordIndex(snapshot);
+                }
+            }
+        } catch (IOException e) {
+            // unreadable snapshot, rebuilt below
+            System.out.println("Snapshot ignored: " + e.getMessage());
+        }
+        // first start or words.csv changed outside the server: parse it once and snapshot it
+        List<String[]> allWords = loadCsv().allRows();
+        try {
+            WordSnapshot snapshot = writeSnapshot(allWords);
+            System.out.println("Wrote " + snapshot.rowCount() + " definitions to " + SNAPSHOT_PATH);
+            return new WordIndex(snapshot);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new WordIndex(allWords);
+        }
+    }
+
+    // snapshot of exactly the rows just written to words.csv, stamped with its size and mtime
+    private static WordSnapshot writeSnapshot(List<String[]> allWords) throws IOException {
+        File csv = new File(CSV_FILE_PATH);
+        WordSnapshot.write(Paths.get(TMP_SNAPSHOT_PATH), allWords, csv.length(), csv.lastModified());
+        Files.move(Paths.get(TMP_SNAPSHOT_PATH), Paths.get(SNAPSHOT_PATH),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return WordSnapshot.open(Paths.get(SNAPSHOT_PATH));
+    }
+
+    // words.csv was rewritten from index: rewrite the snapshot and let the index drop its in-memory copies
+    private static void refreshSnapshot(List<String[]> allWords, WordIndex index) {
+        if (!SNAPSHOT) {
+            return;
+        }
+        try {
+            index.rebase(writeSnapshot(allWords));
+        } catch (IOException e) {
+            // the old snapshot no longer matches words.csv and is rebuilt at the next start
             e.printStackTrace();
         }
-        return allWords;
     }
 
 }
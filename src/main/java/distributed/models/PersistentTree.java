@@ -0,0 +1,153 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: PersistentTree.java
+ * @Description: Immutable sorted map from normalized headword to a value, updated by path copying.
+ * @Date: Created at 16:20 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - AVL tree in WordSnapshot key order (code point order), O(log N) get and put
+ * - put returns a new tree that shares every untouched node with the old one
+ * - Old trees never change, a reader holding one needs no lock
+ * - In-order walk from the first key >= a prefix (merged with the base layer by prefix search)
+ */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+public final class PersistentTree<V> {
+
+    private static final PersistentTree<?> EMPTY = new PersistentTree<>(null, 0);
+
+    private record Node<V>(String key, V value, Node<V> left, Node<V> right, int height) {
+    }
+
+    private final Node<V> root;
+    private final int size;
+
+    private PersistentTree(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentTree<V> empty() {
+        return (PersistentTree<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // value of a key, null if absent
+    public V get(String key) {
+        Node<V> node = root;
+        while (node != null) {
+            int c = WordSnapshot.compareKeys(key, node.key);
+            if (c == 0) {
+                return node.value;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    // a tree with key mapped to value, this tree is left as it is
+    public PersistentTree<V> put(String key, V value) {
+        return new PersistentTree<>(put(root, key, value), get(key) == null ? size + 1 : size);
+    }
+
+    private static <V> Node<V> put(Node<V> node, String key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null, 1);
+        }
+        int c = WordSnapshot.compareKeys(key, node.key);
+        if (c == 0) {
+            return new Node<>(key, value, node.left, node.right, node.height);
+        }
+        return c < 0
+                ? balance(node.key, node.value, put(node.left, key, value), node.right)
+                : balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <V> Node<V> node(String key, V value, Node<V> left, Node<V> right) {
+        return new Node<>(key, value, left, right, Math.max(height(left), height(right)) + 1);
+    }
+
+    // new node with the AVL invariant restored (heights of the children differ by at most 1)
+    private static <V> Node<V> balance(String key, V value, Node<V> left, Node<V> right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return node(left.key, left.value, left.left, node(key, value, left.right, right));
+        }
+        if (diff < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return node(right.key, right.value, node(key, value, left, right.left), right.right);
+        }
+        return node(key, value, left, right);
+    }
+
+    private static <V> Node<V> rotateLeft(Node<V> n) {
+        return node(n.right.key, n.right.value, node(n.key, n.value, n.left, n.right.left), n.right.right);
+    }
+
+    private static <V> Node<V> rotateRight(Node<V> n) {
+        return node(n.left.key, n.left.value, n.left.left, node(n.key, n.value, n.left.right, n.right));
+    }
+
+    // every entry in key order
+    public void forEach(BiConsumer<String, V> action) {
+        Iterator<Map.Entry<String, V>> entries = from("");
+        while (entries.hasNext()) {
+            Map.Entry<String, V> entry = entries.next();
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // entries in key order, starting at the first key >= from
+    public Iterator<Map.Entry<String, V>> from(String from) {
+        Deque<Node<V>> path = new ArrayDeque<>();
+        Node<V> node = root;
+        while (node != null) {
+            if (WordSnapshot.compareKeys(node.key, from) >= 0) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Map.Entry<String, V> next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<V> next = path.pop();
+                for (Node<V> n = next.right; n != null; n = n.left) {
+                    path.push(n);
+                }
+                return Map.entry(next.key, next.value);
+            }
+        };
+    }
+}
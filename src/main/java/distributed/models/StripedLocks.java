@@ -0,0 +1,65 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: StripedLocks.java
+ * @Description: Fixed set of write locks picked by case-folded headword, writers of different words run in parallel.
+ * @Date: Created at 19:10 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - One ReentrantLock per stripe, a headword always maps to the same stripe ("Cat" and "cat" included)
+ * - Writers of one headword take turns, so order-based update/delete see the rows in a fixed order
+ * - A batch locks the stripes of all its words in ascending stripe order (no deadlock between batches)
+ */
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    public StripedLocks(int stripes) {
+        // power of two, so a stripe is a mask of the hash
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    public int stripe(String word) {
+        int h = WordIndex.normalize(word).hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (locks.length - 1);
+    }
+
+    public void lock(String word) {
+        locks[stripe(word)].lock();
+    }
+
+    public void unlock(String word) {
+        locks[stripe(word)].unlock();
+    }
+
+    // distinct stripes of all words, ascending; lock them with lockAll and release with unlockAll
+    public int[] stripesOf(Collection<String> words) {
+        return words.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+    }
+
+    public void lockAll(int[] stripes) {
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+    }
+
+    public void unlockAll(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: WordIndex.java
+ * @Description: Headword index from case-folded headword to its ordered definitions.
+ * @Date: Created at 10:12 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.4
+ * @Functionality:
+ * - O(1) exact lookup in memory, O(log N) on the mapped snapshot
+ * - Definitions of one headword keep their file order (order-based update/delete)
+ * - Rows keep the original spelling so the CSV can be written back unchanged
+ * - Sorted headwords for prefix search (type-ahead), O(log N + K) per query
+ * - Deletion index for "did you mean" suggestions, built on the first miss and kept current on add/remove
+ * - Read-only base (WordSnapshot, or a sealed CompactStore when loaded from the CSV)
+ * - Every change publishes a new immutable WordVersion with one compare-and-set;
+ *   readers take current() and never lock, a writer never blocks a reader
+ * - Over a mapped snapshot only hot headwords are kept decoded on the heap (HotWordCache, byte-bounded)
+ * - The change tree of the versions is folded into a new base past dictionary.overlay.maxHeadwords
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+public class WordIndex {
+
+    // latest published version
+    private final AtomicReference<WordVersion> current;
+    // "did you mean" index, 0 disables it
+    private static final int FUZZY_DISTANCE = Integer.getInteger("dictionary.fuzzy.maxDistance", 2);
+    // the deletion index is shared by all versions and changed in place, so it keeps a lock of its own
+    // (only taken on lookup misses and when a headword appears or disappears)
+    private final ReentrantReadWriteLock fuzzyLock = new ReentrantReadWriteLock();
+    private volatile FuzzyIndex fuzzy;
+    // changed headwords the versions may hold over their base before the owner folds them into a new one
+    private static final int OVERLAY_MAX_HEADWORDS = Integer.getInteger("dictionary.overlay.maxHeadwords", 65536);
+    // heap bytes for decoded hot headwords of a mapped snapshot, 0 disables the cache
+    private static final long CACHE_BYTES = Long.getLong("dictionary.cache.maxBytes", 64L * 1024 * 1024);
+
+    public WordIndex() {
+        this((WordTable) null);
+    }
+
+    // rows packed into a sealed in-memory base
+    public WordIndex(Iterable<String[]> allWords) {
+        this(pack(allWords));
+    }
+
+    // index over a read-only base, changes stay in the version tree until the next snapshot
+    public WordIndex(WordTable base) {
+        current = new AtomicReference<>(new WordVersion(base, cacheFor(base), 0));
+    }
+
+    // the snapshot is decoded on every read, so its hot headwords are cached; an in-memory base needs no cache
+    private static HotWordCache cacheFor(WordTable base) {
+        return base instanceof WordSnapshot && CACHE_BYTES > 0 ? new HotWordCache(CACHE_BYTES) : null;
+    }
+
+    private static CompactStore pack(Iterable<String[]> allWords) {
+        CompactStore store = new CompactStore();
+        if (allWords != null) {
+            for (String[] row : allWords) {
+                store.add(row);
+            }
+        }
+        return store.seal();
+    }
+
+    // case folding used for every key, Locale.ROOT so results do not depend on the host
+    public static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    // the latest version, one volatile read; it never changes, so a reader can ask it several questions
+    public WordVersion current() {
+        return current.get();
+    }
+
+    // ---- reads, each on the latest version ----
+
+    public List<String[]> rows(String word) {
+        return current().rows(word);
+    }
+
+    public List<String> definitions(String word) {
+        return current().definitions(word);
+    }
+
+    public boolean contains(String word) {
+        return current().contains(word);
+    }
+
+    public String[] row(String word, int order) {
+        return current().row(word, order);
+    }
+
+    public List<String> prefixSearch(String prefix, int limit) {
+        return current().prefixSearch(prefix, limit);
+    }
+
+    public int size() {
+        return current().size();
+    }
+
+    public boolean isEmpty() {
+        return current().isEmpty();
+    }
+
+    public List<String[]> allRows() {
+        return current().allRows();
+    }
+
+    // ---- writes, each publishes a new version ----
+
+    // append one row {word, definition}, skip malformed lines
+    public void add(String[] row) {
+        if (row == null || row.length < 2) {
+            return;
+        }
+        String[] copy = {row[0], row[1]};
+        publish(normalize(row[0]), rows -> {
+            String[][] changed = Arrays.copyOf(rows, rows.length + 1);
+            changed[rows.length] = copy;
+            return changed;
+        });
+    }
+
+    // replace the definition of the order-th (1-based) row of a headword, false if out of range
+    public boolean update(String word, int order, String definition) {
+        return publish(normalize(word), rows -> {
+            if (order < 1 || order > rows.length) {
+                return null;
+            }
+            String[][] changed = rows.clone();
+            changed[order - 1] = new String[]{rows[order - 1][0], definition};
+            return changed;
+        }) != null;
+    }
+
+    // remove the order-th (1-based) row of a headword, null if out of range
+    public String[] remove(String word, int order) {
+        String[][] before = publish(normalize(word), rows -> {
+            if (order < 1 || order > rows.length) {
+                return null;
+            }
+            String[][] changed = new String[rows.length - 1][];
+            System.arraycopy(rows, 0, changed, 0, order - 1);
+            System.arraycopy(rows, order, changed, order - 1, rows.length - order);
+            return changed;
+        });
+        return before == null ? null : before[order - 1].clone();
+    }
+
+    /*
+     * Apply change to the rows of one headword and publish the next version. If another writer
+     * published first the change is applied again to its version. Returns the rows before the
+     * change, or null if change returned null (nothing published).
+     */
+    private String[][] publish(String key, UnaryOperator<String[][]> change) {
+        while (true) {
+            WordVersion version = current.get();
+            String[][] before = version.stored(key);
+            String[][] after = change.apply(before);
+            if (after == null) {
+                return null;
+            }
+            if (current.compareAndSet(version, version.with(key, after, after.length - before.length))) {
+                if ((before.length == 0) != (after.length == 0)) {
+                    keyChanged(key, after.length > 0);
+                }
+                return before;
+            }
+        }
+    }
+
+    // swap in a snapshot holding exactly the current rows (after words.csv was rewritten, no writer running)
+    public void rebase(WordSnapshot snapshot) {
+        current.set(current.get().rebase(snapshot, cacheFor(snapshot)));
+    }
+
+    // true once the change tree holds more headwords than dictionary.overlay.maxHeadwords
+    public boolean overlayDue() {
+        return current().changedHeadwords() > OVERLAY_MAX_HEADWORDS;
+    }
+
+    // fold the change tree into a new sealed in-memory base with the current rows (no writer running)
+    public void pack() {
+        WordVersion version = current.get();
+        current.set(version.rebase(pack(version.allRows()), null));
+    }
+
+    // ---- suggestions ----
+
+    // known headwords close to word (edit distance), closest first, original spelling
+    public List<String> suggest(String word, int limit) {
+        return suggest(current(), word, limit);
+    }
+
+    // suggestions that exist in the given version
+    public List<String> suggest(WordVersion version, String word, int limit) {
+        List<String> suggestions = new ArrayList<>();
+        FuzzyIndex index = fuzzyIndex();
+        if (index == null) {
+            return suggestions;
+        }
+        List<String> keys;
+        fuzzyLock.readLock().lock();
+        try {
+            keys = index.suggest(normalize(word), limit);
+        } finally {
+            fuzzyLock.readLock().unlock();
+        }
+        for (String key : keys) {
+            List<String[]> rows = version.rows(key);
+            if (!rows.isEmpty()) {
+                suggestions.add(rows.get(0)[0]);
+            }
+        }
+        return suggestions;
+    }
+
+    // the deletion index is built over every headword on first use, so startup does not pay for it
+    private FuzzyIndex fuzzyIndex() {
+        if (FUZZY_DISTANCE <= 0) {
+            return null;
+        }
+        FuzzyIndex index = fuzzy;
+        if (index == null) {
+            fuzzyLock.writeLock().lock();
+            try {
+                index = fuzzy;
+                if (index == null) {
+                    // writers publish before they come here, so the latest version misses no headword
+                    index = new FuzzyIndex(FUZZY_DISTANCE);
+                    current().forEachKey(index::add);
+                    fuzzy = index;
+                }
+            } finally {
+                fuzzyLock.writeLock().unlock();
+            }
+        }
+        return index;
+    }
+
+    // a headword got its first row or lost its last one
+    private void keyChanged(String key, boolean present) {
+        if (FUZZY_DISTANCE <= 0) {
+            return;
+        }
+        // taken even before the index exists, so a build running right now cannot miss this key
+        fuzzyLock.writeLock().lock();
+        try {
+            FuzzyIndex index = fuzzy;
+            if (index != null) {
+                if (present) {
+                    index.add(key);
+                } else {
+                    index.remove(key);
+                }
+            }
+        } finally {
+            fuzzyLock.writeLock().unlock();
+        }
+    }
+
+    // approximate heap bytes of the packed base (a mapped snapshot is off-heap)
+    public long memoryFootprint() {
+        return current().baseFootprint();
+    }
+}
@@ -0,0 +1,375 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: WordSnapshot.java
+ * @Description: Read-only binary image of words.csv, memory-mapped and queried in place.
+ * @Date: Created at 21:30 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.2
+ * @Functionality:
+ * - Base layer (WordTable) of the index, handles are sorted positions; the mapping is never written
+ * - Sorted key block + offset tables + UTF-8 strings in one file (words.snap next to words.csv)
+ * - Opening costs one mmap, no parsing and no per-entry objects on the heap
+ * - Exact lookup and prefix range by binary search over the UTF-8 key bytes
+ * - Remembers the CSV size/mtime it was built from, a stale snapshot is rebuilt from the CSV
+ *
+ * Layout (big-endian ints, offsets are absolute file positions):
+ *   header    magic, version, keyCount, rowCount, csvLength (long), csvModified (long)
+ *   keys      keyCount x key string offset, sorted by UTF-8 bytes (= code point order)
+ *   rowStart  keyCount + 1 x first row of each key, rows are stored in sorted key order
+ *   fileOrder keyCount x key number, in the headwords' first-appearance order in the CSV
+ *   rows      rowCount x (word string offset, definition string offset)
+ *   strings   int length + UTF-8 bytes, for keys, words and definitions
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+public class WordSnapshot implements WordTable {
+
+    private static final int MAGIC = 0x44534E50; // "DSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final MappedByteBuffer buffer;
+    private final int keyCount;
+    private final int rowCount;
+    private final long csvLength;
+    private final long csvModified;
+    // section positions
+    private final int keys;
+    private final int rowStart;
+    private final int fileOrder;
+    private final int rows;
+
+    private WordSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not a dictionary snapshot");
+        }
+        keyCount = buffer.getInt(8);
+        rowCount = buffer.getInt(12);
+        csvLength = buffer.getLong(16);
+        csvModified = buffer.getLong(24);
+        keys = HEADER_BYTES;
+        rowStart = keys + 4 * keyCount;
+        fileOrder = rowStart + 4 * (keyCount + 1);
+        rows = fileOrder + 4 * keyCount;
+        if (keyCount < 0 || rowCount < 0 || (long) rows + 8L * rowCount > buffer.capacity()) {
+            throw new IOException("truncated dictionary snapshot");
+        }
+    }
+
+    public static WordSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new WordSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /*
+     * Write rows {word, definition} as a snapshot. Rows are grouped by headword here (first appearance
+     * order), rows of one headword keep their order, so any row order works (words.csv order, WordIndex.allRows()).
+     * allRows must be random access.
+     */
+    public static void write(Path path, List<String[]> allRows, long csvLength, long csvModified) throws IOException {
+        // headword number of every row, numbered in first appearance order
+        Map<String, Integer> keyNumbers = new HashMap<>();
+        List<byte[]> keyList = new ArrayList<>();
+        int[] rowKey = new int[allRows.size()];
+        for (int i = 0; i < allRows.size(); i++) {
+            String key = WordIndex.normalize(allRows.get(i)[0]);
+            Integer number = keyNumbers.get(key);
+            if (number == null) {
+                number = keyList.size();
+                keyNumbers.put(key, number);
+                keyList.add(key.getBytes(StandardCharsets.UTF_8));
+            }
+            rowKey[i] = number;
+        }
+        int keyCount = keyList.size();
+        // rows grouped by headword: the rows of key k are grouped[groupStart[k] .. groupStart[k + 1])
+        int[] groupStart = new int[keyCount + 1];
+        for (int key : rowKey) {
+            groupStart[key + 1]++;
+        }
+        for (int k = 0; k < keyCount; k++) {
+            groupStart[k + 1] += groupStart[k];
+        }
+        int[] grouped = new int[allRows.size()];
+        int[] filled = Arrays.copyOf(groupStart, keyCount);
+        for (int i = 0; i < rowKey.length; i++) {
+            grouped[filled[rowKey[i]]++] = i;
+        }
+        byte[][] keyBytes = keyList.toArray(new byte[0][]);
+        // sorted key number -> first-appearance number
+        Integer[] sorted = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> compare(keyBytes[a], keyBytes[b]));
+        int[] sortedPosition = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            sortedPosition[sorted[i]] = i;
+        }
+
+        int rowCount = allRows.size();
+        // pass 1: string offsets from the UTF-8 lengths, nothing is encoded yet
+        long position = HEADER_BYTES + 4L * keyCount + 4L * (keyCount + 1) + 4L * keyCount + 8L * rowCount;
+        int[] keyOffsets = new int[keyCount];
+        int[] rowOffsets = new int[rowCount * 2];
+        int row = 0;
+        for (int i = 0; i < keyCount; i++) {
+            int key = sorted[i];
+            keyOffsets[i] = checkOffset(position);
+            position += 4 + keyBytes[key].length;
+            for (int r = groupStart[key]; r < groupStart[key + 1]; r++) {
+                String[] entry = allRows.get(grouped[r]);
+                rowOffsets[row * 2] = checkOffset(position);
+                position += 4 + utf8Length(entry[0]);
+                rowOffsets[row * 2 + 1] = checkOffset(position);
+                position += 4 + utf8Length(entry[1]);
+                row++;
+            }
+        }
+        checkOffset(position);
+
+        // pass 2: tables, then the strings in the same order
+        try (FileOutputStream fos = new FileOutputStream(path.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keyCount);
+            out.writeInt(rowCount);
+            out.writeLong(csvLength);
+            out.writeLong(csvModified);
+            for (int offset : keyOffsets) {
+                out.writeInt(offset);
+            }
+            int start = 0;
+            for (int i = 0; i < keyCount; i++) {
+                out.writeInt(start);
+                start += groupStart[sorted[i] + 1] - groupStart[sorted[i]];
+            }
+            out.writeInt(start);
+            for (int i = 0; i < keyCount; i++) {
+                out.writeInt(sortedPosition[i]);
+            }
+            for (int offset : rowOffsets) {
+                out.writeInt(offset);
+            }
+            for (int i = 0; i < keyCount; i++) {
+                int key = sorted[i];
+                writeString(out, keyBytes[key]);
+                for (int r = groupStart[key]; r < groupStart[key + 1]; r++) {
+                    String[] entry = allRows.get(grouped[r]);
+                    writeString(out, entry[0].getBytes(StandardCharsets.UTF_8));
+                    writeString(out, entry[1].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // UTF-8 length as String.getBytes encodes it (an unpaired surrogate becomes '?')
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int checkOffset(long position) throws IOException {
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("dictionary too large for a snapshot (over 2 GB)");
+        }
+        return (int) position;
+    }
+
+    // true if the snapshot was built from a CSV of this size and modification time
+    public boolean matches(long length, long modified) {
+        return csvLength == length && csvModified == modified;
+    }
+
+    @Override
+    public int keyCount() {
+        return keyCount;
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCount;
+    }
+
+    // sorted position of a normalized key, -1 if absent
+    @Override
+    public int find(String key) {
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int low = lowerBound(target);
+        return low < keyCount && compareKey(low, target) == 0 ? low : -1;
+    }
+
+    // first sorted position whose key is >= the normalized prefix
+    public int lowerBound(String prefix) {
+        return lowerBound(prefix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int lowerBound(byte[] target) {
+        int low = 0;
+        int high = keyCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(mid, target) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String key(int position) {
+        return string(buffer.getInt(keys + 4 * position));
+    }
+
+    // sorted position of the n-th headword in CSV order
+    public int fileOrder(int n) {
+        return buffer.getInt(fileOrder + 4 * n);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt sortedFrom(String prefix) {
+        return IntStream.range(lowerBound(prefix), keyCount).iterator();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt fileOrder() {
+        return IntStream.range(0, keyCount).map(this::fileOrder).iterator();
+    }
+
+    // rows {word, definition} of the key at a sorted position, freshly decoded
+    @Override
+    public List<String[]> rows(int position) {
+        int from = buffer.getInt(rowStart + 4 * position);
+        int to = buffer.getInt(rowStart + 4 * (position + 1));
+        List<String[]> result = new ArrayList<>(to - from);
+        for (int row = from; row < to; row++) {
+            result.add(new String[]{string(buffer.getInt(rows + 8 * row)), string(buffer.getInt(rows + 8 * row + 4))});
+        }
+        return result;
+    }
+
+    // definitions of the key at a sorted position, the spellings are not decoded
+    @Override
+    public List<String> definitions(int position) {
+        int from = buffer.getInt(rowStart + 4 * position);
+        int to = buffer.getInt(rowStart + 4 * (position + 1));
+        List<String> result = new ArrayList<>(to - from);
+        for (int row = from; row < to; row++) {
+            result.add(string(buffer.getInt(rows + 8 * row + 4)));
+        }
+        return result;
+    }
+
+    // original spelling of the first row of a key
+    @Override
+    public String word(int position) {
+        return string(buffer.getInt(rows + 8 * buffer.getInt(rowStart + 4 * position)));
+    }
+
+    public int rowCount(int position) {
+        return buffer.getInt(rowStart + 4 * (position + 1)) - buffer.getInt(rowStart + 4 * position);
+    }
+
+    private String string(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // unsigned byte comparison of a stored key with target, in place
+    private int compareKey(int position, byte[] target) {
+        int offset = buffer.getInt(keys + 4 * position);
+        int length = buffer.getInt(offset);
+        int n = Math.min(length, target.length);
+        for (int i = 0; i < n; i++) {
+            int diff = (buffer.get(offset + 4 + i) & 0xFF) - (target[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - target.length;
+    }
+
+    // true if the stored key at a sorted position starts with the normalized prefix
+    public boolean startsWith(int position, String prefix) {
+        byte[] target = prefix.getBytes(StandardCharsets.UTF_8);
+        int offset = buffer.getInt(keys + 4 * position);
+        if (buffer.getInt(offset) < target.length) {
+            return false;
+        }
+        for (int i = 0; i < target.length; i++) {
+            if (buffer.get(offset + 4 + i) != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // key order of the snapshot: unsigned UTF-8 bytes, i.e. code point order
+    private static int compare(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+
+    // the same order on Strings, for in-memory keys merged with snapshot keys
+    public static int compareKeys(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                // UTF-16 order only differs from code point order between a surrogate and U+E000..U+FFFF
+                if (ca >= 0xD800 && cb >= 0xD800 && Character.isSurrogate(ca) != Character.isSurrogate(cb)) {
+                    return Character.isSurrogate(ca) ? 1 : -1;
+                }
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+}
@@ -0,0 +1,46 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: WordTable.java
+ * @Description: Read-only base layer of the headword index (mapped snapshot or packed in-memory store).
+ * @Date: Created at 16:05 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Headwords are addressed by an int handle, rows of one headword keep their file order
+ * - Sorted walk (prefix search) and CSV order walk (writing the CSV back)
+ * - Never changes once published, so any number of threads can read it without a lock
+ */
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+public interface WordTable {
+
+    // handle of a normalized key, negative if absent
+    int find(String key);
+
+    // rows {word, definition} of a headword, freshly decoded
+    List<String[]> rows(int handle);
+
+    // definitions of a headword in order
+    List<String> definitions(int handle);
+
+    // normalized key of a headword
+    String key(int handle);
+
+    // original spelling of the first row
+    String word(int handle);
+
+    int keyCount();
+
+    // total number of rows
+    int rowCount();
+
+    // handles in key order, starting at the first key >= prefix
+    PrimitiveIterator.OfInt sortedFrom(String prefix);
+
+    // handles in the headwords' first-appearance order in the CSV
+    PrimitiveIterator.OfInt fileOrder();
+}
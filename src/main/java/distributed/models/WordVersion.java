@@ -0,0 +1,254 @@
+package distributed.models;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: WordVersion.java
+ * @Description: One immutable, numbered state of the dictionary, what every reader works on.
+ * @Date: Created at 16:40 on 2026/10/18
+ * @ModifiedBy: Garvyn
+ * @Version: V1.2
+ * @Functionality:
+ * - Read-only base (mapped snapshot or sealed packed store) + persistent tree of the headwords changed since
+ * - Never changes after construction: readers need no lock and see one consistent state
+ * - A write builds the next version by path copying, old and new versions share all untouched data
+ * - Rows held here are never modified, callers get copies
+ * - Unchanged headwords are read through the base's HotWordCache when there is one (mapped snapshot)
+ * - The tree only grows until a new base takes it over (rewrite, compaction, or a fold past a size limit)
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+public final class WordVersion {
+
+    private static final String[][] NO_ROWS = new String[0][];
+
+    // rows of one changed headword, created = version that first stored it (CSV order of new headwords);
+    // no rows left marks a base headword whose rows were all deleted
+    private record Changed(String[][] rows, long created) {
+    }
+
+    // null when everything is in the tree
+    private final WordTable base;
+    // decoded rows of hot base headwords, shared by every version over this base; null if not cached
+    private final HotWordCache cache;
+    private final PersistentTree<Changed> changes;
+    // total number of rows
+    private final int size;
+    private final long version;
+
+    WordVersion(WordTable base, HotWordCache cache, long version) {
+        this(base, cache, PersistentTree.empty(), base == null ? 0 : base.rowCount(), version);
+    }
+
+    private WordVersion(WordTable base, HotWordCache cache, PersistentTree<Changed> changes, int size, long version) {
+        this.base = base;
+        this.cache = cache;
+        this.changes = changes;
+        this.size = size;
+        this.version = version;
+    }
+
+    // increases by one with every published change
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // headwords held in the change tree instead of the base, including fully deleted ones
+    public int changedHeadwords() {
+        return changes.size();
+    }
+
+    // rows {word, definition} of one headword, copies, empty if unknown
+    public List<String[]> rows(String word) {
+        String[][] stored = stored(WordIndex.normalize(word));
+        if (stored.length == 0) {
+            return Collections.emptyList();
+        }
+        List<String[]> rows = new ArrayList<>(stored.length);
+        addCopies(rows, stored);
+        return rows;
+    }
+
+    // definitions of one headword in order
+    public List<String> definitions(String word) {
+        String[][] stored = stored(WordIndex.normalize(word));
+        List<String> definitions = new ArrayList<>(stored.length);
+        for (String[] row : stored) {
+            definitions.add(row[1]);
+        }
+        return definitions;
+    }
+
+    public boolean contains(String word) {
+        String key = WordIndex.normalize(word);
+        Changed changed = changes.get(key);
+        if (changed != null) {
+            return changed.rows.length > 0;
+        }
+        return base != null && base.find(key) >= 0;
+    }
+
+    // the order-th (1-based) row of a headword, null if out of range
+    public String[] row(String word, int order) {
+        List<String[]> rows = rows(word);
+        if (order < 1 || order > rows.size()) {
+            return null;
+        }
+        return rows.get(order - 1);
+    }
+
+    // up to limit headwords starting with prefix (case-folded), in sorted order, original spelling
+    public List<String> prefixSearch(String prefix, int limit) {
+        String from = WordIndex.normalize(prefix);
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        // merge the base range with the changed headwords, changed ones shadow the base
+        PrimitiveIterator.OfInt handles = base == null ? IntStream.empty().iterator() : base.sortedFrom(from);
+        Iterator<Map.Entry<String, Changed>> changed = changes.from(from);
+        int baseHandle = -1;
+        String baseKey = null;
+        String[][] changedRows = null;
+        String changedKey = null;
+        while (matches.size() < limit) {
+            while (baseKey == null && handles.hasNext()) {
+                int handle = handles.nextInt();
+                String key = base.key(handle);
+                if (!key.startsWith(from)) {
+                    handles = IntStream.empty().iterator();
+                } else if (changes.get(key) == null) {
+                    baseHandle = handle;
+                    baseKey = key;
+                }
+            }
+            while (changedKey == null && changed.hasNext()) {
+                Map.Entry<String, Changed> entry = changed.next();
+                if (!entry.getKey().startsWith(from)) {
+                    changed = Collections.emptyIterator();
+                } else if (entry.getValue().rows.length > 0) {
+                    changedRows = entry.getValue().rows;
+                    changedKey = entry.getKey();
+                }
+            }
+            if (baseKey == null && changedKey == null) {
+                break;
+            }
+            if (baseKey != null && (changedKey == null || WordSnapshot.compareKeys(baseKey, changedKey) < 0)) {
+                matches.add(base.word(baseHandle));
+                baseKey = null;
+            } else {
+                matches.add(changedRows[0][0]);
+                changedKey = null;
+            }
+        }
+        return matches;
+    }
+
+    // all rows grouped by headword (first appearance order), each headword's rows in order: words.csv, snapshots, replication
+    public List<String[]> allRows() {
+        List<String[]> all = new ArrayList<>(size);
+        if (base != null) {
+            for (PrimitiveIterator.OfInt handles = base.fileOrder(); handles.hasNext(); ) {
+                int handle = handles.nextInt();
+                Changed changed = changes.size() == 0 ? null : changes.get(base.key(handle));
+                if (changed == null) {
+                    all.addAll(base.rows(handle));
+                } else {
+                    addCopies(all, changed.rows);
+                }
+            }
+        }
+        // headwords new since the base, in the order they were first added
+        List<Changed> added = new ArrayList<>();
+        changes.forEach((key, changed) -> {
+            if (changed.rows.length > 0 && (base == null || base.find(key) < 0)) {
+                added.add(changed);
+            }
+        });
+        added.sort(Comparator.comparingLong(Changed::created));
+        for (Changed changed : added) {
+            addCopies(all, changed.rows);
+        }
+        return all;
+    }
+
+    private static void addCopies(List<String[]> all, String[][] rows) {
+        for (String[] row : rows) {
+            all.add(row.clone());
+        }
+    }
+
+    // every headword with at least one row, normalized
+    void forEachKey(Consumer<String> action) {
+        if (base != null) {
+            for (PrimitiveIterator.OfInt handles = base.sortedFrom(""); handles.hasNext(); ) {
+                String key = base.key(handles.nextInt());
+                if (changes.get(key) == null) {
+                    action.accept(key);
+                }
+            }
+        }
+        changes.forEach((key, changed) -> {
+            if (changed.rows.length > 0) {
+                action.accept(key);
+            }
+        });
+    }
+
+    // rows of a normalized key as stored, not to be modified
+    String[][] stored(String key) {
+        Changed changed = changes.get(key);
+        if (changed != null) {
+            return changed.rows;
+        }
+        String[][] rows = cache == null ? null : cache.get(key);
+        if (rows != null) {
+            return rows;
+        }
+        int handle = base == null ? -1 : base.find(key);
+        if (handle < 0) {
+            return NO_ROWS;
+        }
+        rows = base.rows(handle).toArray(new String[0][]);
+        if (cache != null) {
+            cache.put(key, rows);
+        }
+        return rows;
+    }
+
+    // the next version with the rows of one normalized key replaced
+    WordVersion with(String key, String[][] rows, int sizeChange) {
+        Changed old = changes.get(key);
+        long created = old == null ? version + 1 : old.created;
+        return new WordVersion(base, cache, changes.put(key, new Changed(rows, created)), size + sizeChange, version + 1);
+    }
+
+    // the next version over a new base that already holds every row of this one
+    WordVersion rebase(WordTable snapshot, HotWordCache snapshotCache) {
+        return new WordVersion(snapshot, snapshotCache, version + 1);
+    }
+
+    // hot headword cache of the base, null if there is none
+    public HotWordCache cache() {
+        return cache;
+    }
+
+    // approximate heap bytes of a packed in-memory base (a mapped snapshot is off-heap)
+    long baseFootprint() {
+        return base instanceof CompactStore store ? store.footprint() : 0;
+    }
+}
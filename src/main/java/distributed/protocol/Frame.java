@@ -0,0 +1,57 @@
+package distributed.protocol;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: Frame.java
+ * @Description: One length-prefixed request or reply frame of the binary protocol.
+ * @Date: Created at 14:05 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+public record Frame(int requestId, byte opcode, byte flags, byte[] payload) {
+
+    public static Frame of(int requestId, byte opcode, byte flags, List<String> values) {
+        return new Frame(requestId, opcode, flags, Protocol.encodeStrings(values));
+    }
+
+    public static Frame error(int requestId, byte opcode, String message) {
+        return new Frame(requestId, opcode, Protocol.FLAG_ERROR, Protocol.encodeStrings(message));
+    }
+
+    public boolean isError() {
+        return (flags & Protocol.FLAG_ERROR) != 0;
+    }
+
+    public List<String> strings() throws ProtocolException {
+        return Protocol.decodeStrings(payload);
+    }
+
+    // blocks until a whole frame is read, EOFException when the peer closed
+    public static Frame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < Protocol.HEADER_BYTES || length > Protocol.MAX_FRAME_BYTES) {
+            throw new ProtocolException("Bad frame length " + length);
+        }
+        int requestId = in.readInt();
+        byte opcode = in.readByte();
+        byte flags = in.readByte();
+        byte[] payload = new byte[length - Protocol.HEADER_BYTES];
+        in.readFully(payload);
+        return new Frame(requestId, opcode, flags, payload);
+    }
+
+    // the caller serializes writers on the stream and flushes
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(Protocol.HEADER_BYTES + payload.length);
+        out.writeInt(requestId);
+        out.writeByte(opcode);
+        out.writeByte(flags);
+        out.write(payload);
+    }
+}
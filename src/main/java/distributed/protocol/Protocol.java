@@ -0,0 +1,190 @@
+package distributed.protocol;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: Protocol.java
+ * @Description: Constants and payload helpers of the pipelined binary protocol.
+ * @Date: Created at 14:05 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.3
+ * @Wire:
+ * - Handshake: client sends MAGIC + VERSION, server answers MAGIC + accepted version
+ * - Frame: int length | int requestId | byte opcode | byte flags | payload (length counts from requestId)
+ * - Payload: int count, then per string int byteLength + UTF-8 bytes
+ * - Grouped payload (multi-get reply): int groups, then one string list per group
+ * - Replies carry the requestId of their request and may come back in any order
+ * - Pushes carry PUSH_ID: after OP_SUBSCRIBE the server sends OP_INVALIDATE frames on that connection
+ * - OP_REPLICATE turns the connection into a replication stream (see ReplicaFeed)
+ * - Sharded servers answer a headword they do not own with an error "MOVED <map version> <owner>" (see ShardedClient)
+ * - A legacy client starts with the writeUTF length of its operation, whose first byte is never MAGIC
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Protocol {
+
+    // first byte of the handshake, a legacy writeUTF length never starts with it
+    public static final int MAGIC = 0xDC;
+    public static final int VERSION = 1;
+
+    // frame header after the length field: requestId + opcode + flags
+    public static final int HEADER_BYTES = 4 + 1 + 1;
+    // refuse frames larger than this
+    public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    // opcodes, same operations as the legacy "local", "remote", "add", "delete", "update"
+    public static final byte OP_LOCAL = 1;
+    public static final byte OP_REMOTE = 2;
+    public static final byte OP_ADD = 3;
+    public static final byte OP_DELETE = 4;
+    public static final byte OP_UPDATE = 5;
+    // batch ops: N words in, one definition list per word out / word, meaning pairs in, one result per pair out
+    public static final byte OP_MULTI_GET = 6;
+    public static final byte OP_BULK_ADD = 7;
+    // prefix, optional limit in; matching headwords out
+    public static final byte OP_PREFIX = 8;
+    // nothing in; the server's metrics report out, one line per string
+    public static final byte OP_STATS = 9;
+    // nothing in, empty reply; from then on the connection gets OP_INVALIDATE pushes
+    public static final byte OP_SUBSCRIBE = 10;
+    // server push: case-folded headwords whose definitions changed, none = everything (a replica's new snapshot)
+    public static final byte OP_INVALIDATE = 11;
+    // replication: runId, next seq in; then OP_SNAPSHOT / OP_MUTATIONS pushes out, OP_ACK (applied seq) back
+    public static final byte OP_REPLICATE = 12;
+    public static final byte OP_SNAPSHOT = 13;
+    public static final byte OP_MUTATIONS = 14;
+    public static final byte OP_ACK = 15;
+    // sharding: nothing in; the shard map [version, node, ...] out (a server that is not sharded is a map of itself)
+    public static final byte OP_SHARD_MAP = 16;
+    // rebalance, both with the next map in: copy the headwords moving under it / switch to it
+    public static final byte OP_REBALANCE = 17;
+    public static final byte OP_COMMIT_MAP = 18;
+    // headwords handed over by their previous owner, one group per headword (see ShardMigration)
+    public static final byte OP_IMPORT = 19;
+
+    // request id of server pushes, clients number their requests from 1
+    public static final int PUSH_ID = 0;
+
+    // flags
+    public static final byte FLAG_NONE = 0;
+    // reply: the payload is a single error message
+    public static final byte FLAG_ERROR = 1;
+
+    private Protocol() {
+    }
+
+    public static String opName(byte opcode) {
+        return switch (opcode) {
+            case OP_LOCAL -> "local";
+            case OP_REMOTE -> "remote";
+            case OP_ADD -> "add";
+            case OP_DELETE -> "delete";
+            case OP_UPDATE -> "update";
+            case OP_MULTI_GET -> "mget";
+            case OP_BULK_ADD -> "bulkadd";
+            case OP_PREFIX -> "prefix";
+            case OP_STATS -> "stats";
+            case OP_SUBSCRIBE -> "subscribe";
+            case OP_INVALIDATE -> "invalidate";
+            case OP_REPLICATE -> "replicate";
+            case OP_SNAPSHOT -> "snapshot";
+            case OP_MUTATIONS -> "mutations";
+            case OP_ACK -> "ack";
+            case OP_SHARD_MAP -> "shardmap";
+            case OP_REBALANCE -> "rebalance";
+            case OP_COMMIT_MAP -> "commitmap";
+            case OP_IMPORT -> "import";
+            default -> "op" + opcode;
+        };
+    }
+
+    // encode a list of strings as a payload
+    public static byte[] encodeStrings(List<String> values) {
+        return ReplyEncoder.encodeStrings(values);
+    }
+
+    public static byte[] encodeStrings(String... values) {
+        return encodeStrings(List.of(values));
+    }
+
+    // encode one string list per group (multi-get reply)
+    public static byte[] encodeGroups(List<List<String>> groups) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + groups.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(groups.size());
+            for (List<String> group : groups) {
+                out.writeInt(group.size());
+                for (String value : group) {
+                    writeString(out, value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<List<String>> decodeGroups(byte[] payload) throws ProtocolException {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int count = readCount(buffer);
+        List<List<String>> groups = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int size = readCount(buffer);
+            List<String> group = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                group.add(readString(buffer));
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    // decode a payload written by encodeStrings
+    public static List<String> decodeStrings(byte[] payload) throws ProtocolException {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int count = readCount(buffer);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        return values;
+    }
+
+    public static int readCount(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < 4) {
+            throw new ProtocolException("Truncated payload");
+        }
+        int count = buffer.getInt();
+        // every element needs at least 4 bytes, so a larger count can only be garbage
+        if (count < 0 || count > buffer.remaining() / 4) {
+            throw new ProtocolException("Bad element count " + count);
+        }
+        return count;
+    }
+
+    public static String readString(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < 4) {
+            throw new ProtocolException("Truncated payload");
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new ProtocolException("Bad string length " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
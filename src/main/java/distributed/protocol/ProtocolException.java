@@ -0,0 +1,21 @@
+package distributed.protocol;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ProtocolException.java
+ * @Description: Malformed handshake, frame or payload on a binary protocol connection.
+ * @Date: Created at 14:05 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.1
+ */
+
+import java.io.IOException;
+
+public class ProtocolException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProtocolException(String message) {
+        super(message);
+    }
+}
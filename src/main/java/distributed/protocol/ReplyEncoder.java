@@ -0,0 +1,209 @@
+package distributed.protocol;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ReplyEncoder.java
+ * @Description: Writes reply strings straight into the output without building intermediate Strings.
+ * @Date: Created at 18:20 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.1
+ * @Functionality:
+ * - Legacy reply: byte-identical to writeUTF(String.valueOf(definitions)), one instance per connection
+ * - Binary payload: exact-size UTF-8 encoding into a single byte[]
+ * - Legacy multi-line reply (stats) cut to whole lines within the writeUTF limit
+ */
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.List;
+
+public class ReplyEncoder {
+
+    // most bytes writeUTF can send
+    private static final int MAX_UTF_BYTES = 65535;
+    // room kept for the note that replaces the lines left out
+    private static final int NOTE_BYTES = 96;
+
+    // per-connection scratch buffer for legacy replies, grows up to the writeUTF limit
+    private byte[] buffer = new byte[512];
+
+    // writeUTF("[d1, d2, ...]") without joining the list into a String first, then one write to the stream
+    public void writeDefinitions(DataOutputStream out, List<String> definitions) throws IOException {
+        int size = definitions.size();
+        long length = 2; // "[" and "]"
+        for (int i = 0; i < size; i++) {
+            length += modifiedUtf8Length(definitions.get(i));
+        }
+        if (size > 1) {
+            length += 2L * (size - 1); // ", "
+        }
+        if (length > MAX_UTF_BYTES) {
+            throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+        }
+        int total = (int) length + 2;
+        if (buffer.length < total) {
+            buffer = new byte[Math.max(total, buffer.length * 2)];
+        }
+        byte[] dst = buffer;
+        dst[0] = (byte) (length >>> 8);
+        dst[1] = (byte) length;
+        int offset = 2;
+        dst[offset++] = '[';
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                dst[offset++] = ',';
+                dst[offset++] = ' ';
+            }
+            offset = encodeModifiedUtf8(definitions.get(i), dst, offset);
+        }
+        dst[offset++] = ']';
+        out.write(dst, 0, offset);
+    }
+
+    /*
+     * writeUTF(lines joined by "\n") where the whole report fits, otherwise the leading lines that fit and a note
+     * on how many were left out: a long report (many gauges, long shard lists) never breaks the connection.
+     */
+    public void writeLines(DataOutputStream out, List<String> lines) throws IOException {
+        out.writeUTF(fitLines(lines));
+    }
+
+    // the lines joined by "\n", cut to whole lines so the modified UTF-8 stays within the writeUTF limit
+    public static String fitLines(List<String> lines) {
+        long length = Math.max(0, lines.size() - 1); // "\n" between lines
+        for (String line : lines) {
+            length += modifiedUtf8Length(line);
+        }
+        if (length <= MAX_UTF_BYTES) {
+            return String.join("\n", lines);
+        }
+        StringBuilder joined = new StringBuilder();
+        int kept = 0;
+        length = 0;
+        for (String line : lines) {
+            int lineLength = modifiedUtf8Length(line) + (kept > 0 ? 1 : 0);
+            if (length + lineLength > MAX_UTF_BYTES - NOTE_BYTES) {
+                break;
+            }
+            if (kept > 0) {
+                joined.append('\n');
+            }
+            joined.append(line);
+            length += lineLength;
+            kept++;
+        }
+        if (kept > 0) {
+            joined.append('\n');
+        }
+        return joined.append("... ").append(lines.size() - kept)
+                .append(" more lines, the binary protocol sends the whole report").toString();
+    }
+
+    // length of s in the modified UTF-8 used by writeUTF
+    private static int modifiedUtf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c <= 0x07FF) {
+                length += 2; // also NUL, written as 2 bytes
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int encodeModifiedUtf8(String s, byte[] dst, int offset) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                dst[offset++] = (byte) c;
+            } else if (c <= 0x07FF) {
+                dst[offset++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                dst[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                dst[offset++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                dst[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return offset;
+    }
+
+    // standard UTF-8 length, an unpaired surrogate counts as '?' like String.getBytes
+    public static int utf8Length(String s) {
+        int length = 0;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    // encode s as UTF-8 at offset, returns the offset after it
+    public static int encodeUtf8(String s, byte[] dst, int offset) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                dst[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[offset++] = (byte) (0xC0 | (c >> 6));
+                dst[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dst[offset++] = (byte) (0xF0 | (cp >> 18));
+                dst[offset++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                dst[offset++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                dst[offset++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dst[offset++] = '?';
+            } else {
+                dst[offset++] = (byte) (0xE0 | (c >> 12));
+                dst[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return offset;
+    }
+
+    // payload of Protocol.encodeStrings in one exact-size array
+    public static byte[] encodeStrings(List<String> values) {
+        int size = values.size();
+        int length = 4;
+        for (int i = 0; i < size; i++) {
+            length += 4 + utf8Length(values.get(i));
+        }
+        byte[] payload = new byte[length];
+        int offset = putInt(payload, 0, size);
+        for (int i = 0; i < size; i++) {
+            String value = values.get(i);
+            offset = putInt(payload, offset, utf8Length(value));
+            offset = encodeUtf8(value, payload, offset);
+        }
+        return payload;
+    }
+
+    private static int putInt(byte[] dst, int offset, int value) {
+        dst[offset] = (byte) (value >>> 24);
+        dst[offset + 1] = (byte) (value >>> 16);
+        dst[offset + 2] = (byte) (value >>> 8);
+        dst[offset + 3] = (byte) value;
+        return offset + 4;
+    }
+}
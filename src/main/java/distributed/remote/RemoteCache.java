@@ -0,0 +1,168 @@
+package distributed.remote;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: RemoteCache.java
+ * @Description: Bounded TTL/LRU cache with single-flight loading for remote lookups.
+ * @Date: Created at 16:02 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Size bound with least-recently-used eviction
+ * - TTL per entry, a shorter TTL for negative ("Unknown word") results
+ * - Concurrent misses for one key share a single upstream call
+ * - Failed loads are not cached
+ * - Hit / miss / coalesced / eviction / expiration counters
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class RemoteCache {
+
+    private record Entry(String value, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Function<String, CompletableFuture<String>> loader;
+    private final Predicate<String> negative;
+
+    // access-ordered, guarded by itself
+    private final LinkedHashMap<String, Entry> entries;
+    // key -> load in progress, joined by concurrent misses
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public RemoteCache(int maxEntries, long ttl, long negativeTtl, TimeUnit unit,
+                       Function<String, CompletableFuture<String>> loader, Predicate<String> negative) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.negativeTtlNanos = unit.toNanos(negativeTtl);
+        this.loader = loader;
+        this.negative = negative;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > RemoteCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // cached value, or the (possibly shared) load of it
+    public CompletableFuture<String> get(String key) {
+        String cached = cached(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return running;
+        }
+        // a load may have finished between the lookup and putIfAbsent
+        cached = cached(key);
+        if (cached != null) {
+            inFlight.remove(key, mine);
+            hits.increment();
+            mine.complete(cached);
+            return mine;
+        }
+
+        misses.increment();
+        CompletableFuture<String> load;
+        try {
+            load = loader.apply(key);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            if (error == null) {
+                put(key, value);
+                inFlight.remove(key, mine);
+                mine.complete(value);
+            } else {
+                inFlight.remove(key, mine);
+                mine.completeExceptionally(error);
+            }
+        });
+        return mine;
+    }
+
+    private String cached(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    private void put(String key, String value) {
+        long ttl = negative.test(value) ? negativeTtlNanos : ttlNanos;
+        if (ttl <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(value, System.nanoTime() + ttl));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // misses that joined a load already in flight instead of calling upstream
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteCache{size=" + size() + ", hits=" + hits() + ", misses=" + misses()
+                + ", coalesced=" + coalesced() + ", evictions=" + evictions() + ", expirations=" + expirations() + "}";
+    }
+}
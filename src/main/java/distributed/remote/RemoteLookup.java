@@ -0,0 +1,189 @@
+package distributed.remote;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: RemoteLookup.java
+ * @Description: Wikipedia summary API lookup used by "remote" requests.
+ * @Date: Created at 16:02 on 2026/10/17
+ * @ModifiedBy: Garvyn
+ * @Version: V1.2
+ * @Functionality:
+ * - Asynchronous requests on one shared HttpClient (pooled keep-alive connections)
+ * - Request timeout, and a cap on upstream requests in flight with a bounded wait queue
+ * - Configurable base URL so tests can point it at a local stub server
+ * - "Unknown word" answers are results (cacheable), network errors fail the future (not cached)
+ * - Queued lookups are started by one loop, a send that fails at once never recurses into the next one
+ */
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RemoteLookup {
+
+    public static final String DEFAULT_BASE_URL = "https://en.wikipedia.org/api/rest_v1/page/summary/";
+    private static final String UNKNOWN_PREFIX = "Unknown word -- ";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final int maxQueued;
+
+    // upstream requests started and not finished
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // lookups waiting for an in-flight slot
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // drain() calls not yet served: only the first caller loops, a nested or concurrent call adds one more pass
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    public RemoteLookup(HttpClient client, String baseUrl, Duration requestTimeout, int maxInFlight, int maxQueued) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+    }
+
+    // shared client: connections are kept alive and reused between lookups
+    public static HttpClient newClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    // This function is to lookup word online, never blocks the calling thread
+    public CompletableFuture<String> lookUpAsync(String cWord) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Runnable start = () -> send(cWord, result);
+        if (tryAcquire()) {
+            start.run();
+        } else if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            result.completeExceptionally(new IOException("Remote lookup busy, please try again later"));
+        } else {
+            waiting.add(start);
+            // a slot may have been freed before the task was queued
+            drain();
+        }
+        return result;
+    }
+
+    private void send(String cWord, CompletableFuture<String> result) {
+        // Wikipedia API to look up words
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + URLEncoder.encode(cWord, StandardCharsets.UTF_8)))
+                    .timeout(requestTimeout)
+                    .header("User-Agent", "Mozilla/5.0")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            release();
+            result.completeExceptionally(e);
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .whenComplete((response, error) -> {
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                        return;
+                    }
+                    try {
+                        result.complete(parse(cWord, response));
+                    } catch (IOException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+    }
+
+    // extract meanings, a missing page is a 404 without an extract
+    private static String parse(String cWord, HttpResponse<String> response) throws IOException {
+        if (response.statusCode() == 404) {
+            return unknown(cWord);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Remote lookup failed with HTTP " + response.statusCode());
+        }
+        JSONObject json = new JSONObject(response.body());
+        if (json.has("extract")) {
+            return json.getString("extract");
+        } else {
+            return unknown(cWord);
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /*
+     * Start queued lookups while slots are free. A send failing synchronously releases its slot and calls back
+     * in here from inside next.run(); that call only asks the running loop for one more pass, so the stack stays
+     * flat however many queued sends fail in a row.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            while (!waiting.isEmpty() && tryAcquire()) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    inFlight.decrementAndGet();
+                    // re-check, a task may have been queued after the poll
+                    continue;
+                }
+                queued.decrementAndGet();
+                next.run();
+            }
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    // lookups waiting for an in-flight slot
+    public int queued() {
+        return queued.get();
+    }
+
+    public static String unknown(String cWord) {
+        return UNKNOWN_PREFIX + cWord + ", we're working on it !!";
+    }
+
+    // negative answer, cached for a shorter time
+    public static boolean isUnknown(String result) {
+        return result.startsWith(UNKNOWN_PREFIX);
+    }
+}
@@ -0,0 +1,203 @@
+package distributed.replication;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ReplicaClient.java
+ * @Description: Replica side of log shipping: follows the primary's mutation stream into the local store.
+ * @Date: Created at 10:30 on 2026/10/21
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - One background thread: connect, OP_REPLICATE with the last runId / seq, then apply what arrives in order
+ * - Snapshot: rows are collected until the last chunk, then installed in one step
+ * - Mutations must follow the applied seq without a gap, anything else restarts the session
+ * - Reconnects after RETRY_MS and resumes from the applied seq; a new replica (or a new primary run) gets a snapshot
+ * - Lag: mutations behind the primary's last seq, and how long since the replica was last caught up
+ */
+
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.ProtocolException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReplicaClient implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final long RETRY_MS = 1000;
+    // no heartbeat for this long: the primary is gone, reconnect
+    private static final int READ_TIMEOUT_MS = (int) (ReplicaFeed.HEARTBEAT_MS * 10);
+
+    // the local store the stream is applied to, called on the replication thread only
+    public interface Store {
+        // replace everything with the primary's rows
+        void install(List<String[]> rows);
+
+        // apply one mutation log record
+        void apply(String[] record);
+    }
+
+    private final String host;
+    private final int port;
+    private final Store store;
+    private final Thread thread;
+    private volatile Socket socket;
+    private volatile boolean closed = false;
+
+    // replication state, written by the replication thread only
+    private volatile String runId = "";
+    private volatile long appliedSeq = 0;
+    private volatile long primarySeq = -1;
+    private volatile boolean connected = false;
+    private volatile long caughtUpAt = System.currentTimeMillis();
+    private volatile long snapshots = 0;
+
+    public ReplicaClient(String host, int port, Store store) {
+        this.host = host;
+        this.port = port;
+        this.store = store;
+        this.thread = new Thread(this::run, "replica-of-" + host + ":" + port);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                session();
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    System.out.println("Replication from " + host + ":" + port + " interrupted: " + e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(RETRY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void session() throws IOException {
+        try (Socket s = new Socket()) {
+            socket = s;
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(READ_TIMEOUT_MS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            out.writeByte(Protocol.MAGIC);
+            out.writeByte(Protocol.VERSION);
+            Frame.of(1, Protocol.OP_REPLICATE, Protocol.FLAG_NONE,
+                    List.of(runId, String.valueOf(appliedSeq + 1))).write(out);
+            out.flush();
+            if (in.readUnsignedByte() != Protocol.MAGIC || in.readUnsignedByte() < 1) {
+                throw new ProtocolException("Primary does not speak the binary protocol");
+            }
+            connected = true;
+            System.out.println("Replicating from " + host + ":" + port + " after seq " + appliedSeq);
+
+            List<String[]> snapshotRows = null;
+            while (!closed) {
+                Frame frame = Frame.read(in);
+                if (frame.isError()) {
+                    throw new ProtocolException(frame.strings().get(0));
+                }
+                List<List<String>> groups = Protocol.decodeGroups(frame.payload());
+                List<String> header = ReplicaFeed.header(frame, groups);
+                if (frame.opcode() == Protocol.OP_SNAPSHOT) {
+                    if (snapshotRows == null) {
+                        snapshotRows = new ArrayList<>();
+                    }
+                    for (List<String> row : groups.subList(1, groups.size())) {
+                        snapshotRows.add(new String[]{row.get(0), row.get(1)});
+                    }
+                    if (header.get(2).equals("last")) {
+                        store.install(snapshotRows);
+                        snapshotRows = null;
+                        snapshots++;
+                        runId = header.get(0);
+                        appliedSeq = Long.parseLong(header.get(1));
+                        primarySeq = Math.max(primarySeq, appliedSeq);
+                        System.out.println("Installed the primary's snapshot at seq " + appliedSeq);
+                        acknowledge(out);
+                    }
+                } else if (frame.opcode() == Protocol.OP_MUTATIONS) {
+                    if (!header.get(0).equals(runId)) {
+                        throw new ProtocolException("Mutations of another primary run");
+                    }
+                    for (List<String> group : groups.subList(1, groups.size())) {
+                        long seq = Long.parseLong(group.get(0));
+                        if (seq != appliedSeq + 1) {
+                            throw new ProtocolException("Expected seq " + (appliedSeq + 1) + ", got " + seq);
+                        }
+                        store.apply(group.subList(2, group.size()).toArray(new String[0]));
+                        appliedSeq = seq;
+                    }
+                    primarySeq = Long.parseLong(header.get(1));
+                    if (groups.size() > 1) {
+                        acknowledge(out);
+                    }
+                }
+                if (appliedSeq >= primarySeq) {
+                    caughtUpAt = System.currentTimeMillis();
+                }
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new ProtocolException("Bad replication frame: " + e.getMessage());
+        }
+    }
+
+    private void acknowledge(DataOutputStream out) throws IOException {
+        Frame.of(2, Protocol.OP_ACK, Protocol.FLAG_NONE, List.of(String.valueOf(appliedSeq))).write(out);
+        out.flush();
+    }
+
+    // ---- lag and state, for the replica's gauges ----
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long appliedSeq() {
+        return appliedSeq;
+    }
+
+    // mutations the primary has and this replica has not applied, -1 before the first contact
+    public long lagRecords() {
+        return primarySeq < 0 ? -1 : Math.max(0, primarySeq - appliedSeq);
+    }
+
+    // 0 while caught up and connected, else time since the replica last was (local clock, no skew)
+    public long lagMillis() {
+        return connected && primarySeq >= 0 && appliedSeq >= primarySeq ? 0 : System.currentTimeMillis() - caughtUpAt;
+    }
+
+    public long snapshots() {
+        return snapshots;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        thread.interrupt();
+        Socket s = socket;
+        if (s != null) {
+            s.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package distributed.replication;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ReplicaFeed.java
+ * @Description: Primary side of one replica connection: streams the mutation log, or a snapshot first.
+ * @Date: Created at 09:50 on 2026/10/21
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Wire (after the binary handshake and the replica's OP_REPLICATE [runId, next sequence number]):
+ * - OP_SNAPSHOT pushes: group 0 = [runId, seq, "more" | "last"], then one [word, definition] group per row
+ * - OP_MUTATIONS pushes: group 0 = [runId, last seq, primary time], then [seq, commit time, record...] groups;
+ *   sent as a heartbeat with no mutation after HEARTBEAT_MS of quiet
+ * - OP_ACK from the replica: [applied seq]
+ * - The replica starts over with a snapshot when its runId is not this run's or its next mutation is gone
+ */
+
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.ProtocolException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+public final class ReplicaFeed {
+
+    static final int BATCH = 512;
+    static final int SNAPSHOT_CHUNK = 1000;
+    static final long HEARTBEAT_MS = 1000;
+
+    private ReplicaFeed() {
+    }
+
+    /*
+     * Serve the replica that sent request on this connection until it goes away. snapshots captures a
+     * consistent Snapshot (no writer running); acks are read on a task of readers.
+     * Blocks in DataOutputStream.write (synchronized) while the replica does not read: call it on a platform
+     * thread, on a virtual thread that would pin the carrier.
+     */
+    public static void serve(ReplicationLog log, Frame request, DataInputStream in, DataOutputStream out,
+                             Supplier<ReplicationLog.Snapshot> snapshots, Executor readers) throws IOException {
+        List<String> args = request.strings();
+        String runId = args.isEmpty() ? "" : args.get(0);
+        long next;
+        try {
+            next = args.size() > 1 && runId.equals(log.runId()) ? Long.parseLong(args.get(1)) : 0;
+        } catch (NumberFormatException e) {
+            next = 0;
+        }
+        Object replica = new Object();
+        log.ack(replica, next - 1);
+        readers.execute(() -> readAcks(log, replica, in));
+        try {
+            while (true) {
+                List<ReplicationLog.Mutation> batch = next < 1 ? null : log.read(next, BATCH, HEARTBEAT_MS);
+                if (batch == null) {
+                    next = sendSnapshot(log, snapshots.get(), out) + 1;
+                    continue;
+                }
+                sendMutations(log, batch, out);
+                next += batch.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            log.remove(replica);
+        }
+    }
+
+    private static void readAcks(ReplicationLog log, Object replica, DataInputStream in) {
+        try {
+            while (true) {
+                Frame frame = Frame.read(in);
+                if (frame.opcode() == Protocol.OP_ACK) {
+                    List<String> seq = frame.strings();
+                    if (!seq.isEmpty()) {
+                        log.ack(replica, Long.parseLong(seq.get(0)));
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            // replica closed, the next heartbeat write fails
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Replica acknowledgement stream ended: " + e.getMessage());
+        } finally {
+            log.remove(replica);
+        }
+    }
+
+    // rows in chunks, the replica installs them once the last chunk is in; returns the snapshot's seq
+    private static long sendSnapshot(ReplicationLog log, ReplicationLog.Snapshot snapshot, DataOutputStream out)
+            throws IOException {
+        List<String[]> rows = snapshot.rows();
+        String seq = String.valueOf(snapshot.seq());
+        int from = 0;
+        do {
+            int to = Math.min(rows.size(), from + SNAPSHOT_CHUNK);
+            List<List<String>> groups = new ArrayList<>(to - from + 1);
+            groups.add(List.of(log.runId(), seq, to == rows.size() ? "last" : "more"));
+            for (String[] row : rows.subList(from, to)) {
+                groups.add(List.of(row[0], row[1]));
+            }
+            write(out, Protocol.OP_SNAPSHOT, groups);
+            from = to;
+        } while (from < rows.size());
+        System.out.println("Sent a snapshot of " + rows.size() + " definitions at seq " + seq + " to a replica");
+        return snapshot.seq();
+    }
+
+    private static void sendMutations(ReplicationLog log, List<ReplicationLog.Mutation> batch, DataOutputStream out)
+            throws IOException {
+        List<List<String>> groups = new ArrayList<>(batch.size() + 1);
+        groups.add(List.of(log.runId(), String.valueOf(log.lastSeq()), String.valueOf(System.currentTimeMillis())));
+        for (ReplicationLog.Mutation mutation : batch) {
+            List<String> group = new ArrayList<>(2 + mutation.record().length);
+            group.add(String.valueOf(mutation.seq()));
+            group.add(String.valueOf(mutation.commitMillis()));
+            group.addAll(List.of(mutation.record()));
+            groups.add(group);
+        }
+        write(out, Protocol.OP_MUTATIONS, groups);
+    }
+
+    // the feed is the only writer left on the connection
+    private static void write(DataOutputStream out, byte opcode, List<List<String>> groups) throws IOException {
+        new Frame(Protocol.PUSH_ID, opcode, Protocol.FLAG_NONE, Protocol.encodeGroups(groups)).write(out);
+        out.flush();
+    }
+
+    // group 0 of a push, checked by the replica
+    static List<String> header(Frame frame, List<List<String>> groups) throws ProtocolException {
+        if (groups.isEmpty() || groups.get(0).size() < 3) {
+            throw new ProtocolException("Replication frame without header, opcode " + frame.opcode());
+        }
+        return groups.get(0);
+    }
+}
@@ -0,0 +1,133 @@
+package distributed.replication;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ReplicationLog.java
+ * @Description: The primary's ordered mutation stream, kept in memory for replicas to read.
+ * @Date: Created at 09:20 on 2026/10/21
+ * @ModifiedBy: Garvyn
+ * @Version: V1.1
+ * @Functionality:
+ * - Every applied add / update / delete gets the next sequence number, in the order it reached the index
+ *   (appended under the headword's write lock, so changes of one word are always in order)
+ * - Ring of the last `capacity` mutations; a replica asking for an older one gets a snapshot instead
+ * - runId changes with every start, so a replica of an earlier run is never fed sequence numbers it did not see,
+ *   and with resync() when the store was replaced outside the log (a shard handed headwords to another node)
+ * - Acknowledged sequence number per replica, for the lag gauges of the primary
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ReplicationLog {
+
+    // one mutation: a mutation log record (A,word,definition | U,word,order,definition | D,word,order)
+    public record Mutation(long seq, long commitMillis, String[] record) {
+    }
+
+    // every row of one index version and the last sequence number it contains
+    public record Snapshot(long seq, List<String[]> rows) {
+    }
+
+    private volatile String runId = UUID.randomUUID().toString();
+    private final Mutation[] backlog;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long lastSeq = 0; // guarded by lock
+    // replica connection -> last sequence number it applied
+    private final Map<Object, Long> acked = new ConcurrentHashMap<>();
+
+    public ReplicationLog(int capacity) {
+        this.backlog = new Mutation[Math.max(1, capacity)];
+    }
+
+    public String runId() {
+        return runId;
+    }
+
+    // the store changed without mutation records: connected replicas see a new run and start over from a snapshot
+    public void resync() {
+        runId = UUID.randomUUID().toString();
+    }
+
+    // append one record, returns its sequence number; the caller holds the write lock of its headword
+    public long append(String... record) {
+        lock.lock();
+        try {
+            long seq = ++lastSeq;
+            backlog[(int) (seq % backlog.length)] = new Mutation(seq, System.currentTimeMillis(), record);
+            appended.signalAll();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSeq() {
+        lock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Mutations from sequence number next on, at most max. Waits up to waitMs while there is none yet
+     * (an empty list then), null if next already fell out of the backlog.
+     */
+    public List<Mutation> read(long next, int max, long waitMs) throws InterruptedException {
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+            while (lastSeq < next) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return List.of();
+                }
+                appended.awaitNanos(left);
+            }
+            if (next <= lastSeq - backlog.length) {
+                return null;
+            }
+            int count = (int) Math.min(max, lastSeq - next + 1);
+            List<Mutation> batch = new ArrayList<>(count);
+            for (long seq = next; seq < next + count; seq++) {
+                batch.add(backlog[(int) (seq % backlog.length)]);
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- replicas, for the primary's gauges ----
+
+    public void ack(Object replica, long seq) {
+        acked.put(replica, seq);
+    }
+
+    public void remove(Object replica) {
+        acked.remove(replica);
+    }
+
+    public int replicas() {
+        return acked.size();
+    }
+
+    // mutations the slowest connected replica has not applied yet, 0 without replicas
+    public long maxLagRecords() {
+        long last = lastSeq();
+        long lag = 0;
+        for (long seq : acked.values()) {
+            lag = Math.max(lag, last - seq);
+        }
+        return lag;
+    }
+}
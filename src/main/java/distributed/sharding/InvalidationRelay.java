@@ -0,0 +1,119 @@
+package distributed.sharding;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: InvalidationRelay.java
+ * @Description: Passes the invalidation pushes of the other shards on to the subscribers of this one.
+ * @Date: Created at 11:20 on 2026/10/22
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - A client near cache subscribes to one server but caches headwords of every shard (legacy requests are
+ *   forwarded), so that server subscribes to every other node of the map and relays what they push
+ * - Peers are subscribed with scope "own": a relay never gets another relay's pushes, so nothing circles
+ * - A peer that can not be reached or goes away may have missed changes: the subscribers get an empty push
+ *   (drop everything) and follow() tries the peer again on its next call
+ */
+
+import distributed.client.DictionaryConnection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class InvalidationRelay implements Closeable {
+
+    private static final long SUBSCRIBE_TIMEOUT_MS = 5000;
+
+    private final String self;
+    // pushes to this server's own subscribers
+    private final Consumer<List<String>> subscribers;
+    // peer node -> subscribed connection
+    private final Map<String, DictionaryConnection> peers = new ConcurrentHashMap<>();
+    // one follow() at a time; not a monitor, it connects and a virtual thread would pin its carrier
+    private final ReentrantLock following = new ReentrantLock();
+
+    public InvalidationRelay(String self, Consumer<List<String>> subscribers) {
+        this.self = self;
+        this.subscribers = subscribers;
+    }
+
+    // be subscribed to every other node of map, and to no node outside it
+    public void follow(ShardMap map) {
+        following.lock();
+        try {
+            followLocked(map);
+        } finally {
+            following.unlock();
+        }
+    }
+
+    private void followLocked(ShardMap map) {
+        for (Map.Entry<String, DictionaryConnection> peer : peers.entrySet()) {
+            if (!map.nodes().contains(peer.getKey())) {
+                peers.remove(peer.getKey());
+                closeQuietly(peer.getValue());
+            }
+        }
+        for (String node : map.nodes()) {
+            DictionaryConnection peer = peers.get(node);
+            if (node.equals(self) || (peer != null && peer.isOpen())) {
+                continue;
+            }
+            DictionaryConnection connection = null;
+            try {
+                connection = ShardedClient.open(node);
+                connection.subscribe(subscribers, "own").get(SUBSCRIBE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                DictionaryConnection subscribed = connection;
+                peers.put(node, subscribed);
+                subscribed.onClose(() -> lost(node, subscribed));
+                connection = null;
+            } catch (IOException | ExecutionException | TimeoutException e) {
+                System.out.println("Not relaying invalidations of " + node + ": " + e.getMessage());
+                subscribers.accept(List.of());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                if (connection != null) {
+                    closeQuietly(connection);
+                }
+            }
+        }
+    }
+
+    private void lost(String node, DictionaryConnection connection) {
+        if (peers.remove(node, connection)) {
+            subscribers.accept(List.of());
+        }
+    }
+
+    public int peers() {
+        return peers.size();
+    }
+
+    private static void closeQuietly(DictionaryConnection connection) {
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    @Override
+    public void close() {
+        for (String node : peers.keySet()) {
+            DictionaryConnection connection = peers.remove(node);
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
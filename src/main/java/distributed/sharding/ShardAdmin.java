@@ -0,0 +1,139 @@
+package distributed.sharding;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ShardAdmin.java
+ * @Description: Command line tool of a sharded deployment: show the map, load a dictionary, add a node online.
+ * @Date: Created at 13:10 on 2026/10/22
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - map <node>: the shard map in use at node
+ * - load <words.csv> <node>: every row to the shard owning its headword, in bulk batches
+ * - add <new node> <node>: online rebalance, the new node must already run with the current node list
+ *   1. OP_REBALANCE on every current node: from then on changes of moving headwords are copied to the new node,
+ *      then all of them are copied once; any failure cancels the rebalance everywhere, nothing switched yet
+ *   2. OP_COMMIT_MAP on every current node, then on the new node. A headword moving to the new node is refused
+ *      by both for the moments in between, clients retry; it is never served by two nodes at once.
+ *      Run again after a node missed its switch, the add only finishes the switch
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.models.CsvLoader;
+import distributed.protocol.Protocol;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShardAdmin {
+
+    private static final int LOAD_BATCH = 1000;
+
+    public static void main(String[] args) {
+        String command = args.length == 0 ? "" : args[0];
+        int expected = switch (command) {
+            case "map" -> 2;
+            case "load", "add" -> 3;
+            default -> -1;
+        };
+        if (args.length != expected) {
+            System.out.println("Usage: ShardAdmin map <host:port>");
+            System.out.println("       ShardAdmin load <words.csv> <host:port>");
+            System.out.println("       ShardAdmin add <new host:port> <host:port>");
+            System.exit(2);
+        }
+        try {
+            switch (command) {
+                case "map" -> System.out.println(fetchMap(args[1]));
+                case "load" -> load(Path.of(args[1]), args[2]);
+                default -> {
+                    if (!add(args[1], args[2])) {
+                        System.exit(1);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Failed: " + e);
+            System.exit(1);
+        }
+    }
+
+    private static ShardMap fetchMap(String node) throws IOException {
+        try (DictionaryConnection connection = ShardedClient.open(node)) {
+            return ShardedClient.fetchMap(connection);
+        }
+    }
+
+    private static void load(Path csv, String node) throws IOException {
+        List<String[]> rows = CsvLoader.readAll(csv, Runtime.getRuntime().availableProcessors(),
+                CsvLoader.DEFAULT_CHUNK_BYTES);
+        long start = System.nanoTime();
+        int failed = 0;
+        try (ShardedClient client = ShardedClient.connect(node)) {
+            for (int from = 0; from < rows.size(); from += LOAD_BATCH) {
+                List<String[]> batch = new ArrayList<>();
+                for (String[] row : rows.subList(from, Math.min(rows.size(), from + LOAD_BATCH))) {
+                    if (row.length >= 2) {
+                        batch.add(row);
+                    }
+                }
+                for (String result : client.bulkAdd(batch)) {
+                    if (!result.equals("Word added successfully.")) {
+                        failed++;
+                    }
+                }
+            }
+            System.out.println("Loaded " + rows.size() + " rows over " + client.map().nodes().size() + " shards in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms, " + failed + " not added");
+        }
+    }
+
+    // the steps of an online node addition, true once every node switched; run again it finishes the switch
+    private static boolean add(String newNode, String node) throws IOException {
+        ShardMap current = fetchMap(node);
+        boolean resumed = current.nodes().contains(newNode);
+        ShardMap next = resumed ? current : current.with(newNode);
+        if (resumed) {
+            System.out.println(newNode + " is in map " + current + " already, finishing the switch");
+        } else {
+            if (fetchMap(newNode).version() < 1) {
+                System.out.println(newNode + " is not sharded, start it with -Ddictionary.shards="
+                        + String.join(",", current.nodes()));
+                return false;
+            }
+            System.out.println("Rebalancing " + current + " -> " + next);
+            for (String old : current.nodes()) {
+                String reply = call(old, Protocol.OP_REBALANCE, next);
+                System.out.println("  copy   " + old + ": " + reply);
+                if (reply.startsWith("Server ")) {
+                    for (String copying : current.nodes()) {
+                        System.out.println("  cancel " + copying + ": " + call(copying, Protocol.OP_REBALANCE, current));
+                    }
+                    return false;
+                }
+            }
+        }
+        // the new node is the last of next's nodes, it switches after every node that hands headwords over
+        boolean switched = true;
+        for (String member : next.nodes()) {
+            String reply = call(member, Protocol.OP_COMMIT_MAP, next);
+            System.out.println("  switch " + member + ": " + reply);
+            switched &= !reply.startsWith("Server ");
+        }
+        System.out.println(switched ? "Shard map " + next + " in use"
+                : "Not every node switched, run the add again once the failed node is back");
+        return switched;
+    }
+
+    // one rebalance step at node, its reply or error message
+    private static String call(String node, byte opcode, ShardMap map) {
+        try (DictionaryConnection connection = ShardedClient.open(node)) {
+            List<String> reply = connection.call(opcode, map.encode().toArray(new String[0]));
+            return reply.isEmpty() ? "" : reply.get(0);
+        } catch (IOException e) {
+            return "Server unreachable: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package distributed.sharding;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ShardMap.java
+ * @Description: Versioned consistent-hash ring of dictionary server nodes, shared by servers and clients.
+ * @Date: Created at 09:10 on 2026/10/22
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - Nodes are "host:port" strings, each placed VIRTUAL_NODES times on a 64-bit ring
+ * - ownerOf(word): first ring point at or after the hash of the case-folded headword, so every spelling of a
+ *   headword lands on the same node
+ * - Adding a node only moves the keys the new node takes over, every other key stays where it was
+ * - Immutable; a changed node list is a new map with a higher version, the higher version always wins
+ * - Wire form: [version, node, node, ...] (OP_SHARD_MAP and the shard map file)
+ */
+
+import distributed.protocol.ProtocolException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public final class ShardMap {
+
+    static final int VIRTUAL_NODES = 128;
+
+    private final long version;
+    private final List<String> nodes;
+    // sorted ring points and the node index of each
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardMap(long version, List<String> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A shard map needs at least one node");
+        }
+        this.version = version;
+        this.nodes = List.copyOf(nodes);
+        long[][] ring = new long[nodes.size() * VIRTUAL_NODES][];
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                ring[n * VIRTUAL_NODES + v] = new long[]{hash(nodes.get(n) + "#" + v), n};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[ring.length];
+        this.owners = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    // "host:port,host:port" as given on the command line
+    public static ShardMap parse(long version, String nodeList) {
+        List<String> nodes = new ArrayList<>();
+        for (String node : nodeList.split(",")) {
+            if (!node.isBlank() && !nodes.contains(node.trim())) {
+                nodes.add(node.trim());
+            }
+        }
+        return new ShardMap(version, nodes);
+    }
+
+    public static ShardMap decode(List<String> values) throws ProtocolException {
+        try {
+            return new ShardMap(Long.parseLong(values.get(0)), values.subList(1, values.size()));
+        } catch (RuntimeException e) {
+            throw new ProtocolException("Bad shard map " + values);
+        }
+    }
+
+    public List<String> encode() {
+        List<String> values = new ArrayList<>(nodes.size() + 1);
+        values.add(String.valueOf(version));
+        values.addAll(nodes);
+        return values;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    // the same map with node added, one version later
+    public ShardMap with(String node) {
+        if (nodes.contains(node)) {
+            throw new IllegalArgumentException(node + " is already in the shard map");
+        }
+        List<String> added = new ArrayList<>(nodes);
+        added.add(node);
+        return new ShardMap(version + 1, added);
+    }
+
+    public String ownerOf(String word) {
+        long hash = hash(word.toLowerCase(Locale.ROOT)); // same folding as the server's WordIndex
+        int i = Arrays.binarySearch(points, hash);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return nodes.get(owners[i == points.length ? 0 : i]);
+    }
+
+    public boolean owns(String node, String word) {
+        return ownerOf(word).equals(node);
+    }
+
+    // FNV-1a over the UTF-8 bytes, then a 64-bit finalizer so close strings spread over the whole ring
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec5L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "v" + version + " " + String.join(",", nodes);
+    }
+}
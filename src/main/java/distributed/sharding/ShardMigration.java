@@ -0,0 +1,138 @@
+package distributed.sharding;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ShardMigration.java
+ * @Description: One node's part of a rebalance: copies the headwords that move under the next shard map to their new owners.
+ * @Date: Created at 10:30 on 2026/10/22
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Wire (OP_IMPORT to the new owner):
+ * - One group per headword: [headword, spelling, definition, spelling, definition, ...]
+ * - The owner replaces every row of the headword with these, no pair at all removes the headword
+ * - Replied with the number of headwords taken, or an error; a failed copy marks the whole migration failed
+ * @Functionality:
+ * - Connections to the new owners stay open for the whole migration (bulk copy, then every later change)
+ * - The caller holds the write locks of the headwords it copies, so a later copy of a headword can never
+ *   be overtaken by an earlier one and the new owner always ends with the latest rows
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+public class ShardMigration implements Closeable {
+
+    private final String self;
+    private final ShardMap next;
+    // new owner -> connection
+    private final Map<String, DictionaryConnection> targets = new ConcurrentHashMap<>();
+    private final ReentrantLock opening = new ReentrantLock();
+    private final AtomicLong copied = new AtomicLong();
+    private volatile String failure;
+
+    public ShardMigration(String self, ShardMap next) {
+        this.self = self;
+        this.next = next;
+    }
+
+    public ShardMap next() {
+        return next;
+    }
+
+    // word belongs to another node under the next map
+    public boolean moves(String word) {
+        return !next.owns(self, word);
+    }
+
+    // headword copies acknowledged so far
+    public long copied() {
+        return copied.get();
+    }
+
+    // why the migration can not be committed, null while every copy went through
+    public String failure() {
+        return failure;
+    }
+
+    /*
+     * Send the current rows of the moving headwords among words to their new owners and wait for them to be
+     * stored. rows gives every row of a headword; the caller holds the headwords' write locks.
+     */
+    public void copy(Collection<String> words, Function<String, List<String[]>> rows) throws IOException {
+        Map<String, List<List<String>>> byOwner = new LinkedHashMap<>();
+        for (String word : words) {
+            if (!moves(word)) {
+                continue;
+            }
+            List<String[]> current = rows.apply(word);
+            List<String> group = new ArrayList<>(1 + current.size() * 2);
+            group.add(word);
+            for (String[] row : current) {
+                group.add(row[0]);
+                group.add(row[1]);
+            }
+            byOwner.computeIfAbsent(next.ownerOf(word), node -> new ArrayList<>()).add(group);
+        }
+        try {
+            List<CompletableFuture<Frame>> replies = new ArrayList<>(byOwner.size());
+            for (Map.Entry<String, List<List<String>>> owner : byOwner.entrySet()) {
+                replies.add(target(owner.getKey())
+                        .send(Protocol.OP_IMPORT, Protocol.FLAG_NONE, Protocol.encodeGroups(owner.getValue())));
+            }
+            for (CompletableFuture<Frame> reply : replies) {
+                Frame frame = reply.join();
+                if (frame.isError()) {
+                    throw new IOException(frame.strings().get(0));
+                }
+                copied.addAndGet(Long.parseLong(frame.strings().get(0)));
+            }
+        } catch (IOException | CompletionException | NumberFormatException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            failure = "Copy to the new owner failed: " + cause.getMessage();
+            throw new IOException(failure, cause);
+        }
+    }
+
+    private DictionaryConnection target(String node) throws IOException {
+        DictionaryConnection connection = targets.get(node);
+        if (connection == null || !connection.isOpen()) {
+            opening.lock();
+            try {
+                connection = targets.get(node);
+                if (connection == null || !connection.isOpen()) {
+                    connection = ShardedClient.open(node);
+                    targets.put(node, connection);
+                }
+            } finally {
+                opening.unlock();
+            }
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        for (DictionaryConnection connection : targets.values()) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+    }
+}
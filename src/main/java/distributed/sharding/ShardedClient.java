@@ -0,0 +1,317 @@
+package distributed.sharding;
+
+/**
+ * @Author: Garvyn-Yuan
+ * @FileName: ShardedClient.java
+ * @Description: Binary client of a sharded deployment, sends every operation straight to the shard owning its headword.
+ * @Date: Created at 09:40 on 2026/10/22
+ * @ModifiedBy: Garvyn
+ * @Version: V1.0
+ * @Functionality:
+ * - The shard map comes from any node (OP_SHARD_MAP), one pipelined DictionaryConnection per node
+ * - A node that does not own a headword answers "MOVED <map version> <owner>": a newer map is fetched from that
+ *   node, an older one means the node has not switched yet, so the request is retried after RETRY_MS
+ * - Batches (multi-get, bulk add) are split per shard and sent in parallel, results come back in request order
+ * - Prefix search asks every shard and merges their sorted headwords
+ * - Also used by sharded servers to forward legacy requests for headwords they do not own
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.ProtocolException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ShardedClient implements Closeable {
+
+    public static final String MOVED = "MOVED ";
+    // a node switching to a new map takes moments, a few retries cover it
+    static final int MAX_ATTEMPTS = 20;
+    static final long RETRY_MS = 50;
+
+    private volatile ShardMap map;
+    // node -> its connection, reopened after a failure
+    private final Map<String, DictionaryConnection> connections = new ConcurrentHashMap<>();
+    // held while a connection opens; not a monitor, a virtual thread blocked in connect would pin its carrier
+    private final ReentrantLock opening = new ReentrantLock();
+
+    public ShardedClient(ShardMap map) {
+        this.map = map;
+    }
+
+    // the shard map of the first seed node that answers
+    public static ShardedClient connect(String... seeds) throws IOException {
+        IOException failure = new IOException("No seed node given");
+        for (String seed : seeds) {
+            try (DictionaryConnection connection = open(seed)) {
+                return new ShardedClient(fetchMap(connection));
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    // reply of a node asked about a headword it does not own
+    public static String moved(ShardMap map, String word) {
+        return MOVED + map.version() + " " + map.ownerOf(word);
+    }
+
+    public static boolean isMoved(String reply) {
+        return reply.startsWith(MOVED);
+    }
+
+    public ShardMap map() {
+        return map;
+    }
+
+    // switch to map if it is newer than the one in use
+    public synchronized void offer(ShardMap newer) {
+        if (newer.version() > map.version()) {
+            map = newer;
+        }
+    }
+
+    public static ShardMap fetchMap(DictionaryConnection connection) throws IOException {
+        List<String> values = connection.call(Protocol.OP_SHARD_MAP);
+        return ShardMap.decode(values);
+    }
+
+    static DictionaryConnection open(String node) throws IOException {
+        int colon = node.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IOException("Node " + node + " is not host:port");
+        }
+        try {
+            return DictionaryConnection.open(node.substring(0, colon), Integer.parseInt(node.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IOException("Node " + node + " is not host:port");
+        }
+    }
+
+    private DictionaryConnection connection(String node) throws IOException {
+        DictionaryConnection connection = connections.get(node);
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        opening.lock();
+        try {
+            connection = connections.get(node);
+            if (connection == null || !connection.isOpen()) {
+                connection = open(node);
+                connections.put(node, connection);
+            }
+            return connection;
+        } finally {
+            opening.unlock();
+        }
+    }
+
+    private Frame await(CompletableFuture<Frame> reply) throws IOException {
+        try {
+            return reply.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * One single-headword operation (OP_LOCAL, OP_ADD, OP_UPDATE, OP_DELETE) at the owner of word:
+     * the reply strings, an error reply holds one message.
+     */
+    public List<String> call(byte opcode, String word, String... rest) throws IOException {
+        List<String> args = new ArrayList<>(1 + rest.length);
+        args.add(word);
+        args.addAll(List.of(rest));
+        byte[] payload = Protocol.encodeStrings(args);
+        for (int attempt = 1; ; attempt++) {
+            ShardMap used = map;
+            String owner = used.ownerOf(word);
+            Frame reply = await(connection(owner).send(opcode, Protocol.FLAG_NONE, payload));
+            List<String> values = reply.strings();
+            if (!reply.isError() || values.isEmpty() || !isMoved(values.get(0))) {
+                return values;
+            }
+            if (attempt == MAX_ATTEMPTS) {
+                throw new IOException("Shard map did not settle for " + word + ": " + values.get(0));
+            }
+            settle(owner, used, values.get(0));
+        }
+    }
+
+    // after a MOVED reply from node: take its newer map, or give it a moment to switch to ours
+    private void settle(String node, ShardMap used, String moved) throws IOException {
+        long version;
+        try {
+            version = Long.parseLong(moved.substring(MOVED.length()).split(" ")[0]);
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Bad reply " + moved);
+        }
+        if (version > used.version()) {
+            offer(fetchMap(connection(node)));
+            return;
+        }
+        try {
+            Thread.sleep(RETRY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while the shard map changes");
+        }
+    }
+
+    public List<String> lookUp(String word) throws IOException {
+        return call(Protocol.OP_LOCAL, word);
+    }
+
+    public String add(String word, String meaning) throws IOException {
+        return first(call(Protocol.OP_ADD, word, meaning));
+    }
+
+    public String update(String word, String meaning) throws IOException {
+        return first(call(Protocol.OP_UPDATE, word, meaning));
+    }
+
+    public String delete(String word, String order) throws IOException {
+        return first(call(Protocol.OP_DELETE, word, order));
+    }
+
+    private static String first(List<String> values) {
+        return values.isEmpty() ? "" : values.get(0);
+    }
+
+    // definitions of every word, one round trip per shard in parallel, same order as the words
+    public List<List<String>> multiGet(List<String> words) throws IOException {
+        Map<String, List<Integer>> byOwner = partition(words);
+        Map<String, CompletableFuture<List<List<String>>>> replies = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> shard : byOwner.entrySet()) {
+            List<String> part = new ArrayList<>(shard.getValue().size());
+            for (int i : shard.getValue()) {
+                part.add(words.get(i));
+            }
+            replies.put(shard.getKey(), connection(shard.getKey()).multiGet(part));
+        }
+        List<List<String>> results = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            results.add(null);
+        }
+        for (Map.Entry<String, List<Integer>> shard : byOwner.entrySet()) {
+            List<List<String>> part = join(replies.get(shard.getKey()));
+            List<Integer> positions = shard.getValue();
+            for (int j = 0; j < positions.size(); j++) {
+                List<String> definitions = part.get(j);
+                int i = positions.get(j);
+                // the map changed under the batch, this word goes the single-word way
+                boolean moved = definitions.size() == 1 && isMoved(definitions.get(0));
+                results.set(i, moved ? lookUp(words.get(i)) : definitions);
+            }
+        }
+        return results;
+    }
+
+    // add {word, meaning} rows, one batch per shard in parallel, one result per row
+    public List<String> bulkAdd(List<String[]> rows) throws IOException {
+        List<String> words = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            words.add(row[0]);
+        }
+        Map<String, List<Integer>> byOwner = partition(words);
+        Map<String, CompletableFuture<List<String>>> replies = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> shard : byOwner.entrySet()) {
+            List<String[]> part = new ArrayList<>(shard.getValue().size());
+            for (int i : shard.getValue()) {
+                part.add(rows.get(i));
+            }
+            replies.put(shard.getKey(), connection(shard.getKey()).bulkAdd(part));
+        }
+        List<String> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            results.add(null);
+        }
+        for (Map.Entry<String, List<Integer>> shard : byOwner.entrySet()) {
+            List<String> part = join(replies.get(shard.getKey()));
+            List<Integer> positions = shard.getValue();
+            for (int j = 0; j < positions.size(); j++) {
+                int i = positions.get(j);
+                // a refused batch is one error message, a moved row is sent again on its own
+                String result = j < part.size() ? part.get(j) : first(part);
+                results.set(i, isMoved(result) ? add(rows.get(i)[0], rows.get(i)[1]) : result);
+            }
+        }
+        return results;
+    }
+
+    // headwords starting with prefix from every shard, merged in the servers' case-folded order
+    public List<String> prefix(String prefix, int limit) throws IOException {
+        List<CompletableFuture<Frame>> replies = new ArrayList<>();
+        byte[] payload = Protocol.encodeStrings(prefix, String.valueOf(limit));
+        for (String node : map.nodes()) {
+            replies.add(connection(node).send(Protocol.OP_PREFIX, Protocol.FLAG_NONE, payload));
+        }
+        List<String> merged = new ArrayList<>();
+        for (CompletableFuture<Frame> reply : replies) {
+            Frame frame = await(reply);
+            if (frame.isError()) {
+                return frame.strings();
+            }
+            merged.addAll(frame.strings());
+        }
+        merged.sort(Comparator.comparing(word -> word.toLowerCase(Locale.ROOT)));
+        LinkedHashSet<String> distinct = new LinkedHashSet<>();
+        for (String word : merged) {
+            if (distinct.size() == limit) {
+                break;
+            }
+            distinct.add(word);
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // positions of words, grouped by owning node
+    private Map<String, List<Integer>> partition(List<String> words) {
+        ShardMap used = map;
+        Map<String, List<Integer>> byOwner = new LinkedHashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            byOwner.computeIfAbsent(used.ownerOf(words.get(i)), node -> new ArrayList<>()).add(i);
+        }
+        return byOwner;
+    }
+
+    private static <T> T join(CompletableFuture<T> reply) throws IOException {
+        try {
+            return reply.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        for (DictionaryConnection connection : connections.values()) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+        connections.clear();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: BatchFrameTest.java
+ * @Description: OP_MULTI_GET and OP_BULK_ADD frames against a server over a temporary words.csv.
+ * @Date: Created at 13:30 on 2026/10/24
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Multi-get: one definition list per word, in the order of the words, misses and invalid words included
+ * - Bulk add: one result per pair in the order of the pairs, invalid pairs refused while the others are added
+ * - Bulk add that cannot be saved: every valid pair gets the save failure, none of them becomes visible
+ * - A frame with an odd number of strings is an error frame, not a result list
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.models.LocalWords;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class BatchFrameTest extends TestCase {
+
+    private static final String UNSUPPORTED = "Language unsupported or More than one word";
+    private static final String ADDED = "Word added successfully.";
+
+    private Path directory;
+    private ServerProcess server;
+    private DictionaryConnection connection;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("batch-frames");
+        Files.writeString(directory.resolve("words.csv"), "apple,fruit\npear,fruit\napple,company\n");
+        server = ServerProcess.start(directory, "dictionary.persistence=log");
+        connection = DictionaryConnection.open("127.0.0.1", server.port());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        connection.close();
+        server.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private List<List<String>> multiGet(String... words) throws Exception {
+        return connection.multiGet(List.of(words)).get(10, TimeUnit.SECONDS);
+    }
+
+    private List<String> bulkAdd(String[]... rows) throws Exception {
+        return connection.bulkAdd(List.of(rows)).get(10, TimeUnit.SECONDS);
+    }
+
+    public void testMultiGetRepliesInWordOrder() throws Exception {
+        List<List<String>> groups = multiGet("pear", "apple", "durian", "two words", "APPLE");
+        assertEquals(5, groups.size());
+        assertEquals(List.of("fruit"), groups.get(0));
+        assertEquals(List.of("fruit", "company"), groups.get(1));
+        assertEquals("No definitions, You can add one !", groups.get(2).get(0));
+        assertEquals(List.of(UNSUPPORTED), groups.get(3));
+        assertEquals(groups.get(1), groups.get(4));
+    }
+
+    public void testBulkAddResultPerPairWithPartialFailure() throws Exception {
+        List<String> results = bulkAdd(new String[]{"plum", "fruit"}, new String[]{"two words", "refused"},
+                new String[]{"kiwi", ""}, new String[]{"apple", "tree"}, new String[]{"fig", "fruit"});
+        assertEquals(List.of(ADDED, UNSUPPORTED, "Empty meaning is not allowed", ADDED, ADDED), results);
+
+        List<List<String>> groups = multiGet("plum", "kiwi", "apple", "fig");
+        assertEquals(List.of("fruit"), groups.get(0));
+        assertEquals("No definitions, You can add one !", groups.get(1).get(0));
+        assertEquals(List.of("fruit", "company", "tree"), groups.get(2));
+        assertEquals(List.of("fruit"), groups.get(3));
+    }
+
+    public void testBulkAddThatCannotBeSavedChangesNothing() throws Exception {
+        // the log cannot be appended to while a directory takes its name
+        Path log = directory.resolve("words.log");
+        Files.createDirectory(log);
+        List<String> results = bulkAdd(new String[]{"plum", "fruit"}, new String[]{"two words", "refused"},
+                new String[]{"apple", "tree"});
+        assertEquals(List.of(LocalWords.SAVE_FAILED, UNSUPPORTED, LocalWords.SAVE_FAILED), results);
+        List<List<String>> groups = multiGet("plum", "apple");
+        assertEquals("No definitions, You can add one !", groups.get(0).get(0));
+        assertEquals(List.of("fruit", "company"), groups.get(1));
+
+        Files.delete(log);
+        assertEquals(List.of(ADDED), bulkAdd(new String[]{"plum", "fruit"}));
+        assertEquals(List.of(List.of("fruit")), multiGet("plum"));
+    }
+
+    public void testOddPairsAreAnErrorFrame() throws Exception {
+        Frame reply = connection.send(Protocol.OP_BULK_ADD, Protocol.FLAG_NONE,
+                Protocol.encodeStrings(List.of("plum", "fruit", "fig"))).get(10, TimeUnit.SECONDS);
+        assertTrue(reply.isError());
+        assertEquals(List.of("Bulk add expects word, meaning pairs"), reply.strings());
+        assertEquals("No definitions, You can add one !", multiGet("plum").get(0).get(0));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: ConnectionPoolTest.java
+ * @Description: Persistent pooled legacy connections against a small in-process lockstep server.
+ * @Date: Created at 10:40 on 2026/10/20
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Sequential requests reuse one socket (one accept)
+ * - A socket the server closed is replaced: lookups are retried on a new socket, writes report the failure
+ */
+
+import distributed.client.ConnectionPool;
+import junit.framework.TestCase;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPoolTest extends TestCase {
+
+    private ServerSocket server;
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    accepted.incrementAndGet();
+                    sockets.add(socket);
+                    Thread handler = new Thread(() -> serve(socket));
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // answers "operation word" per request, like the server's lockstep loop
+    private static void serve(Socket socket) {
+        try (DataInputStream in = new DataInputStream(socket.getInputStream());
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            while (true) {
+                String operation = in.readUTF();
+                String word = in.readUTF();
+                in.readUTF();
+                out.writeUTF(operation + " " + word);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client or test closed the socket
+        }
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    public void testReusesConnection() throws IOException {
+        try (ConnectionPool pool = new ConnectionPool("127.0.0.1", server.getLocalPort())) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals("local word" + i, pool.request("local", "word" + i, ""));
+            }
+            assertEquals(1, accepted.get());
+            assertEquals(1, pool.idleConnections());
+        }
+    }
+
+    public void testReconnectsAfterServerClose() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool("127.0.0.1", server.getLocalPort())) {
+            assertEquals("local a", pool.request("local", "a", ""));
+            // the server drops the connection while it is idle in the pool
+            sockets.get(0).close();
+            Thread.sleep(50);
+            assertEquals("local b", pool.request("local", "b", ""));
+            assertEquals(2, accepted.get());
+
+            // a write on a dropped socket is not sent twice, the caller sees the failure
+            sockets.get(1).close();
+            Thread.sleep(50);
+            try {
+                pool.request("add", "c", "meaning");
+                fail("write retried on a new socket");
+            } catch (IOException expected) {
+                // the pool dropped the dead socket
+            }
+            assertEquals("add c", pool.request("add", "c", "meaning"));
+            assertEquals(3, accepted.get());
+        }
+    }
+}
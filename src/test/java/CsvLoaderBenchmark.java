@@ -0,0 +1,102 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: CsvLoaderBenchmark.java
+ * @Description: Load time of words.csv against file size and thread count (parallel loader vs opencsv).
+ * @Date: Created at 11:05 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Generates CSVs of the given row counts (quoted fields, some multi-line definitions)
+ * - Single-thread opencsv + WordIndex as the baseline
+ * - CsvLoader.readAll (parse only) and CsvLoader.load (parse + index) with 1, 2, 4 ... threads up to the core count
+ * Usage: java CsvLoaderBenchmark [rows,rows,...] [maxThreads]
+ */
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import distributed.models.CsvLoader;
+import distributed.models.WordIndex;
+
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CsvLoaderBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "100000,1000000").split(",");
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("%10s %8s %10s %10s %10s %10s%n", "rows", "MB", "threads", "parse ms", "load ms", "speedup");
+        for (String size : sizes) {
+            int rows = Integer.parseInt(size.trim());
+            Path file = Files.createTempFile("bench", ".csv");
+            try {
+                generate(file, rows);
+                double mb = Files.size(file) / 1e6;
+                long baseline = best(() -> openCsv(file));
+                System.out.printf("%10d %8.1f %10s %10s %10d %10s%n", rows, mb, "opencsv", "-", baseline, "1.00x");
+                for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                    int t = threads;
+                    long parse = best(() -> CsvLoader.readAll(file, t, CsvLoader.DEFAULT_CHUNK_BYTES).size());
+                    long load = best(() -> CsvLoader.load(file, t).size());
+                    System.out.printf("%10d %8.1f %10d %10d %10d %9.2fx%n", rows, mb, threads, parse, load, (double) baseline / load);
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private interface Load {
+        int run() throws Exception;
+    }
+
+    // best of ROUNDS, after one warm-up
+    private static long best(Load load) throws Exception {
+        load.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            load.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    // the former LocalWords.readAllWords + new WordIndex(...)
+    private static int openCsv(Path file) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(row);
+            }
+        }
+        return new WordIndex(rows).size();
+    }
+
+    private static void generate(Path file, int rows) throws Exception {
+        Random random = new Random(42);
+        try (CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8)))) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder word = new StringBuilder();
+                for (int j = 4 + random.nextInt(8); j > 0; j--) {
+                    word.append((char) ('a' + random.nextInt(26)));
+                }
+                String definition = "definition " + i + " of " + word + ", with \"quotes\" and commas";
+                if (i % 50 == 0) {
+                    definition += "\nsecond line";
+                }
+                writer.writeNext(new String[]{word.toString(), definition});
+            }
+        }
+    }
+}
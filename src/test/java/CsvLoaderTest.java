@@ -0,0 +1,96 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: CsvLoaderTest.java
+ * @Description: Parallel chunked CSV loading gives the same records as writing them with CSVWriter.
+ * @Date: Created at 10:30 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Quoted commas, quotes and newlines split across chunk boundaries
+ * - CRLF, BOM, missing final newline
+ * - File order kept for any chunk size / thread count
+ */
+
+import com.opencsv.CSVWriter;
+import distributed.models.CsvLoader;
+import distributed.models.WordIndex;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CsvLoaderTest extends TestCase {
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("words", ".csv");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static List<String> flatten(List<String[]> rows) {
+        List<String> flat = new ArrayList<>();
+        for (String[] row : rows) {
+            flat.add(Arrays.toString(row));
+        }
+        return flat;
+    }
+
+    public void testTrickyFieldsAtEveryChunkSize() throws IOException {
+        Random random = new Random(7);
+        String[] pieces = {"cat", "动物", "a,b", "say \"hi\"", "line1\nline2", "\r\n", "\"", "😀", " ", ""};
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder definition = new StringBuilder();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                definition.append(pieces[random.nextInt(pieces.length)]);
+            }
+            rows.add(new String[]{"w" + i + pieces[random.nextInt(3)], definition.toString()});
+        }
+        try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.writeAll(rows);
+        }
+        for (int chunk : new int[]{1, 2, 3, 7, 64, 1000, CsvLoader.DEFAULT_CHUNK_BYTES}) {
+            for (int threads : new int[]{1, 4}) {
+                assertEquals("chunk " + chunk, flatten(rows), flatten(CsvLoader.readAll(file, threads, chunk)));
+            }
+        }
+    }
+
+    public void testCrlfBomAndMissingFinalNewline() throws IOException {
+        Files.write(file, "\uFEFFcat,animal\r\n\"dog\",\"a \"\"good\"\"\r\nboy\"\r\nempty,\r\nlast,no newline"
+                .getBytes(StandardCharsets.UTF_8));
+        for (int chunk : new int[]{1, 5, 1024}) {
+            List<String[]> rows = CsvLoader.readAll(file, 2, chunk);
+            assertEquals(List.of("[cat, animal]", "[dog, a \"good\"\r\nboy]", "[empty, ]", "[last, no newline]"),
+                    flatten(rows));
+        }
+    }
+
+    public void testIndexBuiltInFileOrder() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append("\"word").append(i % 10).append("\",\"meaning ").append(i).append("\"\n");
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        WordIndex index = CsvLoader.load(file, 4);
+        assertEquals(1000, index.size());
+        List<String> definitions = index.definitions("WORD3");
+        assertEquals(100, definitions.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("meaning " + (i * 10 + 3), definitions.get(i));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: GroupCommitServerTest.java
+ * @Description: Adds of a running server share group commits beyond the size of its disk pool.
+ * @Date: Created at 10:40 on 2026/10/24
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Concurrent adds wait for their commit without a disk pool thread or a lock: batches grow past diskThreads
+ * - Every add is acknowledged and readable once its commit is durable
+ * - Rewrite mode update/delete (structure write lock) run between queued adds and keep every row
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class GroupCommitServerTest extends TestCase {
+
+    private static final int DISK_THREADS = 4;
+    private static final int ADDS = 64;
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("group-commit");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public void testConcurrentAddsShareBatchesLargerThanTheDiskPool() throws Exception {
+        try (ServerProcess server = ServerProcess.start(directory, "dictionary.diskThreads=" + DISK_THREADS,
+                "dictionary.groupCommit.windowMicros=20000", "dictionary.persistence=log");
+             DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            // pipelined: every add runs on its own virtual thread on the server
+            List<CompletableFuture<List<String>>> replies = new ArrayList<>();
+            for (int i = 0; i < ADDS; i++) {
+                replies.add(connection.request(Protocol.OP_ADD, "batchWord" + i, "meaning " + i));
+            }
+            for (CompletableFuture<List<String>> reply : replies) {
+                assertEquals(List.of("Word added successfully."), reply.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(List.of("meaning 7"), connection.request(Protocol.OP_LOCAL, "batchWord7").get(10, TimeUnit.SECONDS));
+
+            double averageBatch = Double.NaN;
+            for (String line : connection.request(Protocol.OP_STATS).get(10, TimeUnit.SECONDS)) {
+                if (line.startsWith("disk.averageBatch: ")) {
+                    averageBatch = Double.parseDouble(line.substring("disk.averageBatch: ".length()));
+                }
+            }
+            assertTrue("average batch " + averageBatch, averageBatch > DISK_THREADS);
+        }
+    }
+
+    public void testRewritesWaitForQueuedAdds() throws Exception {
+        Files.writeString(directory.resolve("words.csv"), "apple,fruit\n");
+        try (ServerProcess server = ServerProcess.start(directory, "dictionary.groupCommit.windowMicros=20000");
+             DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            List<CompletableFuture<List<String>>> replies = new ArrayList<>();
+            for (int i = 0; i < ADDS; i++) {
+                replies.add(connection.request(Protocol.OP_ADD, "apple", "meaning " + i));
+                if (i % 16 == 0) {
+                    replies.add(connection.request(Protocol.OP_UPDATE, "apple", "1fruit " + i));
+                }
+            }
+            for (CompletableFuture<List<String>> reply : replies) {
+                String result = reply.get(10, TimeUnit.SECONDS).get(0);
+                assertTrue(result, result.endsWith("successfully."));
+            }
+            List<String> definitions = connection.request(Protocol.OP_LOCAL, "apple").get(10, TimeUnit.SECONDS);
+            assertEquals(ADDS + 1, definitions.size());
+            assertTrue(definitions.get(0), definitions.get(0).startsWith("fruit "));
+        }
+        // words.csv holds every row the server acknowledged
+        assertEquals(ADDS + 1, Files.readAllLines(directory.resolve("words.csv")).size());
+    }
+}
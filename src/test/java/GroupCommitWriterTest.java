@@ -0,0 +1,130 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: GroupCommitWriterTest.java
+ * @Description: Concurrent appends are batched into shared writes and acknowledged after the write.
+ * @Date: Created at 21:05 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Every record of every writer is in the file once acknowledged, none lost or torn
+ * - A window groups concurrent writers into fewer batches
+ * - A failed write fails the whole batch instead of acknowledging it
+ * - A batch failing with an unchecked exception is cut off the file and later appends still complete
+ */
+
+import com.opencsv.CSVReader;
+import distributed.models.GroupCommitWriter;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+public class GroupCommitWriterTest extends TestCase {
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("words", ".log");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testConcurrentAppendsAllDurableAndBatched() throws Exception {
+        GroupCommitWriter writer = new GroupCommitWriter(file.toString(), 2000, 64, true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int id = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    assertTrue(writer.appendAndWait(List.<String[]>of(new String[]{"A", "w" + id + "_" + i, "a,\"b\"\nc"})));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Set<String> words = new HashSet<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                assertEquals("a,\"b\"\nc", record[2]);
+                assertTrue(words.add(record[1]));
+            }
+        }
+        assertEquals(200, words.size());
+        assertTrue("average batch " + writer.averageBatch(), writer.averageBatch() > 1.5);
+    }
+
+    public void testFailedWriteIsNotAcknowledged() throws IOException {
+        Path directory = Files.createTempDirectory("not-a-file");
+        try {
+            GroupCommitWriter writer = new GroupCommitWriter(directory.toString(), 0, 16, false);
+            CompletableFuture<Void> done = writer.append(List.<String[]>of(new String[]{"A", "cat", "animal"}));
+            try {
+                done.join();
+                fail("a directory cannot be appended to");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    public void testUncheckedFailureKeepsTheFlusherRunning() throws Exception {
+        GroupCommitWriter writer = new GroupCommitWriter(file.toString(), 0, 16, false);
+        assertTrue(writer.appendAndWait(List.<String[]>of(new String[]{"A", "cat", "animal"})));
+        long length = Files.size(file);
+        // a record list that fails half way through the batch's write
+        List<String[]> failing = new AbstractList<>() {
+            @Override
+            public String[] get(int i) {
+                if (i == 1) {
+                    throw new IllegalStateException("broken record");
+                }
+                return new String[]{"A", "dog", "animal"};
+            }
+
+            @Override
+            public int size() {
+                return 2;
+            }
+        };
+        try {
+            writer.append(failing).join();
+            fail("the batch threw");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(length, Files.size(file));
+
+        CompletableFuture<Void> later = writer.append(List.<String[]>of(new String[]{"A", "emu", "bird"}));
+        later.orTimeout(5, TimeUnit.SECONDS).join();
+        List<String> words = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                words.add(record[1]);
+            }
+        }
+        assertEquals(List.of("cat", "emu"), words);
+    }
+}
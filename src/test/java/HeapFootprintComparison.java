@@ -0,0 +1,78 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: HeapFootprintComparison.java
+ * @Description: Retained heap of the dictionary as List<String[]> versus the packed WordIndex.
+ * @Date: Created at 14:40 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Same synthetic rows (short headwords, ~40 char definitions, some CJK) kept in both layouts
+ * - Heap measured after full GCs, raw UTF-8 text size printed for reference
+ * Usage: java -Ddictionary.fuzzy.maxDistance=0 HeapFootprintComparison [rows]
+ */
+
+import distributed.models.WordIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class HeapFootprintComparison {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long text = 0;
+        long before = usedHeap();
+        List<String[]> list = new ArrayList<>();
+        for (String[] row : generate(rows)) {
+            list.add(row);
+            text += row[0].getBytes(StandardCharsets.UTF_8).length + row[1].getBytes(StandardCharsets.UTF_8).length;
+        }
+        long listBytes = usedHeap() - before;
+        System.out.printf("rows %d, UTF-8 text %.1f MB%n", rows, text / 1e6);
+        System.out.printf("List<String[]>      %8.1f MB  %6.1f B/row%n", listBytes / 1e6, (double) listBytes / rows);
+        list = null;
+
+        before = usedHeap();
+        WordIndex index = new WordIndex(generate(rows));
+        long indexBytes = usedHeap() - before;
+        System.out.printf("WordIndex (packed)  %8.1f MB  %6.1f B/row  (store arrays %.1f MB)%n",
+                indexBytes / 1e6, (double) indexBytes / rows, index.memoryFootprint() / 1e6);
+        System.out.printf("saved %.0f%%%n", 100.0 * (listBytes - indexBytes) / listBytes);
+        index.size(); // keep it reachable until here
+    }
+
+    // rows are produced lazily so the input does not count against the packed index
+    private static Iterable<String[]> generate(int rows) {
+        return () -> new Iterator<>() {
+            private final Random random = new Random(42);
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < rows;
+            }
+
+            @Override
+            public String[] next() {
+                StringBuilder word = new StringBuilder();
+                for (int j = 4 + random.nextInt(8); j > 0; j--) {
+                    word.append((char) ('a' + random.nextInt(26)));
+                }
+                String definition = i % 10 == 0 ? "大自然里的动物，第" + i + "条" : "definition " + i + " of the word " + word;
+                i++;
+                return new String[]{word.toString(), definition};
+            }
+        };
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,48 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: HotWordCacheTest.java
+ * @Description: Byte-bounded CLOCK cache of decoded headwords.
+ * @Date: Created at 22:50 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Resident bytes never pass the bound, cold entries are evicted
+ * - Entries hit since the hand last passed get a second chance
+ * - Hit / miss / eviction counters
+ */
+
+import distributed.models.HotWordCache;
+import junit.framework.TestCase;
+
+public class HotWordCacheTest extends TestCase {
+
+    private static String[][] rows(String word) {
+        return new String[][]{{word, "a definition of " + word}};
+    }
+
+    public void testBoundedBytes() {
+        HotWordCache cache = new HotWordCache(10_000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("word" + i, rows("word" + i));
+            assertTrue(cache.bytes() <= cache.maxBytes());
+        }
+        assertTrue(cache.size() < 1000);
+        assertTrue(cache.evictions() > 0);
+        assertNotNull(cache.get("word999"));
+        assertNull(cache.get("word0"));
+    }
+
+    public void testReferencedEntriesSurvive() {
+        HotWordCache cache = new HotWordCache(10_000);
+        cache.put("hot", rows("hot"));
+        for (int i = 0; i < 1000; i++) {
+            assertNotNull(cache.get("hot"));
+            cache.put("cold" + i, rows("cold" + i));
+        }
+        assertNotNull(cache.get("hot"));
+        assertEquals(1001, cache.hits());
+        assertEquals(0, cache.misses());
+        assertNull(cache.get("cold0"));
+        assertEquals(1, cache.misses());
+    }
+}
@@ -0,0 +1,126 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: IncrementalIndexTest.java
+ * @Description: The index a server changes in place holds what a fresh load of its files gives.
+ * @Date: Created at 15:30 on 2026/10/24
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - A random sequence of add / update / delete on repeated headwords, in rewrite and in log mode
+ * - After it, a restart parsing words.csv (and the log) answers every headword exactly as before
+ * - So does a restart from the snapshot the server kept up to date
+ * - With a small dictionary.overlay.maxHeadwords the change tree is folded into new bases and stays that small
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class IncrementalIndexTest extends TestCase {
+
+    private static final List<String> WORDS = List.of("apple", "pear", "plum", "fig", "kiwi", "lime");
+    private static final int CHANGES = 300;
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("incremental");
+        Files.writeString(directory.resolve("words.csv"), "apple,a\npear,p\napple,b\nplum,q\napple,c\n");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static List<List<String>> lookUpAll(ServerProcess server) throws Exception {
+        try (DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            return connection.multiGet(WORDS).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // the index.overlayHeadwords gauge of the stats report
+    private static long overlayHeadwords(ServerProcess server) throws Exception {
+        try (DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            for (String line : connection.request(Protocol.OP_STATS).get(10, TimeUnit.SECONDS)) {
+                if (line.startsWith("index.overlayHeadwords: ")) {
+                    return Long.parseLong(line.substring("index.overlayHeadwords: ".length()));
+                }
+            }
+        }
+        throw new AssertionError("no index.overlayHeadwords gauge");
+    }
+
+    // random changes, one at a time so the order is the same in the index and in the files
+    private static void change(ServerProcess server, long seed) throws Exception {
+        Random random = new Random(seed);
+        try (DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            for (int i = 0; i < CHANGES; i++) {
+                String word = WORDS.get(random.nextInt(WORDS.size()));
+                int order = 1 + random.nextInt(3);
+                byte op = switch (random.nextInt(3)) {
+                    case 0 -> Protocol.OP_ADD;
+                    case 1 -> Protocol.OP_UPDATE;
+                    default -> Protocol.OP_DELETE;
+                };
+                String meaning = switch (op) {
+                    case Protocol.OP_ADD -> "added " + i;
+                    case Protocol.OP_UPDATE -> order + "updated " + i;
+                    default -> String.valueOf(order);
+                };
+                assertFalse(connection.request(op, word, meaning).get(10, TimeUnit.SECONDS).get(0).startsWith("Server"));
+            }
+        }
+    }
+
+    private void assertReloadMatches(String... properties) throws Exception {
+        List<List<String>> changed;
+        try (ServerProcess server = ServerProcess.start(directory, properties)) {
+            change(server, 17);
+            changed = lookUpAll(server);
+            for (String property : properties) {
+                if (property.startsWith("dictionary.overlay.maxHeadwords=")) {
+                    long max = Long.parseLong(property.substring(property.indexOf('=') + 1));
+                    assertTrue(overlayHeadwords(server) <= max);
+                }
+            }
+        }
+        List<String> parsed = new ArrayList<>(List.of(properties));
+        parsed.add("dictionary.snapshot=false");
+        try (ServerProcess server = ServerProcess.start(directory, parsed.toArray(new String[0]))) {
+            assertEquals(changed, lookUpAll(server));
+        }
+        try (ServerProcess server = ServerProcess.start(directory, properties)) {
+            assertEquals(changed, lookUpAll(server));
+        }
+    }
+
+    public void testRewriteModeIndexMatchesReload() throws Exception {
+        assertReloadMatches();
+    }
+
+    public void testLogModeIndexMatchesReload() throws Exception {
+        assertReloadMatches("dictionary.persistence=log");
+    }
+
+    public void testFoldedOverlayMatchesReload() throws Exception {
+        assertReloadMatches("dictionary.overlay.maxHeadwords=2");
+        assertReloadMatches("dictionary.overlay.maxHeadwords=2", "dictionary.persistence=log");
+        assertReloadMatches("dictionary.overlay.maxHeadwords=2", "dictionary.snapshot=false");
+    }
+}
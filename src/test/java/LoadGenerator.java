@@ -0,0 +1,392 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: LoadGenerator.java
+ * @Description: Load generator for a running DictionaryServer, throughput and latency percentiles per operation.
+ * @Date: Created at 18:30 on 2026/10/19
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Persistent connections, binary (pipelined) or legacy (lockstep) protocol
+ * - Operation mix by weight (local, prefix, remote, add, update, delete), keys uniform or Zipfian
+ * - Closed loop: each worker sends its next request when the last reply came back
+ * - Open loop: requests are due at a fixed total rate; latency counts from the time a request was due, not
+ *   from when it went out, so a stalled server is not hidden by the client waiting (coordinated omission)
+ * - Warmup is not recorded; p50 / p99 / p999 / max per operation at the end
+ * Usage: java LoadGenerator [key=value ...]
+ *   host=127.0.0.1 port=9022 protocol=binary|legacy connections=4 mode=closed|open rate=1000 (open, requests/s)
+ *   inflight=1 (closed, binary: requests per connection) duration=10 warmup=2 (seconds)
+ *   mix=local:80,prefix:5,add:5,update:5,delete:5 keys=10000 distribution=uniform|zipf zipf=0.99
+ *   words=words.csv (keys from the first column instead of generated ones) prefill=false (bulk-add the keys first)
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.metrics.LatencyHistogram;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.protocol.WordValidator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGenerator {
+
+    private static final List<String> OPERATIONS = List.of("local", "prefix", "remote", "add", "update", "delete");
+
+    // one operation's results
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, String> options;
+    private final String host;
+    private final int port;
+    private final boolean binary;
+    private final boolean open;
+    private final int connections;
+    private final int inflight;
+    private final double rate;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final String[] keys;
+    private final String[] mixOps;
+    private final double[] mixCdf;
+    // Zipf: cumulative probability per rank, rank -> key through a shuffled order; null for uniform
+    private final double[] zipfCdf;
+    private final int[] rankToKey;
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private long startNanos;
+
+    private LoadGenerator(Map<String, String> options) throws IOException {
+        this.options = options;
+        host = option("host", "127.0.0.1");
+        port = Integer.parseInt(option("port", "9022"));
+        binary = option("protocol", "binary").equals("binary");
+        open = option("mode", "closed").equals("open");
+        connections = Integer.parseInt(option("connections", "4"));
+        inflight = binary ? Integer.parseInt(option("inflight", "1")) : 1;
+        rate = Double.parseDouble(option("rate", "1000"));
+        warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup", "2")));
+        durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration", "10")));
+        keys = loadKeys();
+
+        Map<String, Double> mix = new LinkedHashMap<>();
+        for (String part : option("mix", "local:80,prefix:5,add:5,update:5,delete:5").split(",")) {
+            String[] opWeight = part.split(":");
+            if (!OPERATIONS.contains(opWeight[0])) {
+                throw new IllegalArgumentException("Unknown operation " + opWeight[0] + ", use one of " + OPERATIONS);
+            }
+            mix.put(opWeight[0], opWeight.length > 1 ? Double.parseDouble(opWeight[1]) : 1.0);
+        }
+        mixOps = mix.keySet().toArray(new String[0]);
+        mixCdf = cumulative(mix.values().stream().mapToDouble(Double::doubleValue).toArray());
+        for (String op : mixOps) {
+            stats.put(op, new Stats());
+        }
+
+        if (option("distribution", "uniform").equals("zipf")) {
+            double exponent = Double.parseDouble(option("zipf", "0.99"));
+            double[] weights = new double[keys.length];
+            for (int rank = 0; rank < keys.length; rank++) {
+                weights[rank] = 1.0 / Math.pow(rank + 1, exponent);
+            }
+            zipfCdf = cumulative(weights);
+            // hot keys spread over the alphabet (and the server's lock stripes), not the first N in order
+            rankToKey = new int[keys.length];
+            SplittableRandom random = new SplittableRandom(Long.parseLong(option("seed", "1")));
+            for (int i = 0; i < keys.length; i++) {
+                int j = random.nextInt(i + 1);
+                rankToKey[i] = rankToKey[j];
+                rankToKey[j] = i;
+            }
+        } else {
+            zipfCdf = null;
+            rankToKey = null;
+        }
+    }
+
+    private String option(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    // weights -> cumulative probabilities, last one exactly 1
+    private static double[] cumulative(double[] weights) {
+        double total = Arrays.stream(weights).sum();
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum / total;
+        }
+        cdf[cdf.length - 1] = 1.0;
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, double u) {
+        int i = Arrays.binarySearch(cdf, u);
+        return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
+    }
+
+    // first column of a CSV (valid, distinct), or generated letters-only words
+    private String[] loadKeys() throws IOException {
+        String file = options.get("words");
+        if (file == null) {
+            int count = Integer.parseInt(option("keys", "10000"));
+            String[] generated = new String[count];
+            for (int i = 0; i < count; i++) {
+                StringBuilder word = new StringBuilder("lg");
+                int n = i;
+                do {
+                    word.append((char) ('a' + n % 26));
+                    n /= 26;
+                } while (n > 0);
+                generated[i] = word.toString();
+            }
+            return generated;
+        }
+        Set<String> words = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            int comma = line.indexOf(',');
+            String word = (comma < 0 ? line : line.substring(0, comma)).replace("\"", "").trim();
+            if (WordValidator.isValid(word)) {
+                words.add(word);
+            }
+        }
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("No usable words in " + file);
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private String nextKey(SplittableRandom random) {
+        if (zipfCdf == null) {
+            return keys[random.nextInt(keys.length)];
+        }
+        return keys[rankToKey[pick(zipfCdf, random.nextDouble())]];
+    }
+
+    // {operation, word, meaning} of the next request
+    private String[] nextRequest(SplittableRandom random) {
+        String op = mixOps[pick(mixCdf, random.nextDouble())];
+        String word = nextKey(random);
+        long n = sequence.incrementAndGet();
+        return switch (op) {
+            case "prefix" -> new String[]{op, word.substring(0, Math.min(3, word.length())), ""};
+            case "add" -> new String[]{op, word, "load test definition " + n};
+            case "update" -> new String[]{op, word, "1load test update " + n};
+            case "delete" -> new String[]{op, word, "1"};
+            default -> new String[]{op, word, ""};
+        };
+    }
+
+    private static byte opcode(String op) {
+        return switch (op) {
+            case "local" -> Protocol.OP_LOCAL;
+            case "prefix" -> Protocol.OP_PREFIX;
+            case "remote" -> Protocol.OP_REMOTE;
+            case "add" -> Protocol.OP_ADD;
+            case "update" -> Protocol.OP_UPDATE;
+            default -> Protocol.OP_DELETE;
+        };
+    }
+
+    // legacy replies that mean the request was refused or failed, same rule as the server's metrics
+    private static boolean legacyFailure(String reply) {
+        return reply.startsWith("Server ") || reply.equals("Not Supported Action ~")
+                || reply.equals("Language unsupported or More than one word");
+    }
+
+    // requests due (open loop) or sent (closed loop) during the warmup are not recorded
+    private void record(String op, long from, long end, boolean error) {
+        if (from - startNanos < warmupNanos) {
+            return;
+        }
+        Stats s = stats.get(op);
+        s.latency.record(end - from);
+        if (error) {
+            s.errors.increment();
+        }
+    }
+
+    private void prefill() throws IOException {
+        try (DictionaryConnection connection = DictionaryConnection.open(host, port)) {
+            for (int from = 0; from < keys.length; from += 1000) {
+                List<String[]> rows = new ArrayList<>();
+                for (int i = from; i < Math.min(keys.length, from + 1000); i++) {
+                    rows.add(new String[]{keys[i], "load test definition of " + keys[i]});
+                }
+                connection.bulkAdd(rows).join();
+            }
+        }
+        System.out.println("Prefilled " + keys.length + " words");
+    }
+
+    private void run() throws Exception {
+        if (Boolean.parseBoolean(option("prefill", "false"))) {
+            prefill();
+        }
+        List<DictionaryConnection> binaryConnections = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        startNanos = System.nanoTime();
+        long endNanos = startNanos + warmupNanos + durationNanos;
+        long seed = Long.parseLong(option("seed", "1"));
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int workerCount = binary && !open ? connections * inflight : connections;
+        // open loop: worker w sends requests w, w + workers, w + 2 * workers ... of the whole schedule
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        for (int c = 0; c < connections; c++) {
+            binaryConnections.add(binary ? DictionaryConnection.open(host, port) : null);
+        }
+        for (int w = 0; w < workerCount; w++) {
+            int worker = w;
+            SplittableRandom random = seeds.split();
+            DictionaryConnection connection = binaryConnections.get(w % connections);
+            workers.add(Thread.ofPlatform().name("load-" + w).start(() -> {
+                try {
+                    if (binary && open) {
+                        binaryOpenLoop(connection, random, worker, workerCount, intervalNanos, endNanos);
+                    } else if (binary) {
+                        binaryClosedLoop(connection, random, endNanos);
+                    } else {
+                        legacyLoop(random, worker, workerCount, intervalNanos, endNanos);
+                    }
+                } catch (IOException e) {
+                    System.out.println("Worker " + worker + " stopped: " + e.getMessage());
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (DictionaryConnection connection : binaryConnections) {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+        report();
+    }
+
+    private void binaryClosedLoop(DictionaryConnection connection, SplittableRandom random, long endNanos) {
+        while (System.nanoTime() < endNanos && connection.isOpen()) {
+            String[] request = nextRequest(random);
+            long sent = System.nanoTime();
+            boolean error;
+            try {
+                error = connection.send(opcode(request[0]), Protocol.FLAG_NONE,
+                        Protocol.encodeStrings(request[1], request[2])).join().isError();
+            } catch (RuntimeException e) {
+                error = true;
+            }
+            record(request[0], sent, System.nanoTime(), error);
+        }
+    }
+
+    // every request goes out at its due time without waiting for earlier replies
+    private void binaryOpenLoop(DictionaryConnection connection, SplittableRandom random, int worker, int workers,
+                                long intervalNanos, long endNanos) {
+        List<CompletableFuture<Frame>> outstanding = new ArrayList<>();
+        for (long k = 0; ; k++) {
+            long due = startNanos + (k * workers + worker) * intervalNanos;
+            if (due >= endNanos || !connection.isOpen()) {
+                break;
+            }
+            waitUntil(due);
+            String[] request = nextRequest(random);
+            CompletableFuture<Frame> reply = connection.send(opcode(request[0]), Protocol.FLAG_NONE,
+                    Protocol.encodeStrings(request[1], request[2]));
+            outstanding.add(reply.whenComplete((frame, error) ->
+                    record(request[0], due, System.nanoTime(), error != null || frame.isError())));
+            if (outstanding.size() >= 10_000) {
+                outstanding.removeIf(CompletableFuture::isDone);
+            }
+        }
+        // let the last replies come in
+        CompletableFuture.allOf(outstanding.toArray(CompletableFuture<?>[]::new))
+                .completeOnTimeout(null, 10, TimeUnit.SECONDS).exceptionally(e -> null).join();
+    }
+
+    // lockstep: one request at a time per socket; open loop waits for the due time and counts latency from it
+    private void legacyLoop(SplittableRandom random, int worker, int workers, long intervalNanos, long endNanos)
+            throws IOException {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            for (long k = 0; ; k++) {
+                long due = open ? startNanos + (k * workers + worker) * intervalNanos : System.nanoTime();
+                if (due >= endNanos) {
+                    break;
+                }
+                waitUntil(due);
+                String[] request = nextRequest(random);
+                out.writeUTF(request[0]);
+                out.writeUTF(request[1]);
+                out.writeUTF(request[2]);
+                out.flush();
+                String reply = in.readUTF();
+                record(request[0], due, System.nanoTime(), legacyFailure(reply));
+            }
+        }
+    }
+
+    private static void waitUntil(long due) {
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private void report() {
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%s protocol, %s loop, %d connections%s, %d keys (%s), %.0f s measured%n",
+                binary ? "binary" : "legacy", open ? "open" : "closed", connections,
+                open ? String.format(", target %.0f req/s", rate) : (binary ? ", " + inflight + " in flight each" : ""),
+                keys.length, zipfCdf == null ? "uniform" : "zipf " + option("zipf", "0.99"), seconds);
+        System.out.printf("%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            LatencyHistogram latency = entry.getValue().latency;
+            long count = latency.count();
+            total += count;
+            System.out.printf("%-8s %10d %8d %10.0f %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(), count,
+                    entry.getValue().errors.sum(), count / seconds, latency.percentile(0.50) / 1e6,
+                    latency.percentile(0.99) / 1e6, latency.percentile(0.999) / 1e6, latency.max() / 1e6);
+        }
+        System.out.printf("%-8s %10d %8s %10.0f%n", "total", total, "", total / seconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+}
@@ -0,0 +1,147 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: LogPersistenceTest.java
+ * @Description: Log persistence mode of a server over a temporary words.csv: replay, compaction, crash recovery.
+ * @Date: Created at 11:20 on 2026/10/24
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Changes only in the mutation log are replayed after a crash, then folded into words.csv
+ * - A log past dictionary.compactBytes is compacted: tmp CSV, log renamed .applied, tmp moved over words.csv
+ * - A crash after the log was renamed: the complete tmp CSV is used and the .applied log is not replayed again
+ * - A crash while the tmp CSV was written: it is discarded, words.csv and the log stay the truth
+ */
+
+import com.opencsv.CSVReader;
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class LogPersistenceTest extends TestCase {
+
+    private Path directory;
+    private Path csv;
+    private Path log;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("log-mode");
+        csv = directory.resolve("words.csv");
+        log = directory.resolve("words.log");
+        Files.writeString(csv, "apple,fruit\napple,company\npear,fruit\n");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private ServerProcess start(String... properties) throws IOException, InterruptedException {
+        String[] all = new String[properties.length + 1];
+        all[0] = "dictionary.persistence=log";
+        System.arraycopy(properties, 0, all, 1, properties.length);
+        return ServerProcess.start(directory, all);
+    }
+
+    private static List<String> lookUp(ServerProcess server, String word) throws Exception {
+        try (DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            return connection.request(Protocol.OP_LOCAL, word).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<String> change(ServerProcess server, byte op, String word, String meaning) throws Exception {
+        try (DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            return connection.request(op, word, meaning).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // words.csv as "word=definition" lines, in file order
+    private List<String> csvRows() throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(Files.newInputStream(csv), StandardCharsets.UTF_8))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(row[0] + "=" + row[1]);
+            }
+        }
+        return rows;
+    }
+
+    public void testLogReplayedAfterCrash() throws Exception {
+        try (ServerProcess server = start()) {
+            assertEquals(List.of("Word added successfully."), change(server, Protocol.OP_ADD, "plum", "fruit"));
+            assertEquals(List.of("Word updated successfully."), change(server, Protocol.OP_UPDATE, "apple", "2maker"));
+            assertEquals(List.of("Word deleted successfully."), change(server, Protocol.OP_DELETE, "pear", "1"));
+            server.kill();
+        }
+        // only the log has the changes
+        assertEquals(List.of("apple=fruit", "apple=company", "pear=fruit"), csvRows());
+        assertEquals(3, Files.readAllLines(log).size());
+
+        try (ServerProcess server = start()) {
+            assertEquals(List.of("fruit", "maker"), lookUp(server, "apple"));
+            assertEquals(List.of("fruit"), lookUp(server, "plum"));
+            assertEquals("No definitions, You can add one !", lookUp(server, "pear").get(0));
+        }
+        // the replayed log was folded into words.csv at startup, in the file's row order
+        assertFalse(Files.exists(log));
+        assertEquals(List.of("apple=fruit", "apple=maker", "plum=fruit"), csvRows());
+    }
+
+    public void testLogCompactedPastThreshold() throws Exception {
+        try (ServerProcess server = start("dictionary.compactBytes=1")) {
+            assertEquals(List.of("Word added successfully."), change(server, Protocol.OP_ADD, "plum", "fruit"));
+            assertEquals(List.of("Word deleted successfully."), change(server, Protocol.OP_DELETE, "apple", "1"));
+            assertFalse(Files.exists(log));
+            assertFalse(Files.exists(directory.resolve("words.log.applied")));
+            assertFalse(Files.exists(directory.resolve("words.csv.tmp")));
+            assertEquals(List.of("apple=company", "pear=fruit", "plum=fruit"), csvRows());
+            assertEquals(List.of("company"), lookUp(server, "apple"));
+            server.kill();
+        }
+        try (ServerProcess server = start()) {
+            assertEquals(List.of("company"), lookUp(server, "apple"));
+            assertEquals(List.of("fruit"), lookUp(server, "plum"));
+        }
+    }
+
+    public void testCrashAfterLogRenamedFinishesCompaction() throws Exception {
+        // the tmp CSV already holds the renamed log's record
+        Files.writeString(directory.resolve("words.csv.tmp"), "apple,fruit\napple,company\npear,fruit\nplum,fruit\n");
+        Files.writeString(directory.resolve("words.log.applied"), "\"A\",\"plum\",\"fruit\"\n");
+        try (ServerProcess server = start()) {
+            assertEquals(List.of("fruit"), lookUp(server, "plum")); // once, not replayed a second time
+            assertEquals(List.of("fruit", "company"), lookUp(server, "apple"));
+        }
+        assertFalse(Files.exists(directory.resolve("words.log.applied")));
+        assertFalse(Files.exists(directory.resolve("words.csv.tmp")));
+        assertEquals(List.of("apple=fruit", "apple=company", "pear=fruit", "plum=fruit"), csvRows());
+    }
+
+    public void testCrashWhileWritingTmpKeepsTheLog() throws Exception {
+        Files.writeString(directory.resolve("words.csv.tmp"), "apple,fruit\napple,comp");
+        Files.writeString(log, "\"A\",\"plum\",\"fruit\"\n\"D\",\"pear\",\"1\"\n");
+        try (ServerProcess server = start()) {
+            assertEquals(List.of("fruit", "company"), lookUp(server, "apple"));
+            assertEquals(List.of("fruit"), lookUp(server, "plum"));
+            assertEquals("No definitions, You can add one !", lookUp(server, "pear").get(0));
+        }
+        assertFalse(Files.exists(directory.resolve("words.csv.tmp")));
+        assertEquals(List.of("apple=fruit", "apple=company", "plum=fruit"), csvRows());
+    }
+}
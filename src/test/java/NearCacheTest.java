@@ -0,0 +1,139 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: NearCacheTest.java
+ * @Description: Client near cache against a stub binary server that sends invalidation pushes on demand.
+ * @Date: Created at 15:10 on 2026/10/20
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Repeat lookups are hits, a pushed invalidation makes the next lookup go to the server
+ * - A reply that raced an invalidation is not kept; a closed channel empties the cache and turns it off
+ */
+
+import distributed.client.NearCache;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class NearCacheTest extends TestCase {
+
+    private ServerSocket server;
+    private volatile Socket subscriber;
+    private volatile DataOutputStream subscriberOut;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                serve(socket);
+            } catch (IOException e) {
+                // test over
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // handshake, then acknowledge OP_SUBSCRIBE; pushes are sent by the test
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        in.readUnsignedByte();
+        int version = in.readUnsignedByte();
+        out.writeByte(Protocol.MAGIC);
+        out.writeByte(version);
+        out.flush();
+        while (true) {
+            Frame request = Frame.read(in);
+            synchronized (out) {
+                Frame.of(request.requestId(), request.opcode(), Protocol.FLAG_NONE, List.of()).write(out);
+                out.flush();
+            }
+            if (request.opcode() == Protocol.OP_SUBSCRIBE) {
+                subscriber = socket;
+                subscriberOut = out;
+            }
+        }
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.close();
+        if (subscriber != null) {
+            subscriber.close();
+        }
+    }
+
+    private void push(String... words) throws IOException {
+        synchronized (subscriberOut) {
+            Frame.of(Protocol.PUSH_ID, Protocol.OP_INVALIDATE, Protocol.FLAG_NONE, List.of(words)).write(subscriberOut);
+            subscriberOut.flush();
+        }
+    }
+
+    private String load(String word) {
+        return "[" + word + " " + loads.incrementAndGet() + "]";
+    }
+
+    // pushes are handled on the connection's reader thread
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    public void testHitsUntilInvalidated() throws Exception {
+        try (NearCache cache = new NearCache("127.0.0.1", server.getLocalPort(), 100, reply -> true)) {
+            assertEquals("[apple 1]", cache.get("apple", this::load));
+            assertTrue(cache.isSubscribed());
+            assertEquals("[apple 1]", cache.get("Apple", this::load)); // same case-folded headword
+            assertEquals(1, cache.hits());
+
+            push("apple");
+            waitFor(() -> cache.size() == 0);
+            assertEquals("[apple 2]", cache.get("apple", this::load));
+            assertEquals("[apple 2]", cache.get("apple", this::load));
+            assertEquals(2, loads.get());
+        }
+    }
+
+    public void testRaceAndLostChannel() throws Exception {
+        try (NearCache cache = new NearCache("127.0.0.1", server.getLocalPort(), 100, reply -> true)) {
+            cache.get("pear", this::load);
+            assertTrue(cache.isSubscribed());
+            // an invalidation lands while the reply is on the way: the reply is returned but not kept
+            String raced = cache.get("plum", word -> {
+                push("plum");
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return load(word);
+            });
+            assertEquals("[plum 2]", raced);
+            assertEquals(1, cache.size());
+            cache.get("plum", this::load);
+            assertEquals(2, cache.size());
+
+            subscriber.close();
+            waitFor(() -> !cache.isSubscribed());
+            assertEquals(0, cache.size());
+            assertEquals("[pear 4]", cache.get("pear", this::load));
+            assertEquals("[pear 5]", cache.get("pear", this::load)); // no channel, nothing kept
+        }
+    }
+}
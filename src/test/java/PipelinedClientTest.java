@@ -0,0 +1,92 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: PipelinedClientTest.java
+ * @Description: Pipelined requests over a single binary protocol connection, replies matched by request id.
+ * @Date: Created at 15:20 on 2026/10/17
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Handshake and protocol detection
+ * - Many requests in flight on one socket, all sent before the first reply
+ * - Replies coming back in any order reach the caller of their request id
+ */
+
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class PipelinedClientTest extends TestCase {
+
+    private static final int REQUESTS = 50;
+
+    private ServerSocket server;
+
+    @Override
+    protected void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                serve(socket);
+            } catch (IOException e) {
+                // test over
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.close();
+    }
+
+    // handshake, read every request before answering any, then answer them shuffled
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        in.readUnsignedByte();
+        int version = in.readUnsignedByte();
+        out.writeByte(Protocol.MAGIC);
+        out.writeByte(version);
+        out.flush();
+        List<Frame> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(Frame.read(in));
+        }
+        Collections.shuffle(requests, new Random(42));
+        for (Frame request : requests) {
+            List<String> reply = List.of(Protocol.opName(request.opcode()) + ":" + request.strings().get(0));
+            Frame.of(request.requestId(), request.opcode(), Protocol.FLAG_NONE, reply).write(out);
+            out.flush();
+        }
+    }
+
+    public void testRepliesOutOfOrderReachTheirCallers() throws Exception {
+        try (DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.getLocalPort())) {
+            List<CompletableFuture<List<String>>> replies = new ArrayList<>();
+            // send everything before reading any reply; the server answers only once all arrived
+            for (int i = 0; i < REQUESTS; i++) {
+                byte op = i % 10 == 0 ? Protocol.OP_REMOTE : Protocol.OP_LOCAL;
+                replies.add(connection.request(op, "testWord" + i, ""));
+            }
+            for (int i = 0; i < REQUESTS; i++) {
+                String op = Protocol.opName(i % 10 == 0 ? Protocol.OP_REMOTE : Protocol.OP_LOCAL);
+                assertEquals(List.of(op + ":testWord" + i), replies.get(i).get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: ReadScalingBenchmark.java
+ * @Description: Lookup throughput against reader thread count while a writer keeps publishing versions.
+ * @Date: Created at 17:55 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - 1, 2, 4 ... reader threads doing exact lookups on WordIndex.current() (no lock)
+ * - One writer thread adding / updating / deleting rows the whole time
+ * - Same readers behind a ReentrantReadWriteLock (the former server locking) for comparison
+ * Usage: java ReadScalingBenchmark [rows] [maxThreads] [seconds]
+ */
+
+import distributed.models.WordIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ReadScalingBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        List<String[]> words = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            words.add(new String[]{"word" + i, "meaning " + i});
+        }
+        System.out.printf("%8s %16s %16s %12s%n", "readers", "lock-free ops/s", "rw-lock ops/s", "writes/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long[] free = run(new WordIndex(words), rows, threads, seconds, false);
+            long[] locked = run(new WordIndex(words), rows, threads, seconds, true);
+            System.out.printf("%8d %16d %16d %12d%n", threads, free[0], locked[0], free[1]);
+        }
+    }
+
+    // {reads per second, writes per second}
+    private static long[] run(WordIndex index, int rows, int threads, int seconds, boolean locked)
+            throws InterruptedException {
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        List<Thread> all = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            all.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    String word = "word" + random.nextInt(rows);
+                    if (locked) {
+                        lock.readLock().lock();
+                        try {
+                            index.definitions(word);
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                    } else {
+                        index.definitions(word);
+                    }
+                    reads.increment();
+                }
+            }));
+        }
+        all.add(new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!stop.get()) {
+                String word = "word" + random.nextInt(rows);
+                if (locked) {
+                    lock.writeLock().lock();
+                }
+                try {
+                    index.add(new String[]{word, "extra"});
+                    index.update(word, 1, "changed");
+                    index.remove(word, 2);
+                } finally {
+                    if (locked) {
+                        lock.writeLock().unlock();
+                    }
+                }
+                writes.add(3);
+            }
+        }));
+        for (Thread thread : all) {
+            thread.start();
+        }
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread thread : all) {
+            thread.join();
+        }
+        return new long[]{reads.sum() / seconds, writes.sum() / seconds};
+    }
+}
@@ -0,0 +1,150 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: RemoteCacheTest.java
+ * @Description: Remote cache behaviour against a local stub of the Wikipedia summary API.
+ * @Date: Created at 16:30 on 2026/10/17
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Hit after miss, negative caching
+ * - Size eviction and TTL expiry
+ * - Single upstream call for concurrent misses
+ */
+
+import com.sun.net.httpserver.HttpServer;
+import distributed.remote.RemoteCache;
+import distributed.remote.RemoteLookup;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RemoteCacheTest extends TestCase {
+
+    private HttpServer stub;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private volatile long delayMillis = 0;
+    private RemoteLookup lookup;
+
+    @Override
+    protected void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/summary/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String word = exchange.getRequestURI().getPath().substring("/summary/".length());
+            boolean known = !word.startsWith("unknown");
+            byte[] body = (known ? "{\"extract\":\"definition of " + word + "\"}" : "{\"title\":\"Not found.\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(known ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        stub.start();
+        lookup = new RemoteLookup(RemoteLookup.newClient(Duration.ofSeconds(2)),
+                "http://127.0.0.1:" + stub.getAddress().getPort() + "/summary/", Duration.ofSeconds(5), 8, 100);
+    }
+
+    @Override
+    protected void tearDown() {
+        stub.stop(0);
+    }
+
+    private RemoteCache cache(int size, long ttlMillis, long negativeTtlMillis) {
+        return new RemoteCache(size, ttlMillis, negativeTtlMillis, TimeUnit.MILLISECONDS,
+                lookup::lookUpAsync, RemoteLookup::isUnknown);
+    }
+
+    public void testHitAfterMiss() {
+        RemoteCache cache = cache(10, 60_000, 60_000);
+        assertEquals("definition of cat", cache.get("cat").join());
+        assertEquals("definition of cat", cache.get("cat").join());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    public void testNegativeResultIsCached() {
+        RemoteCache cache = cache(10, 60_000, 60_000);
+        assertTrue(RemoteLookup.isUnknown(cache.get("unknownword").join()));
+        assertTrue(RemoteLookup.isUnknown(cache.get("unknownword").join()));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    public void testNegativeTtlIsShorter() throws InterruptedException {
+        RemoteCache cache = cache(10, 60_000, 50);
+        cache.get("unknownword").join();
+        cache.get("cat").join();
+        Thread.sleep(120);
+        cache.get("unknownword").join();
+        cache.get("cat").join();
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(1, cache.expirations());
+    }
+
+    public void testLeastRecentlyUsedIsEvicted() {
+        RemoteCache cache = cache(2, 60_000, 60_000);
+        cache.get("a").join();
+        cache.get("b").join();
+        cache.get("a").join(); // a is now the most recent
+        cache.get("c").join(); // evicts b
+        assertEquals(1, cache.evictions());
+        assertEquals(2, cache.size());
+        cache.get("a").join();
+        assertEquals(3, upstreamCalls.get());
+        cache.get("b").join();
+        assertEquals(4, upstreamCalls.get());
+    }
+
+    public void testConcurrentMissesShareOneUpstreamCall() throws InterruptedException {
+        RemoteCache cache = cache(10, 60_000, 60_000);
+        delayMillis = 300;
+        int clients = 20;
+        List<String> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                String value = cache.get("popular").join();
+                synchronized (results) {
+                    results.add(value);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(clients, results.size());
+        for (String value : results) {
+            assertEquals("definition of popular", value);
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(clients, cache.misses() + cache.coalesced() + cache.hits());
+    }
+
+    public void testFailureIsNotCached() {
+        RemoteCache cache = cache(10, 60_000, 60_000);
+        stub.stop(0);
+        try {
+            cache.get("cat").join();
+            fail("expected the lookup to fail");
+        } catch (RuntimeException expected) {
+            // connection refused
+        }
+        assertEquals(0, cache.size());
+    }
+}
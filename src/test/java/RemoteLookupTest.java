@@ -0,0 +1,216 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: RemoteLookupTest.java
+ * @Description: Async remote lookups against a slow local stub of the Wikipedia summary API.
+ * @Date: Created at 17:10 on 2026/10/17
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Request timeout fails the lookup
+ * - In-flight cap on upstream requests, queue overflow is rejected
+ * - Caller thread is never blocked by a slow upstream
+ * - A long queue of lookups whose sends fail at once drains without recursing once per lookup
+ */
+
+import com.sun.net.httpserver.HttpServer;
+import distributed.remote.RemoteLookup;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+public class RemoteLookupTest extends TestCase {
+
+    private HttpServer stub;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile long delayMillis = 0;
+    private String baseUrl;
+
+    @Override
+    protected void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/summary/", exchange -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            byte[] body = "{\"extract\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException ignored) {
+                // client gave up (timeout test)
+            }
+        });
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.start();
+        baseUrl = "http://127.0.0.1:" + stub.getAddress().getPort() + "/summary/";
+    }
+
+    @Override
+    protected void tearDown() {
+        stub.stop(0);
+    }
+
+    public void testSlowUpstreamTimesOut() {
+        delayMillis = 1000;
+        RemoteLookup lookup = new RemoteLookup(RemoteLookup.newClient(Duration.ofSeconds(1)), baseUrl,
+                Duration.ofMillis(100), 4, 10);
+        long start = System.nanoTime();
+        CompletableFuture<String> result = lookup.lookUpAsync("slow");
+        assertTrue("lookUpAsync must not wait for the upstream", System.nanoTime() - start < 500_000_000L);
+        try {
+            result.join();
+            fail("expected a timeout");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof HttpTimeoutException);
+        }
+        assertEquals(0, lookup.inFlight());
+    }
+
+    public void testInFlightRequestsAreCapped() {
+        delayMillis = 100;
+        RemoteLookup lookup = new RemoteLookup(RemoteLookup.newClient(Duration.ofSeconds(1)), baseUrl,
+                Duration.ofSeconds(5), 2, 100);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(lookup.lookUpAsync("word" + i));
+        }
+        for (CompletableFuture<String> result : results) {
+            assertEquals("ok", result.join());
+        }
+        assertTrue("at most 2 upstream requests at once, saw " + maxConcurrent.get(), maxConcurrent.get() <= 2);
+        assertEquals(0, lookup.inFlight());
+    }
+
+    public void testQueueOverflowIsRejected() {
+        delayMillis = 300;
+        RemoteLookup lookup = new RemoteLookup(RemoteLookup.newClient(Duration.ofSeconds(1)), baseUrl,
+                Duration.ofSeconds(5), 1, 1);
+        CompletableFuture<String> running = lookup.lookUpAsync("a");
+        CompletableFuture<String> queued = lookup.lookUpAsync("b");
+        CompletableFuture<String> rejected = lookup.lookUpAsync("c");
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals("ok", running.join());
+        assertEquals("ok", queued.join());
+    }
+
+    public void testQueuedSendsFailingAtOnceDoNotRecurse() {
+        CompletableFuture<HttpResponse<Object>> first = new CompletableFuture<>();
+        RemoteLookup lookup = new RemoteLookup(new FailingClient(first), baseUrl, Duration.ofSeconds(5), 1, 100_000);
+        CompletableFuture<String> running = lookup.lookUpAsync("first");
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            results.add(lookup.lookUpAsync("word" + i));
+        }
+        assertEquals(50_000, lookup.queued());
+        // the slot comes free: every queued send now fails inside sendAsync, on this thread
+        first.completeExceptionally(new IOException("connection reset"));
+        assertTrue(running.isCompletedExceptionally());
+        for (CompletableFuture<String> result : results) {
+            assertTrue(result.isCompletedExceptionally());
+        }
+        assertEquals(0, lookup.queued());
+        assertEquals(0, lookup.inFlight());
+    }
+
+    // the first request waits for the given future, every later one has already failed when sendAsync returns
+    private static final class FailingClient extends HttpClient {
+        private final CompletableFuture<HttpResponse<Object>> first;
+        private final AtomicInteger sends = new AtomicInteger();
+
+        FailingClient(CompletableFuture<HttpResponse<Object>> first) {
+            this.first = first;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler) {
+            if (sends.getAndIncrement() == 0) {
+                return (CompletableFuture<HttpResponse<T>>) (CompletableFuture<?>) first;
+            }
+            return CompletableFuture.failedFuture(new IOException("connection refused"));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> push) {
+            return sendAsync(request, handler);
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+            throw new IOException("not used");
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: ReplicationTest.java
+ * @Description: Log shipping between a ReplicaFeed on a local socket and a ReplicaClient with an in-memory store.
+ * @Date: Created at 14:30 on 2026/10/21
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - ReplicationLog: ordered reads, waiting for the next mutation, null once a mutation left the backlog
+ * - A new replica installs a snapshot, then applies the stream in order and reports no lag
+ * - A replica that fell out of the backlog while disconnected catches up from a new snapshot
+ */
+
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.replication.ReplicaClient;
+import distributed.replication.ReplicaFeed;
+import distributed.replication.ReplicationLog;
+import junit.framework.TestCase;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+public class ReplicationTest extends TestCase {
+
+    private ServerSocket server;
+    private ReplicationLog log;
+    // the primary's dictionary, changed together with the log
+    private final List<String[]> primaryRows = new ArrayList<>();
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+
+    // what the replica applied
+    private final List<String> applied = new CopyOnWriteArrayList<>();
+    private volatile List<String[]> installed;
+    private volatile int installs = 0;
+
+    private void startPrimary(int backlog) throws IOException {
+        log = new ReplicationLog(backlog);
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.add(socket);
+                    Thread feed = new Thread(() -> feed(socket));
+                    feed.setDaemon(true);
+                    feed.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // the binary handshake as DictionaryServer does it, then the feed
+    private void feed(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            in.readUnsignedByte();
+            out.writeByte(Protocol.MAGIC);
+            out.writeByte(Math.min(in.readUnsignedByte(), Protocol.VERSION));
+            out.flush();
+            Frame request = Frame.read(in);
+            ReplicaFeed.serve(log, request, in, out, this::snapshot, Executors.newVirtualThreadPerTaskExecutor());
+        } catch (IOException e) {
+            // replica or test closed the connection
+        }
+    }
+
+    private synchronized ReplicationLog.Snapshot snapshot() {
+        return new ReplicationLog.Snapshot(log.lastSeq(), new ArrayList<>(primaryRows));
+    }
+
+    // a primary add: the row and its mutation record
+    private synchronized void add(String word, String definition) {
+        primaryRows.add(new String[]{word, definition});
+        log.append("A", word, definition);
+    }
+
+    private ReplicaClient startReplica() {
+        ReplicaClient replica = new ReplicaClient("127.0.0.1", server.getLocalPort(), new ReplicaClient.Store() {
+            @Override
+            public void install(List<String[]> rows) {
+                installed = rows;
+                installs++;
+                applied.clear();
+            }
+
+            @Override
+            public void apply(String[] record) {
+                applied.add(String.join(",", record));
+            }
+        });
+        replica.start();
+        return replica;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    public void testLogReads() throws InterruptedException {
+        ReplicationLog backlog = new ReplicationLog(2);
+        backlog.append("A", "apple", "fruit");
+        backlog.append("A", "pear", "fruit");
+        List<ReplicationLog.Mutation> batch = backlog.read(1, 10, 0);
+        assertEquals(2, batch.size());
+        assertEquals(1, batch.get(0).seq());
+        assertEquals("pear", batch.get(1).record()[1]);
+        assertTrue(backlog.read(3, 10, 20).isEmpty()); // nothing new within the wait
+
+        backlog.append("D", "apple", "1");
+        assertNull(backlog.read(1, 10, 0)); // seq 1 was overwritten
+        assertEquals(2, backlog.read(2, 10, 0).size());
+    }
+
+    public void testSnapshotThenStream() throws Exception {
+        startPrimary(100);
+        add("apple", "fruit");
+        try (ReplicaClient replica = startReplica()) {
+            waitFor(() -> installs == 1);
+            assertEquals(1, installed.size());
+            assertEquals("apple", installed.get(0)[0]);
+
+            add("banana", "yellow fruit");
+            log.append("U", "apple", "1", "red fruit");
+            waitFor(() -> applied.size() == 2);
+            assertEquals(List.of("A,banana,yellow fruit", "U,apple,1,red fruit"), applied);
+            waitFor(() -> replica.appliedSeq() == 3 && log.maxLagRecords() == 0);
+            assertEquals(0, replica.lagRecords());
+            assertEquals(1, log.replicas());
+        }
+    }
+
+    public void testFallenBehindCatchesUpFromSnapshot() throws Exception {
+        startPrimary(4);
+        try (ReplicaClient replica = startReplica()) {
+            waitFor(() -> installs == 1 && replica.isConnected());
+            add("apple", "fruit");
+            waitFor(() -> replica.appliedSeq() == 1);
+
+            // the connection drops and more mutations than the backlog holds go by meanwhile
+            connections.get(0).close();
+            waitFor(() -> !replica.isConnected());
+            for (int i = 0; i < 10; i++) {
+                add("word" + i, "definition " + i);
+            }
+            waitFor(() -> installs == 2 && replica.appliedSeq() == 11);
+            assertEquals(11, installed.size());
+            assertEquals(2, replica.snapshots());
+
+            add("late", "after the snapshot");
+            waitFor(() -> applied.contains("A,late,after the snapshot"));
+            assertEquals(12, replica.appliedSeq());
+        }
+    }
+}
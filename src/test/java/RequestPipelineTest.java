@@ -0,0 +1,96 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: RequestPipelineTest.java
+ * @Description: Table-based validation and direct reply encoding match the former regex / writeUTF code.
+ * @Date: Created at 18:50 on 2026/10/17
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Every BMP character against the former regexes
+ * - Legacy reply bytes against writeUTF(String.valueOf(list))
+ * - Binary payload bytes against String.getBytes
+ * - A legacy multi-line reply past the writeUTF limit is cut to whole lines plus a note
+ */
+
+import distributed.protocol.Protocol;
+import distributed.protocol.ReplyEncoder;
+import distributed.protocol.WordValidator;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class RequestPipelineTest extends TestCase {
+
+    // the regexes DictionaryServer used before
+    private static final Pattern LANGUAGE = Pattern.compile("^[a-zA-Z0-9" +
+            "\\u4e00-\\u9fa5\\u0400-\\u04FF\\u0600-\\u06FF\\u0E00-\\u0E7F\\u0900-\\u097F\\u0980-\\u09FF" +
+            "\\u3040-\\u30FF\\uAC00-\\uD7AF\\u0D00-\\u0D7F\\u1E00-\\u1EFF]+$");
+    private static final Pattern SPECIAL = Pattern.compile(".*[\\p{P}\\s]+.*");
+
+    public void testEveryCharacterMatchesTheRegexes() {
+        for (int c = 0; c < 65536; c++) {
+            String word = "a" + (char) c + "b";
+            assertEquals("language " + Integer.toHexString(c),
+                    LANGUAGE.matcher(word).matches(), WordValidator.languageSupported(word));
+            assertEquals("special " + Integer.toHexString(c),
+                    SPECIAL.matcher(word).matches(), WordValidator.specialCharacters(word));
+            assertEquals(LANGUAGE.matcher(word).matches() && !SPECIAL.matcher(word).matches(),
+                    WordValidator.isValid(word));
+        }
+    }
+
+    public void testEmptyWordIsRejected() {
+        assertFalse(WordValidator.languageSupported(""));
+        assertFalse(WordValidator.isValid(""));
+        assertFalse(WordValidator.specialCharacters(""));
+    }
+
+    public void testLegacyReplyMatchesWriteUTF() throws IOException {
+        List<List<String>> cases = Arrays.asList(
+                List.of(),
+                List.of("No definitions, You can add one !"),
+                List.of("adorable animal", "大自然里的动物", "zero\u0000byte", "emoji 😀"));
+        for (List<String> definitions : cases) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            new DataOutputStream(expected).writeUTF(String.valueOf(definitions));
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            new ReplyEncoder().writeDefinitions(new DataOutputStream(actual), definitions);
+            assertTrue(definitions.toString(), Arrays.equals(expected.toByteArray(), actual.toByteArray()));
+        }
+    }
+
+    public void testBinaryPayloadRoundTrip() throws IOException {
+        List<String> values = List.of("", "cat", "动物", "emoji 😀", "lone \uD800 surrogate");
+        List<String> decoded = Protocol.decodeStrings(ReplyEncoder.encodeStrings(values));
+        for (int i = 0; i < values.size(); i++) {
+            String viaJdk = new String(values.get(i).getBytes(java.nio.charset.StandardCharsets.UTF_8),
+                    java.nio.charset.StandardCharsets.UTF_8);
+            assertEquals(viaJdk, decoded.get(i));
+        }
+    }
+
+    public void testLongLegacyReportIsCut() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lines.add("gauge.number" + i + ": " + "δ".repeat(20));
+        }
+        String fitted = ReplyEncoder.fitLines(lines);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(fitted); // would throw UTFDataFormatException past the limit
+        String[] sent = fitted.split("\n");
+        int kept = sent.length - 1;
+        assertTrue(kept > 0 && kept < lines.size());
+        assertEquals(lines.subList(0, kept), Arrays.asList(sent).subList(0, kept));
+        assertEquals("... " + (lines.size() - kept) + " more lines, the binary protocol sends the whole report",
+                sent[kept]);
+
+        List<String> few = List.of("local: requests 3", "disk.active: 0");
+        assertEquals(String.join("\n", few), ReplyEncoder.fitLines(few));
+    }
+}
@@ -0,0 +1,89 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: RewriteOrderTest.java
+ * @Description: Row order of words.csv when rewrite mode update/delete write it from the in-memory index.
+ * @Date: Created at 14:50 on 2026/10/24
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Headwords keep their first-appearance order, rows of a repeated headword keep theirs
+ * - Update and delete hit the order-th row of the headword, in the file as in the index
+ * - A restart reads back the same definitions in the same order
+ */
+
+import com.opencsv.CSVReader;
+import distributed.client.DictionaryConnection;
+import distributed.protocol.Protocol;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class RewriteOrderTest extends TestCase {
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("rewrite-order");
+        Files.writeString(directory.resolve("words.csv"), "apple,a1\npear,p1\napple,a2\nplum,x1\napple,a3\npear,p2\n");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // words.csv as "word=definition" lines, in file order
+    private List<String> csvRows() throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(
+                Files.newInputStream(directory.resolve("words.csv")), StandardCharsets.UTF_8))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(row[0] + "=" + row[1]);
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> call(DictionaryConnection connection, byte op, String... args) throws Exception {
+        return connection.request(op, args).get(10, TimeUnit.SECONDS);
+    }
+
+    public void testUpdateAndDeleteOfRepeatedHeadwords() throws Exception {
+        try (ServerProcess server = ServerProcess.start(directory);
+             DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            assertEquals(List.of("Word updated successfully."), call(connection, Protocol.OP_UPDATE, "apple", "2A2"));
+            assertEquals(List.of("apple=a1", "apple=A2", "apple=a3", "pear=p1", "pear=p2", "plum=x1"), csvRows());
+
+            assertEquals(List.of("Word deleted successfully."), call(connection, Protocol.OP_DELETE, "pear", "1"));
+            assertEquals(List.of("apple=a1", "apple=A2", "apple=a3", "pear=p2", "plum=x1"), csvRows());
+
+            assertEquals(List.of("Word deleted successfully."), call(connection, Protocol.OP_DELETE, "apple", "1"));
+            assertEquals(List.of("Word updated successfully."), call(connection, Protocol.OP_UPDATE, "apple", "2A3"));
+            assertEquals(List.of("Word added successfully."), call(connection, Protocol.OP_ADD, "fig", "f1"));
+            assertEquals(List.of("Word deleted successfully."), call(connection, Protocol.OP_DELETE, "plum", "1"));
+            assertEquals(List.of("apple=A2", "apple=A3", "pear=p2", "fig=f1"), csvRows());
+            assertEquals(List.of("A2", "A3"), call(connection, Protocol.OP_LOCAL, "apple"));
+        }
+        try (ServerProcess server = ServerProcess.start(directory);
+             DictionaryConnection connection = DictionaryConnection.open("127.0.0.1", server.port())) {
+            assertEquals(List.of("A2", "A3"), call(connection, Protocol.OP_LOCAL, "apple"));
+            assertEquals(List.of("p2"), call(connection, Protocol.OP_LOCAL, "pear"));
+            assertEquals(List.of("f1"), call(connection, Protocol.OP_LOCAL, "fig"));
+        }
+    }
+}
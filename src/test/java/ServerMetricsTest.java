@@ -0,0 +1,89 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: ServerMetricsTest.java
+ * @Description: Latency histogram percentiles and the per-operation metrics registry.
+ * @Date: Created at 11:40 on 2026/10/19
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Percentiles within the bucket error (1/16) of the exact values
+ * - Requests / errors per operation, unknown operations counted as "other"
+ * - Gauges in the report, the MXBean readable through the platform MBean server
+ */
+
+import distributed.metrics.LatencyHistogram;
+import distributed.metrics.OperationStats;
+import distributed.metrics.ServerMetrics;
+import junit.framework.TestCase;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class ServerMetricsTest extends TestCase {
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.99));
+        // 1..100000 ns, exact p50 = 50000, p99 = 99000, p999 = 99900
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000.5, histogram.mean(), 0.001);
+        assertClose(50_000, histogram.percentile(0.50));
+        assertClose(99_000, histogram.percentile(0.99));
+        assertClose(99_900, histogram.percentile(0.999));
+        assertEquals(100_000, histogram.percentile(1.0));
+        // small values are exact
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(7);
+        assertEquals(3, small.percentile(0.5));
+        assertEquals(7, small.percentile(0.99));
+    }
+
+    private static void assertClose(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 16.0);
+    }
+
+    public void testOperationsAndReport() throws Exception {
+        ServerMetrics metrics = new ServerMetrics(List.of("local", "add"));
+        metrics.record("local", 2_000, false);
+        metrics.record("local", 4_000, true);
+        metrics.record("nonsense", 1_000, true);
+        metrics.record("add", 1_000, false);
+        metrics.recordError("add");
+        metrics.recordLockWait(500);
+        metrics.gauge("connections.active", () -> 3);
+
+        OperationStats local = metrics.getOperations().get("local");
+        assertEquals(2, local.getRequests());
+        assertEquals(1, local.getErrors());
+        assertTrue(local.getMaxMicros() >= 3.9 && local.getMaxMicros() <= 4.1);
+        assertEquals(1, metrics.getOperations().get(ServerMetrics.OTHER).getErrors());
+        assertEquals(1, metrics.getOperations().get("add").getErrors());
+        assertEquals(1, metrics.getLockWait().getRequests());
+
+        List<String> report = metrics.getReport();
+        assertTrue(report.get(0).startsWith("local: requests 2, errors 1"));
+        assertTrue(report.contains("connections.active: 3"));
+
+        // the MXBean maps to open types: operations become a table of composite rows
+        assertTrue(metrics.register());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ServerMetrics.OBJECT_NAME);
+        try {
+            TabularData operations = (TabularData) server.getAttribute(name, "Operations");
+            assertEquals(3, operations.size());
+            assertNotNull(server.getAttribute(name, "Gauges"));
+            assertEquals(report.size(), ((String[]) server.getAttribute(name, "Report")).length);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: ServerProcess.java
+ * @Description: A DictionaryServer in its own JVM over a temporary directory, for tests of the whole server.
+ * @Date: Created at 10:10 on 2026/10/24
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @Functionality:
+        * - The server's settings are static and read once, so each setting under test needs its own JVM
+ * - words.csv (and log, snapshot) live in the given directory, the output goes to server.out next to them
+ * - Started once it accepts connections; stopped by killing it, which the files see as a crash
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ServerProcess implements AutoCloseable {
+
+    private final Process process;
+    private final int port;
+
+    private ServerProcess(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    // start a server on directory/words.csv with extra -D settings ("name=value"), once it accepts connections
+    public static ServerProcess start(Path directory, String... properties) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        // surefire's own class path property lists the real entries, java.class.path may be its booter jar
+        command.add(System.getProperty("surefire.test.class.path", System.getProperty("java.class.path")));
+        command.add("-Ddictionary.file=" + directory.resolve("words.csv"));
+        for (String property : properties) {
+            command.add("-D" + property);
+        }
+        command.add("distributed.app.DictionaryServer");
+        command.add("127.0.0.1");
+        command.add(String.valueOf(port));
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(directory.resolve("server.out").toFile()))
+                .start();
+        ServerProcess server = new ServerProcess(process, port);
+        for (int i = 0; i < 200; i++) {
+            try {
+                new Socket("127.0.0.1", port).close();
+                return server;
+            } catch (IOException e) {
+                if (!process.isAlive()) {
+                    throw new IOException("Server exited with " + process.exitValue() + ", see " + directory.resolve("server.out"));
+                }
+                Thread.sleep(50);
+            }
+        }
+        server.kill();
+        throw new IOException("Server did not start, see " + directory.resolve("server.out"));
+    }
+
+    public int port() {
+        return port;
+    }
+
+    // stop at once, nothing is flushed or compacted: a crash as far as the files are concerned
+    public void kill() {
+        process.destroyForcibly();
+        try {
+            process.waitFor(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        kill();
+    }
+}
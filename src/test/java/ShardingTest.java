@@ -0,0 +1,172 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: ShardingTest.java
+ * @Description: Consistent-hash shard map, and the sharded client's routing against stub shard servers.
+ * @Date: Created at 14:40 on 2026/10/22
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - Owners do not depend on case or on how the map was built; headwords spread evenly over the nodes
+ * - Adding a node moves about 1/N of the headwords, all of them to the new node
+ * - A MOVED reply with a newer map makes the client fetch it; one with an older map is retried until the node switched
+ */
+
+import distributed.protocol.Frame;
+import distributed.protocol.Protocol;
+import distributed.sharding.ShardMap;
+import distributed.sharding.ShardedClient;
+import junit.framework.TestCase;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardingTest extends TestCase {
+
+    private final List<ServerSocket> servers = new ArrayList<>();
+
+    // a shard that answers lookups of its own headwords and MOVED for the rest
+    private final class StubShard {
+        final ServerSocket socket;
+        final String node;
+        volatile ShardMap map;
+
+        StubShard() throws IOException {
+            socket = new ServerSocket(0);
+            servers.add(socket);
+            node = "127.0.0.1:" + socket.getLocalPort();
+        }
+
+        void start() {
+            Thread acceptor = new Thread(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket connection = socket.accept();
+                        Thread served = new Thread(() -> serve(connection));
+                        served.setDaemon(true);
+                        served.start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private void serve(Socket connection) {
+            try (connection) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                in.readUnsignedByte();
+                int version = in.readUnsignedByte();
+                out.writeByte(Protocol.MAGIC);
+                out.writeByte(version);
+                out.flush();
+                while (true) {
+                    Frame request = Frame.read(in);
+                    ShardMap current = map;
+                    Frame reply;
+                    if (request.opcode() == Protocol.OP_SHARD_MAP) {
+                        reply = Frame.of(request.requestId(), request.opcode(), Protocol.FLAG_NONE, current.encode());
+                    } else {
+                        String word = request.strings().get(0);
+                        reply = current.owns(node, word)
+                                ? Frame.of(request.requestId(), request.opcode(), Protocol.FLAG_NONE, List.of(word + "@" + node))
+                                : Frame.error(request.requestId(), request.opcode(), ShardedClient.moved(current, word));
+                    }
+                    reply.write(out);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // client or test closed
+            }
+        }
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        for (ServerSocket server : servers) {
+            server.close();
+        }
+    }
+
+    private static List<String> words(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add("word" + i);
+        }
+        return words;
+    }
+
+    public void testOwnersAreStableAndEven() throws Exception {
+        ShardMap map = ShardMap.parse(1, "10.0.0.1:9000,10.0.0.2:9000, 10.0.0.3:9000");
+        ShardMap decoded = ShardMap.decode(map.encode());
+        assertEquals(3, map.nodes().size());
+        assertEquals("Apple owner", map.ownerOf("apple"), map.ownerOf("APPLE"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words(30_000)) {
+            assertEquals(map.ownerOf(word), decoded.ownerOf(word));
+            counts.merge(map.ownerOf(word), 1, Integer::sum);
+        }
+        for (int count : counts.values()) {
+            assertTrue("uneven split " + counts, count > 8_000 && count < 12_000);
+        }
+    }
+
+    public void testAddingANodeOnlyMovesHeadwordsToIt() {
+        ShardMap before = ShardMap.parse(3, "a:1,b:1,c:1");
+        ShardMap after = before.with("d:1");
+        assertEquals(4, after.version());
+        int moved = 0;
+        for (String word : words(20_000)) {
+            if (!before.ownerOf(word).equals(after.ownerOf(word))) {
+                assertEquals("d:1", after.ownerOf(word));
+                moved++;
+            }
+        }
+        assertTrue("moved " + moved, moved > 3_500 && moved < 6_500); // about a quarter
+    }
+
+    public void testClientFollowsMovedReplies() throws Exception {
+        StubShard a = new StubShard();
+        StubShard b = new StubShard();
+        ShardMap one = new ShardMap(1, List.of(a.node));
+        ShardMap two = one.with(b.node);
+        a.map = two;
+        b.map = two;
+        a.start();
+        b.start();
+        String movedWord = words(100).stream().filter(word -> two.owns(b.node, word)).findFirst().orElseThrow();
+
+        // the client still has the old map: a answers MOVED with v2, the client takes a's map
+        try (ShardedClient client = new ShardedClient(one)) {
+            assertEquals(List.of(movedWord + "@" + b.node), client.lookUp(movedWord));
+            assertEquals(2, client.map().version());
+        }
+
+        // b has not switched yet and points back to a: retried until it does
+        b.map = one;
+        Thread switcher = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            b.map = two;
+        });
+        switcher.start();
+        try (ShardedClient client = new ShardedClient(two)) {
+            assertEquals(List.of(movedWord + "@" + b.node), client.lookUp(movedWord));
+        }
+        switcher.join();
+    }
+}
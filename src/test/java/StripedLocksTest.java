@@ -0,0 +1,63 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: StripedLocksTest.java
+ * @Description: Headword stripes for parallel writers.
+ * @Date: Created at 19:40 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - One headword, any case, always the same stripe
+ * - Writers of different stripes hold their locks at the same time
+ * - Batch stripes are distinct and ascending
+ */
+
+import distributed.models.StripedLocks;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StripedLocksTest extends TestCase {
+
+    public void testStripeIsCaseFolded() {
+        StripedLocks locks = new StripedLocks(50);
+        assertEquals(64, locks.stripes());
+        assertEquals(locks.stripe("cat"), locks.stripe("CAT"));
+        assertEquals(locks.stripe("Привет"), locks.stripe("привет"));
+    }
+
+    public void testDifferentStripesDoNotWait() throws InterruptedException {
+        StripedLocks locks = new StripedLocks(64);
+        String a = "apple";
+        String b = "banana";
+        for (int i = 0; locks.stripe(a) == locks.stripe(b); i++) {
+            b = "banana" + i;
+        }
+        String other = b;
+        CountDownLatch held = new CountDownLatch(1);
+        locks.lock(a);
+        try {
+            Thread writer = new Thread(() -> {
+                locks.lock(other);
+                held.countDown();
+                locks.unlock(other);
+            });
+            writer.start();
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+            writer.join();
+        } finally {
+            locks.unlock(a);
+        }
+    }
+
+    public void testBatchStripesAscending() {
+        StripedLocks locks = new StripedLocks(8);
+        int[] stripes = locks.stripesOf(List.of("a", "b", "A", "c", "d", "e", "f", "g", "h", "i"));
+        for (int i = 1; i < stripes.length; i++) {
+            assertTrue(stripes[i - 1] < stripes[i]);
+        }
+        locks.lockAll(stripes);
+        locks.unlockAll(stripes);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: WordIndexTest.java
+ * @Description: Exact, prefix and "did you mean" lookups of the headword index.
+ * @Date: Created at 20:40 on 2026/10/17
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Case-folded exact lookup and order-based remove
+ * - Prefix search across scripts
+ * - Suggestions follow adds and removes without a rebuild
+ * - Packed storage past one page / one sorted tail, long and multi-byte definitions
+ * - Packing the change tree into a new base keeps every row and its order, older versions stay readable
+ */
+
+import distributed.models.WordIndex;
+import distributed.models.WordVersion;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WordIndexTest extends TestCase {
+
+    private WordIndex index() {
+        return new WordIndex(List.of(
+                new String[]{"cat", "animal"},
+                new String[]{"Cat", "musical"},
+                new String[]{"car", "vehicle"},
+                new String[]{"cart", "trolley"},
+                new String[]{"动物", "animal"},
+                new String[]{"动画", "cartoon"},
+                new String[]{"Привет", "hello"}));
+    }
+
+    public void testExactLookupIsCaseFolded() {
+        WordIndex index = index();
+        assertEquals(List.of("animal", "musical"), index.definitions("CAT"));
+        assertTrue(index.contains("привет"));
+        assertEquals("Cat", index.remove("cat", 2)[0]);
+        assertEquals(List.of("animal"), index.definitions("cat"));
+        assertNull(index.remove("cat", 2));
+    }
+
+    public void testPrefixSearch() {
+        WordIndex index = index();
+        assertEquals(List.of("car", "cart", "cat"), index.prefixSearch("CA", 10));
+        assertEquals(List.of("car"), index.prefixSearch("ca", 1));
+        assertEquals(List.of("动物", "动画"), index.prefixSearch("动", 10));
+        assertEquals(List.of("Привет"), index.prefixSearch("ПРИ", 10));
+        assertTrue(index.prefixSearch("zzz", 10).isEmpty());
+    }
+
+    public void testSuggestionsFollowAddAndRemove() {
+        WordIndex index = index();
+        assertEquals(List.of("car", "cart", "cat"), index.suggest("caar", 5));
+        assertEquals("cat", index.suggest("act", 5).get(0)); // swapped neighbours
+        index.remove("car", 1);
+        assertFalse(index.suggest("caar", 5).contains("car"));
+        index.add(new String[]{"caat", "new"});
+        assertEquals("caat", index.suggest("caar", 5).get(0));
+    }
+
+    public void testManyHeadwordsAndLongDefinitions() {
+        String longDefinition = "长".repeat(200_000); // 600 KB of UTF-8, gets a page of its own
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new String[]{"Word" + i, i == 1234 ? longDefinition : "meaning " + i});
+        }
+        WordIndex index = new WordIndex(rows);
+        index.add(new String[]{"word7", "second"});
+        assertEquals(5001, index.size());
+        assertEquals(longDefinition, index.definitions("word1234").get(0));
+        assertEquals(List.of("meaning 7", "second"), index.definitions("WORD7"));
+        assertEquals(List.of("Word5", "Word50", "Word500", "Word501"), index.prefixSearch("word5", 4));
+        assertTrue(index.update("word42", 1, "updated"));
+        assertEquals(List.of("updated"), index.definitions("word42"));
+        assertEquals("Word42", index.remove("word42", 1)[0]);
+        assertFalse(index.contains("word42"));
+        assertEquals(List.of("Word420", "Word4200"), index.prefixSearch("word42", 2));
+        assertEquals(5000, index.allRows().size());
+    }
+
+    public void testPackFoldsTheChangeTree() {
+        WordIndex index = index();
+        index.add(new String[]{"dog", "animal"});
+        index.add(new String[]{"cat", "tool"});
+        index.update("car", 1, "automobile");
+        index.remove("cart", 1);
+        WordVersion before = index.current();
+        List<String> rows = new ArrayList<>();
+        for (String[] row : index.allRows()) {
+            rows.add(row[0] + "=" + row[1]);
+        }
+        assertEquals(4, before.changedHeadwords());
+
+        index.pack();
+        assertEquals(0, index.current().changedHeadwords());
+        assertTrue(index.current().version() > before.version());
+        List<String> packed = new ArrayList<>();
+        for (String[] row : index.allRows()) {
+            packed.add(row[0] + "=" + row[1]);
+        }
+        assertEquals(rows, packed);
+        assertEquals(List.of("animal", "musical", "tool"), index.definitions("cat"));
+        assertFalse(index.contains("cart"));
+        assertEquals(List.of("animal"), before.definitions("dog")); // a reader's version is untouched
+
+        index.add(new String[]{"cart", "wagon"});
+        assertEquals(1, index.current().changedHeadwords());
+        assertEquals(List.of("cart"), index.prefixSearch("cart", 10));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: WordSnapshotTest.java
+ * @Description: Mapped snapshot answers like the in-memory index, with changes layered on top.
+ * @Date: Created at 22:10 on 2026/10/17
+        * @ModifiedBy: Garvyn
+        * @Version: V1.1
+        * @TestCoverage:
+        * - Lookup, prefix search and CSV order straight from the snapshot
+ * - Add / update / delete over snapshot headwords
+ * - Staleness stamp
+ * - Rows of a headword spread over the CSV are grouped by the writer, in their order
+ */
+
+import distributed.models.WordIndex;
+import distributed.models.WordSnapshot;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WordSnapshotTest extends TestCase {
+
+    private static final List<String[]> ROWS = List.of(
+            new String[]{"cat", "animal"},
+            new String[]{"Cat", "musical"},
+            new String[]{"动物", "animal"},
+            new String[]{"car", "vehicle"},
+            new String[]{"cart", "trolley"},
+            new String[]{"emoji😀", "smile"});
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("words", ".snap");
+        WordSnapshot.write(file, ROWS, 123L, 456L);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static List<String> flatten(List<String[]> rows) {
+        List<String> flat = new ArrayList<>();
+        for (String[] row : rows) {
+            flat.add(row[0] + "=" + row[1]);
+        }
+        return flat;
+    }
+
+    public void testQueriesInPlace() throws IOException {
+        WordSnapshot snapshot = WordSnapshot.open(file);
+        assertTrue(snapshot.matches(123L, 456L));
+        assertFalse(snapshot.matches(124L, 456L));
+        WordIndex index = new WordIndex(snapshot);
+        assertEquals(6, index.size());
+        assertEquals(List.of("animal", "musical"), index.definitions("CAT"));
+        assertEquals(List.of("smile"), index.definitions("EMOJI😀"));
+        assertTrue(index.definitions("ca").isEmpty());
+        assertEquals(List.of("car", "cart", "cat"), index.prefixSearch("ca", 10));
+        assertEquals(List.of("动物"), index.prefixSearch("动", 10));
+        assertEquals(List.of("cart", "cat", "car"), index.suggest("caat", 5));
+        assertEquals(flatten(ROWS), flatten(index.allRows()));
+    }
+
+    public void testChangesLayeredOverSnapshot() throws IOException {
+        WordIndex index = new WordIndex(WordSnapshot.open(file));
+        index.add(new String[]{"cab", "taxi"});
+        index.add(new String[]{"CAR", "automobile"});
+        assertTrue(index.update("cart", 1, "shopping trolley"));
+        assertNotNull(index.remove("cat", 1));
+        assertNotNull(index.remove("cat", 1));
+        assertNull(index.remove("cat", 1));
+        assertFalse(index.contains("cat"));
+        assertEquals(List.of("vehicle", "automobile"), index.definitions("car"));
+        assertEquals(List.of("cab", "car", "cart"), index.prefixSearch("ca", 10));
+        assertEquals(List.of("car"), index.suggest("caar", 1));
+        assertEquals(6, index.size());
+        assertEquals(List.of("动物=animal", "car=vehicle", "CAR=automobile", "cart=shopping trolley",
+                "emoji😀=smile", "cab=taxi"), flatten(index.allRows()));
+
+        // a snapshot of the changed rows replaces the in-memory copies
+        WordSnapshot.write(file, index.allRows(), 1L, 1L);
+        index.rebase(WordSnapshot.open(file));
+        assertEquals(List.of("cab", "car", "cart"), index.prefixSearch("ca", 10));
+        assertEquals(List.of("taxi"), index.definitions("cab"));
+        assertEquals(6, index.size());
+    }
+
+    public void testRowsInFileOrderAreGrouped() throws IOException {
+        WordSnapshot.write(file, List.of(
+                new String[]{"cat", "animal"},
+                new String[]{"car", "vehicle"},
+                new String[]{"CAT", "musical"},
+                new String[]{"car", "automobile"}), 1L, 1L);
+        WordIndex index = new WordIndex(WordSnapshot.open(file));
+        assertEquals(List.of("animal", "musical"), index.definitions("cat"));
+        assertEquals(List.of("vehicle", "automobile"), index.definitions("car"));
+        assertEquals(List.of("cat=animal", "CAT=musical", "car=vehicle", "car=automobile"), flatten(index.allRows()));
+    }
+}
@@ -0,0 +1,88 @@
+/**
+        * @Author: Garvyn-Yuan
+ * @FileName: WordVersionTest.java
+ * @Description: Readers keep an unchanging version of the index while writers publish new ones.
+ * @Date: Created at 17:30 on 2026/10/18
+        * @ModifiedBy: Garvyn
+        * @Version: V1.0
+        * @TestCoverage:
+        * - An old version answers exactly as before later adds / updates / deletes
+ * - Version numbers, sizes and prefix search per version
+ * - Reader threads see every write whole and in order (lock-free reads during a write stream)
+ */
+
+import distributed.models.WordIndex;
+import distributed.models.WordVersion;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class WordVersionTest extends TestCase {
+
+    public void testOldVersionDoesNotChange() {
+        WordIndex index = new WordIndex(List.of(
+                new String[]{"cat", "animal"},
+                new String[]{"car", "vehicle"}));
+        WordVersion before = index.current();
+        index.add(new String[]{"cab", "taxi"});
+        assertTrue(index.update("cat", 1, "pet"));
+        assertNotNull(index.remove("car", 1));
+        WordVersion after = index.current();
+
+        assertEquals(3, after.version() - before.version());
+        assertEquals(List.of("animal"), before.definitions("cat"));
+        assertEquals(List.of("pet"), after.definitions("cat"));
+        assertTrue(before.contains("car"));
+        assertFalse(after.contains("car"));
+        assertEquals(List.of("car", "cat"), before.prefixSearch("ca", 10));
+        assertEquals(List.of("cab", "cat"), after.prefixSearch("ca", 10));
+        assertEquals(2, before.size());
+        assertEquals(2, after.size());
+
+        // rows handed out are copies
+        after.rows("cat").get(0)[1] = "changed by a caller";
+        assertEquals(List.of("pet"), after.definitions("cat"));
+        assertNull(index.remove("car", 1));
+        assertSame(after, index.current()); // nothing published
+    }
+
+    public void testReadersSeeWholeWrites() throws InterruptedException {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new String[]{"word" + i, "0"});
+        }
+        WordIndex index = new WordIndex(rows);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    // "counter" is written before "log": one version never shows log ahead or a row missing
+                    WordVersion version = index.current();
+                    List<String> counter = version.definitions("counter");
+                    int log = version.definitions("log").size();
+                    boolean inOrder = counter.isEmpty() || counter.get(counter.size() - 1).equals(String.valueOf(counter.size() - 1));
+                    if (counter.size() - log < 0 || counter.size() - log > 1 || !inOrder
+                            || version.size() != 1000 + counter.size() + log) {
+                        failure.set("version " + version.version() + ": " + counter.size() + " / " + log);
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (int i = 0; i < 2000; i++) {
+            index.add(new String[]{"counter", String.valueOf(i)});
+            index.add(new String[]{"log", String.valueOf(i)});
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+}